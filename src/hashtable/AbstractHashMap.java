@@ -4,41 +4,111 @@ import interfaces.AbstractMap;
 import interfaces.Entry;
 
 import java.util.ArrayList;
-import java.util.Random;
 
 /**
  * An abstract base class supporting Map implementations that use hash
- * tables with MAD compression.
+ * tables with a pluggable compression function (MAD by default).
  * <p>
  * The base class provides the following means of support:
- * 1) Support for calculating hash values with MAD compression
- * 2) Support for resizing table when load factor reaches 1/2
+ * 1) Support for calculating hash values with a HashStrategy
+ * 2) Support for resizing table when load factor exceeds maxLoadFactor() (1/2 by default),
+ *    and for shrinking it when the load factor drops below minLoadFactor()
+ *    (never, by default) or when trimToSize() is called
+ * 3) Optional incremental resizing, where the old table is drained a few
+ *    buckets at a time by subsequent operations instead of all at once
  * <p>
  * Subclass is responsible for providing abstract methods:
  * createTable(), bucketGet(h,k), bucketPut(h,k,v),
  * bucketRemove(h,k), and entrySet()
  * and for accurately maintaining the protected member, n,
  * to reflect changes within bucketPut and bucketRemove.
+ * Subclasses that support incremental resizing must also override
+ * retireTable(), drainOldBucket(j) and discardOldTable().
  */
 public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
     protected int n = 0;                 // number of entries in the dictionary
     protected int capacity;              // length of the table
-    private int prime;                   // prime factor
-    private long scale;              // the scaling factor
-    private long shift;              // the shift factor
+    private final HashStrategy strategy; // compression function and table sizes
+
+    /** Load factor above which the table grows, unless another is given. */
+    public static final double DEFAULT_MAX_LOAD = 0.5;
+    /** Smallest capacity trimToSize() will shrink the table to. */
+    private static final int MIN_CAPACITY = 2;
+
+    private final double maxLoad;        // grow when n > capacity * maxLoad
+    private final double minLoad;        // shrink when n < capacity * minLoad (0 = never)
+    private final int minCapacity;       // removals never shrink the table below its initial size
+
+    /** Number of old buckets migrated by each operation during an incremental resize. */
+    private static final int MIGRATE_STEP = 4;
+
+    private final boolean incremental;   // resize incrementally rather than all at once
+    private int oldCapacity = 0;         // length of the table being drained (0 if none)
+    private int migrateIndex = 0;        // next old bucket to be migrated
 
     /**
      * Creates a hash table with the given capacity and prime factor.
      */
     public AbstractHashMap(int cap, int p) {
-        prime = p;
-        capacity = cap;
-        Random rand = new Random();
-        scale = rand.nextInt(prime - 1) + 1;
-        shift = rand.nextInt(prime);
+        this(cap, new MADHashStrategy(p), false);
+    }
+
+    /**
+     * Creates a hash table with the given capacity and prime factor, which
+     * resizes incrementally if requested.
+     */
+    protected AbstractHashMap(int cap, int p, boolean incremental) {
+        this(cap, new MADHashStrategy(p), incremental);
+    }
+
+    /**
+     * Creates a hash table of at least the given capacity that compresses hash
+     * codes with the given strategy, and resizes incrementally if requested.
+     */
+    protected AbstractHashMap(int cap, HashStrategy strategy, boolean incremental) {
+        this(cap, strategy, incremental, DEFAULT_MAX_LOAD, 0);
+    }
+
+    /**
+     * Creates a hash table of at least the given capacity that compresses hash
+     * codes with the given strategy, and resizes incrementally if requested.
+     * The table grows once its load factor exceeds maxLoad and, if minLoad is
+     * positive, shrinks on removal once the load factor falls below minLoad.
+     * <p>
+     * minLoad may be at most a quarter of maxLoad. This leaves a gap between
+     * the two thresholds, so a table that has just grown or shrunk is far from
+     * resizing back, and alternating puts and removes cannot thrash it.
+     *
+     * @throws IllegalArgumentException if the load factors are out of range
+     */
+    protected AbstractHashMap(int cap, HashStrategy strategy, boolean incremental,
+                              double maxLoad, double minLoad) {
+        if (!(maxLoad > 0)) {
+            throw new IllegalArgumentException("maxLoad must be positive: " + maxLoad);
+        }
+        if (!(minLoad >= 0 && minLoad <= maxLoad / 4)) {
+            throw new IllegalArgumentException("minLoad must be between 0 and maxLoad/4: " + minLoad);
+        }
+        this.incremental = incremental;
+        this.strategy = strategy;
+        this.maxLoad = maxLoad;
+        this.minLoad = minLoad;
+        capacity = strategy.tableSize(cap);
+        minCapacity = capacity;
         createTable();
     }
 
+    /**
+     * Returns maxLoad if it is below 1, as open addressing requires, and
+     * throws IllegalArgumentException otherwise.
+     */
+    protected static double checkOpenAddressingLoad(double maxLoad) {
+        if (maxLoad >= 1) {
+            throw new IllegalArgumentException("open addressing needs maxLoad < 1: " + maxLoad);
+        }
+        return maxLoad;
+    }
+
     /**
      * Creates a hash table with given capacity and prime factor 109345121.
      */
@@ -46,6 +116,14 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
         this(cap, 109345121);
     }  // default prime
 
+    /**
+     * Creates a hash table with given capacity and prime factor 109345121, which
+     * resizes incrementally if requested.
+     */
+    protected AbstractHashMap(int cap, boolean incremental) {
+        this(cap, 109345121, incremental);
+    }
+
     /**
      * Creates a hash table with capacity 17 and prime factor 109345121.
      */
@@ -73,6 +151,9 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
      */
     @Override
     public V get(K key) {
+        if (isMigrating()) {
+            migrateStep(key);
+        }
         return bucketGet(hashValue(key), key);
     }
 
@@ -85,7 +166,14 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
      */
     @Override
     public V remove(K key) {
-        return bucketRemove(hashValue(key), key);
+        if (isMigrating()) {
+            migrateStep(key);
+        }
+        V answer = bucketRemove(hashValue(key), key);
+        if (n < capacity * minLoad && capacity > minCapacity) {
+            shrink();
+        }
+        return answer;
     }
 
     /**
@@ -100,24 +188,84 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
      */
     @Override
     public V put(K key, V value) {
+        if (isMigrating()) {
+            migrateStep(key);
+        }
         V answer = bucketPut(hashValue(key), key, value);
-        if (n > capacity / 2) {
-            resize(2 * capacity - 1);
+        if (n > capacity * maxLoadFactor()) {
+            if (incremental) {
+                startMigration(strategy.grow(capacity));
+            } else {
+                resize(strategy.grow(capacity));
+            }
         }
         return answer;
     }
 
-    // private utilities
+    /**
+     * Tests whether an incremental resize is in progress, in which case some
+     * entries may still live in the old table.
+     *
+     * @return true if the old table has not been fully drained yet
+     */
+    public boolean isMigrating() {
+        return oldCapacity > 0;
+    }
+
+    /**
+     * Returns the strategy used to compress hash codes into bucket indices.
+     *
+     * @return the map's hash strategy
+     */
+    public HashStrategy getHashStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Shrinks the table to the smallest capacity that holds the current entries
+     * within the maximum load factor, releasing the memory of a table that has
+     * been drained. Any incremental resize in progress is completed first.
+     */
+    public void trimToSize() {
+        if (isMigrating()) {
+            finishMigration();
+        }
+        int newCap = strategy.tableSize(Math.max(MIN_CAPACITY, (int) Math.ceil(n / maxLoad)));
+        if (newCap < capacity) {
+            resize(newCap);
+        }
+    }
 
     /**
-     * Hash function applying MAD method to default hash code.
+     * Returns the load factor above which the table grows.
+     *
+     * @return the maximum load factor
      */
-//    private int hashValue(K key) {
-//    	return (int) (( Math.abs(key.hashCode() * scale + shift) % prime ) % capacity);
-//    }
+    public double maxLoadFactor() {
+        return maxLoad;
+    }
+
+    /**
+     * Returns the load factor below which removals shrink the table, or 0 if
+     * the table never shrinks on removal.
+     *
+     * @return the minimum load factor
+     */
+    public double minLoadFactor() {
+        return minLoad;
+    }
 
+    // private utilities
+
+    /**
+     * Hash function applying the strategy's compression to default hash code.
+     */
     private int hashValue(K key) {
-        return (int) ((Math.abs(key.hashCode()* scale + shift) % prime) % capacity);
+        return hashValue(key, capacity);
+    }
+
+    private int hashValue(K key, int cap) {
+        return strategy.hash(key.hashCode(), cap);
     }
 
     /**
@@ -136,6 +284,72 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
         }
     }
 
+    /**
+     * Shrinks the table after removals so that its load factor lies midway
+     * between the two thresholds, but never below its initial capacity.
+     */
+    private void shrink() {
+        double target = (maxLoad + minLoad) / 2;
+        int newCap = strategy.tableSize(Math.max(minCapacity, (int) Math.ceil(n / target)));
+        if (newCap >= capacity) return;
+        if (incremental) {
+            startMigration(newCap);
+        } else {
+            resize(newCap);
+        }
+    }
+
+    /**
+     * Begins an incremental resize: the current table is retired and a new,
+     * empty table of the given capacity takes its place. Entries are moved
+     * across by later operations.
+     */
+    private void startMigration(int newCap) {
+        if (isMigrating()) {
+            finishMigration();          // never keep more than two tables
+        }
+        retireTable();
+        oldCapacity = capacity;
+        capacity = newCap;
+        createTable();  // based on updated capacity
+        migrateIndex = 0;
+    }
+
+    /**
+     * Performs a bounded amount of migration work on behalf of an operation on
+     * the given key. The key's own old bucket is moved first, so the new table
+     * is authoritative for that key by the time the operation looks it up.
+     */
+    private void migrateStep(K key) {
+        migrateBucket(hashValue(key, oldCapacity));
+        for (int i = 0; i < MIGRATE_STEP && migrateIndex < oldCapacity; i++) {
+            migrateBucket(migrateIndex++);
+        }
+        if (migrateIndex == oldCapacity) {
+            discardOldTable();
+            oldCapacity = 0;
+        }
+    }
+
+    /** Moves every entry of old bucket j into the new table. */
+    private void migrateBucket(int j) {
+        Iterable<Entry<K, V>> bucket = drainOldBucket(j);
+        if (bucket == null) return;
+        for (Entry<K, V> entry : bucket) {
+            n--;        // counted again by bucketPut
+            bucketPut(hashValue(entry.getKey()), entry.getKey(), entry.getValue());
+        }
+    }
+
+    /** Drains whatever remains of the old table in one go. */
+    private void finishMigration() {
+        while (migrateIndex < oldCapacity) {
+            migrateBucket(migrateIndex++);
+        }
+        discardOldTable();
+        oldCapacity = 0;
+    }
+
     // protected abstract methods to be implemented by subclasses
 
     /**
@@ -173,4 +387,31 @@ public abstract class AbstractHashMap<K, V> extends AbstractMap<K, V> {
      * @return previous value associated with k (or null, if no such entry)
      */
     protected abstract V bucketRemove(int h, K k);
+
+    // protected methods to be overridden by subclasses supporting incremental resize
+
+    /**
+     * Sets the current table aside as the old table, ahead of createTable()
+     * allocating a new one. Entries left in the old table must still be
+     * reported by entrySet().
+     */
+    protected void retireTable() {
+        throw new UnsupportedOperationException("incremental resize not supported");
+    }
+
+    /**
+     * Empties bucket j of the old table and returns the entries it held (or
+     * null, if it was already empty). The size n must not be changed.
+     *
+     * @param j the index of a bucket in the old table
+     * @return entries removed from the bucket (or null, if none)
+     */
+    protected Iterable<Entry<K, V>> drainOldBucket(int j) {
+        throw new UnsupportedOperationException("incremental resize not supported");
+    }
+
+    /** Releases the old table once every bucket has been drained. */
+    protected void discardOldTable() {
+        throw new UnsupportedOperationException("incremental resize not supported");
+    }
 }
@@ -2,20 +2,56 @@ package hashtable;
 
 import interfaces.Entry;
 import interfaces.Position;
+import tree.RBTreeMap;
+import utils.MapEntry;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
 
 /*
  * Map implementation using hash table with separate chaining.
+ *
+ * Each bucket is either empty (null), a singly linked chain of Node entries,
+ * or, once a chain grows past TREEIFY_THRESHOLD entries, a red-black tree
+ * keyed on the (Comparable) keys. Trees keep lookups in a crowded bucket at
+ * O(log n) even with badly distributed hash codes, and shrink back into a
+ * chain when they fall to UNTREEIFY_THRESHOLD entries.
+ *
+ * entrySet() walks the buckets in place and its iterators fail fast. During an
+ * incremental resize every operation, get included, migrates entries and so
+ * counts as a modification.
  */
 
 public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K, V> {
 
 
 
-	// a fixed capacity array of UnsortedTableMap that serve as buckets
-	private UnsortedTableMap<K, V>[] table; // initialized within createTable
+	/** Chains longer than this are converted to a tree. */
+	static final int TREEIFY_THRESHOLD = 8;
+	/** Trees that shrink to this size are converted back to a chain. */
+	static final int UNTREEIFY_THRESHOLD = 6;
+
+	/** Entry of a bucket chain, caching the key's hash code. */
+	private static final class Node<K extends Comparable<K>, V> extends MapEntry<K, V> {
+		final int hash;
+		Node<K, V> next;
+
+		Node(int hash, K key, V value, Node<K, V> next) {
+			super(key, value);
+			this.hash = hash;
+			this.next = next;
+		}
+	}
+
+	// a fixed capacity array of buckets, each null, a Node chain or an RBTreeMap
+	private Object[] table; // initialized within createTable
+	private Object[] oldTable; // being drained during an incremental resize
+	private int modCount = 0; // structural changes, checked by iterators
 
 	/** Creates a hash table with capacity 11 and prime factor 109345121. */
 	public ChainHashMap() {
@@ -35,11 +71,68 @@ public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K,
 		//createTable();
 	}
 
+	/**
+	 * Creates a hash table with given capacity and prime factor 109345121. If
+	 * incremental is true, resizing migrates a few buckets per operation rather
+	 * than rehashing every entry inside a single put.
+	 */
+	public ChainHashMap(int cap, boolean incremental) {
+		super(cap, incremental);
+	}
+
+	/** Creates a hash table with the given capacity and prime factor, optionally resizing incrementally. */
+	public ChainHashMap(int cap, int p, boolean incremental) {
+		super(cap, p, incremental);
+	}
+
+	/** Creates a hash table of at least the given capacity using the given hash strategy. */
+	public ChainHashMap(int cap, HashStrategy strategy) {
+		super(cap, strategy, false);
+	}
+
+	/** Creates a hash table using the given hash strategy, optionally resizing incrementally. */
+	public ChainHashMap(int cap, HashStrategy strategy, boolean incremental) {
+		super(cap, strategy, incremental);
+	}
+
+	/**
+	 * Creates a hash table using the given hash strategy, optionally resizing
+	 * incrementally, which grows above load factor maxLoad and shrinks below
+	 * minLoad.
+	 */
+	public ChainHashMap(int cap, HashStrategy strategy, boolean incremental, double maxLoad, double minLoad) {
+		super(cap, strategy, incremental, maxLoad, minLoad);
+	}
+
 	/** Creates an empty table having length equal to current capacity. */
 	@Override
-	@SuppressWarnings({ "unchecked" })
 	protected void createTable() {
-		table = (UnsortedTableMap<K, V>[]) new UnsortedTableMap[capacity];
+		modCount++;
+		table = new Object[capacity];
+	}
+
+	/** Sets the current table aside so that it can be drained incrementally. */
+	@Override
+	protected void retireTable() {
+		oldTable = table;
+	}
+
+	/** Empties bucket j of the old table and returns its entries. */
+	@Override
+	protected Iterable<Entry<K, V>> drainOldBucket(int j) {
+		Object bucket = oldTable[j];
+		oldTable[j] = null;
+		if (bucket == null) return null;
+		modCount++;
+		ArrayList<Entry<K, V>> entries = new ArrayList<>();
+		addEntries(bucket, entries);
+		return entries;
+	}
+
+	/** Releases the drained old table. */
+	@Override
+	protected void discardOldTable() {
+		oldTable = null;
 	}
 
 	@Override
@@ -47,9 +140,24 @@ public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K,
 		return (double) n / capacity;
 	}
 
+	/**
+	 * Returns the number of entries that share a bucket with an earlier entry,
+	 * i.e. the number of entries minus the number of non-empty buckets.
+	 */
 	@Override
 	public int numCollisions() {
-		return 0;
+		return n - countBuckets(table) - countBuckets(oldTable);
+	}
+
+	/** Returns the number of non-empty buckets in the given table. */
+	private static int countBuckets(Object[] buckets) {
+		int count = 0;
+		if (buckets != null) {
+			for (Object bucket : buckets) {
+				if (bucket != null) count++;
+			}
+		}
+		return count;
 	}
 	/**
 	 * Returns value associated with key k in bucket with hash value h. If no such
@@ -60,10 +168,16 @@ public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K,
 	 * @return associate value (or null, if no such entry)
 	 */
 	@Override
+	@SuppressWarnings({ "unchecked" })
 	protected V bucketGet(int h, K k) {
-		UnsortedTableMap<K, V> bucket = table[h];
+		Object bucket = table[h];
 		if (bucket == null) return null; // No bucket at this index
-		return bucket.get(k);
+		if (bucket instanceof RBTreeMap) return treeGet((RBTreeMap<K, V>) bucket, k);
+		int hash = k.hashCode();
+		for (Node<K, V> e = (Node<K, V>) bucket; e != null; e = e.next) {
+			if (e.hash == hash && k.equals(e.getKey())) return e.getValue();
+		}
+		return null;
 	}
 
 	/**
@@ -78,17 +192,28 @@ public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K,
 
 
 	@Override
+	@SuppressWarnings({ "unchecked" })
 	protected V bucketPut(int h, K k, V v) {
-		UnsortedTableMap<K, V> bucket = table[h];
-		if (bucket == null) {
-			bucket = new UnsortedTableMap<>();
-			table[h] = bucket;
+		Object bucket = table[h];
+		if (bucket instanceof RBTreeMap) {
+			RBTreeMap<K, V> tree = (RBTreeMap<K, V>) bucket;
+			int oldSize = tree.size();
+			V oldValue = treePut(tree, k, v);
+			if (tree.size() != oldSize) modCount++;
+			n += (tree.size() - oldSize); // Update size if a new entry was added
+			return oldValue;
 		}
-		int oldSize = bucket.size();
-		V oldValue = bucket.put(k, v);
-		n += (bucket.size() - oldSize); // Update size if a new entry was added
-		return oldValue;
-
+		int hash = k.hashCode();
+		int length = 0;
+		for (Node<K, V> e = (Node<K, V>) bucket; e != null; e = e.next) {
+			if (e.hash == hash && k.equals(e.getKey())) return e.setValue(v);
+			length++;
+		}
+		table[h] = new Node<>(hash, k, v, (Node<K, V>) bucket);
+		n++;
+		modCount++;
+		if (length + 1 > TREEIFY_THRESHOLD) treeify(h);
+		return null;
 	}
 
 
@@ -101,35 +226,210 @@ public class ChainHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K,
 	 * @return previous value associated with k (or null, if no such entry)
 	 */
 	@Override
+	@SuppressWarnings({ "unchecked" })
 	protected V bucketRemove(int h, K k) {
-		UnsortedTableMap<K, V> bucket = table[h];
+		Object bucket = table[h];
 		if (bucket == null) return null; // No bucket at this index
-		int oldSize = bucket.size();
-		V removedValue = bucket.remove(k);
-		n -= (oldSize - bucket.size()); // Update size if an entry was removed
-		return removedValue;
+		if (bucket instanceof RBTreeMap) {
+			RBTreeMap<K, V> tree = (RBTreeMap<K, V>) bucket;
+			int oldSize = tree.size();
+			V removedValue = treeRemove(tree, k);
+			if (tree.size() != oldSize) modCount++;
+			n -= (oldSize - tree.size()); // Update size if an entry was removed
+			if (tree.size() <= UNTREEIFY_THRESHOLD) untreeify(h);
+			return removedValue;
+		}
+		int hash = k.hashCode();
+		Node<K, V> prev = null;
+		for (Node<K, V> e = (Node<K, V>) bucket; e != null; prev = e, e = e.next) {
+			if (e.hash == hash && k.equals(e.getKey())) {
+				if (prev == null) table[h] = e.next;
+				else prev.next = e.next;
+				n--;
+				modCount++;
+				return e.getValue();
+			}
+		}
+		return null;
+	}
+
+	/** Converts the chain in bucket h into a red-black tree. */
+	@SuppressWarnings({ "unchecked" })
+	private void treeify(int h) {
+		RBTreeMap<K, V> tree = new RBTreeMap<>();
+		for (Node<K, V> e = (Node<K, V>) table[h]; e != null; e = e.next) {
+			treePut(tree, e.getKey(), e.getValue());
+		}
+		table[h] = tree;
 	}
 
+	/** Converts the tree in bucket h back into a chain. */
+	@SuppressWarnings({ "unchecked" })
+	private void untreeify(int h) {
+		Node<K, V> chain = null;
+		for (Entry<K, V> e : ((RBTreeMap<K, V>) table[h]).entrySet()) {
+			chain = new Node<>(e.getKey().hashCode(), e.getKey(), e.getValue(), chain);
+		}
+		table[h] = chain;
+	}
+
+	/** Adds every entry of the given bucket to entries. */
+	@SuppressWarnings({ "unchecked" })
+	private void addEntries(Object bucket, ArrayList<Entry<K, V>> entries) {
+		if (bucket instanceof RBTreeMap) {
+			for (Entry<K, V> entry : ((RBTreeMap<K, V>) bucket).entrySet()) {
+				entries.add(entry);
+			}
+		} else {
+			for (Node<K, V> e = (Node<K, V>) bucket; e != null; e = e.next) {
+				entries.add(e);
+			}
+		}
+	}
+
+	/** Returns the number of buckets of the current table that hold a tree rather than a chain. */
+	int treeBuckets() {
+		int count = 0;
+		for (Object bucket : table) {
+			if (bucket instanceof RBTreeMap) count++;
+		}
+		return count;
+	}
+
+	// RBTreeMap declares IOException on its operations but never performs I/O
+
+	private V treeGet(RBTreeMap<K, V> tree, K k) {
+		try {
+			return tree.get(k);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private V treePut(RBTreeMap<K, V> tree, K k, V v) {
+		try {
+			return tree.put(k, v);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private V treeRemove(RBTreeMap<K, V> tree, K k) {
+		try {
+			return tree.remove(k);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// ---------------- nested EntryIterator class ----------------
+	/*
+	 * Walks the buckets of the table, then those of the old table still being
+	 * drained, returning the stored entries themselves.
+	 */
+	private class EntryIterator implements Iterator<Entry<K, V>> {
+		private final int expectedModCount = modCount;
+		private Object[] buckets = table;
+		private int index = 0;                        // next bucket to visit
+		private Node<K, V> node;                      // next entry of the current chain
+		private Iterator<Entry<K, V>> treeEntries;    // remaining entries of the current tree
+
+		EntryIterator() {
+			advance();
+		}
+
+		/** Moves to the next non-empty bucket unless the current one has entries left. */
+		@SuppressWarnings({ "unchecked" })
+		private void advance() {
+			while (node == null && (treeEntries == null || !treeEntries.hasNext())) {
+				treeEntries = null;
+				if (index == buckets.length) {
+					if (buckets != table || oldTable == null) return;
+					buckets = oldTable;   // entries not yet migrated by an incremental resize
+					index = 0;
+					continue;
+				}
+				Object bucket = buckets[index++];
+				if (bucket instanceof RBTreeMap) {
+					treeEntries = ((RBTreeMap<K, V>) bucket).entrySet().iterator();
+				} else {
+					node = (Node<K, V>) bucket;
+				}
+			}
+		}
+
+		public boolean hasNext() {
+			return node != null || treeEntries != null;
+		}
+
+		public Entry<K, V> next() {
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			if (!hasNext()) throw new NoSuchElementException();
+			Entry<K, V> answer;
+			if (node != null) {
+				answer = node;
+				node = node.next;
+			} else {
+				answer = treeEntries.next();
+			}
+			advance();
+			return answer;
+		}
+	} // ----------- end of nested EntryIterator class -----------
+
+	// ---------------- nested EntryIterable class ----------------
+	private class EntryIterable implements Iterable<Entry<K, V>> {
+		public Iterator<Entry<K, V>> iterator() {
+			return new EntryIterator();
+		}
+	} // ----------- end of nested EntryIterable class -----------
+
 	/**
-	 * Returns an iterable collection of all key-value entries of the map.
+	 * Returns an iterable collection of all key-value entries of the map. The
+	 * entries are visited in place rather than copied.
 	 *
 	 * @return iterable collection of the map's entries
 	 */
 	@Override
 	public Iterable<Entry<K, V>> entrySet() {
-		ArrayList<Entry<K, V>> entries = new ArrayList<>();
-		for (int h = 0; h < table.length; h++) {
-			if (table[h] != null) {
-				for (Entry<K, V> entry : table[h].entrySet()) {
-					entries.add(entry);
+		return new EntryIterable();
+	}
+
+	/**
+	 * Performs the given action for each entry of the map without allocating
+	 * an iterator.
+	 *
+	 * @param action the action to be performed for each key and value
+	 * @throws ConcurrentModificationException if the action modifies the map
+	 */
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		int expectedModCount = modCount;
+		forEachIn(table, action);
+		if (oldTable != null) forEachIn(oldTable, action);
+		if (modCount != expectedModCount) throw new ConcurrentModificationException();
+	}
+
+	@SuppressWarnings({ "unchecked" })
+	private void forEachIn(Object[] buckets, BiConsumer<? super K, ? super V> action) {
+		for (Object bucket : buckets) {
+			if (bucket instanceof RBTreeMap) {
+				((RBTreeMap<K, V>) bucket).forEach(action);
+			} else {
+				for (Node<K, V> e = (Node<K, V>) bucket; e != null; e = e.next) {
+					action.accept(e.getKey(), e.getValue());
 				}
 			}
 		}
-		return entries;
 	}
 
 	public String toString() {
-		return entrySet().toString();
+		StringBuilder sb = new StringBuilder("[");
+		for (Entry<K, V> entry : entrySet()) {
+			if (sb.length() > 1) sb.append(", ");
+			sb.append(entry);
+		}
+		return sb.append("]").toString();
 	}
 
 	public static void main(String[] args) {
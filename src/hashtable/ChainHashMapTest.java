@@ -4,6 +4,12 @@ import org.junit.jupiter.api.Test;
 import priorityqueue.DefaultComparator;
 
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -97,4 +103,180 @@ class ChainHashMapTest {
 		assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", buf.toString());
 	}
 
+	@Test
+	void testIncrementalResize() {
+		ChainHashMap<Integer, Integer> map = new ChainHashMap<Integer, Integer>(17, true);
+		HashMap<Integer, Integer> expected = new HashMap<>();
+		Random rnd = new Random(1024);
+
+		boolean sawMigration = false;
+		for(int i = 0; i < 20000; ++i) {
+			int k = rnd.nextInt(5000);
+			if(rnd.nextInt(4) > 0) {
+				assertEquals(expected.put(k, i), map.put(k, i));
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+			sawMigration |= map.isMigrating();
+			assertEquals(expected.size(), map.size());
+		}
+		assertTrue(sawMigration);
+		for(int k = 0; k < 5000; ++k) {
+			assertEquals(expected.get(k), map.get(k));
+		}
+		int count = 0;
+		for(Integer v : map.values()) count++;
+		assertEquals(expected.size(), count);
+	}
+
+	@Test
+	void testHashStrategies() {
+		HashStrategy[] strategies = { new MADHashStrategy(), new MultiplyShiftHashStrategy(), new MurmurHashStrategy() };
+		for(HashStrategy strategy : strategies) {
+			ChainHashMap<Integer, Integer> map = new ChainHashMap<Integer, Integer>(10, strategy);
+
+			int n = 1000;
+			for(int i = 0; i < n; ++i) {
+				map.put(i * 64, i);
+			}
+			assertEquals(n, map.size(), strategy.toString());
+			for(int i = 0; i < n; ++i) {
+				assertEquals(i, map.get(i * 64), strategy.toString());
+			}
+			Set<Integer> buckets = new HashSet<>();
+			for(int i = 0; i < n; ++i) {
+				buckets.add(strategy.hash(Integer.hashCode(i * 64), map.capacity));
+			}
+			assertEquals(n - buckets.size(), map.numCollisions(), strategy.toString());
+			if(strategy instanceof MultiplyShiftHashStrategy) assertEquals(0, map.numCollisions());   // spreads any arithmetic sequence
+			if(strategy instanceof MurmurHashStrategy) assertEquals(213, map.numCollisions());
+		}
+		assertEquals(16, new ChainHashMap<Integer, Integer>(10, new MurmurHashStrategy()).capacity);
+	}
+
+	/** Key whose hash code is the same for every instance. */
+	static class CollidingKey implements Comparable<CollidingKey> {
+		final int id;
+
+		CollidingKey(int id) { this.id = id; }
+
+		public int hashCode() { return 42; }
+
+		public boolean equals(Object o) { return o instanceof CollidingKey && ((CollidingKey) o).id == id; }
+
+		public int compareTo(CollidingKey o) { return Integer.compare(id, o.id); }
+	}
+
+	@Test
+	void testTreeifiedBucket() {
+		ChainHashMap<CollidingKey, Integer> map = new ChainHashMap<CollidingKey, Integer>();
+
+		int n = 200;
+		for(int i = 0; i < n; ++i) {
+			assertNull(map.put(new CollidingKey(i), i));
+		}
+		assertEquals(1, map.treeBuckets());
+		assertEquals(n, map.size());
+		assertEquals(n - 1, map.numCollisions());
+		assertEquals(7, map.put(new CollidingKey(7), 77));
+		assertEquals(77, map.get(new CollidingKey(7)));
+		assertNull(map.get(new CollidingKey(n)));
+
+		for(int i = 0; i < n - 3; ++i) {
+			assertEquals(i == 7 ? 77 : i, map.remove(new CollidingKey(i)));
+		}
+		assertEquals(0, map.treeBuckets());
+		assertEquals(3, map.size());
+		for(int i = n - 3; i < n; ++i) {
+			assertEquals(i, map.get(new CollidingKey(i)));
+		}
+		assertNull(map.remove(new CollidingKey(0)));
+	}
+
+	@Test
+	void testLazyIteration() {
+		ChainHashMap<Integer, Integer> map = new ChainHashMap<Integer, Integer>();
+
+		int n = 1000;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, 2 * i);
+		}
+		long[] sums = new long[2];
+		map.forEach((k, v) -> { sums[0] += k; sums[1] += v; });
+		assertEquals((long) n * (n - 1) / 2, sums[0]);
+		assertEquals((long) n * (n - 1), sums[1]);
+
+		long keySum = 0;
+		for(Integer k : map.keySet()) keySum += k;
+		assertEquals(sums[0], keySum);
+
+		Iterator<Integer> it = map.keySet().iterator();
+		it.next();
+		map.put(n, n);
+		assertThrows(ConcurrentModificationException.class, it::next);
+		assertThrows(ConcurrentModificationException.class, () -> map.forEach((k, v) -> map.remove(k)));
+	}
+
+	@Test
+	void testShrinkOnDelete() {
+		for(boolean incremental : new boolean[] {false, true}) {
+			ChainHashMap<Integer, Integer> map = new ChainHashMap<Integer, Integer>(16, new MultiplyShiftHashStrategy(), incremental, 0.75, 0.125);
+
+			int n = 10000;
+			for(int i = 0; i < n; ++i) {
+				map.put(i, i);
+			}
+			int full = map.capacity;
+			assertTrue(full >= n / 0.75);
+			for(int i = 0; i < n - 10; ++i) {
+				assertEquals(i, map.remove(i));
+			}
+			map.trimToSize();     // completes any incremental resize
+			assertEquals(16, map.capacity);
+			for(int i = n - 10; i < n; ++i) {
+				assertEquals(i, map.get(i));
+			}
+
+			// alternating puts and removes at a threshold must not keep resizing
+			int resizes = 0, cap = map.capacity;
+			for(int i = 0; i < 1000; ++i) {
+				map.put(-1, -1);
+				map.remove(-1);
+				if(map.capacity != cap) resizes++;
+				cap = map.capacity;
+			}
+			assertEquals(0, resizes);
+		}
+	}
+
+	@Test
+	void testTrimToSize() {
+		ChainHashMap<Integer, Integer> map = new ChainHashMap<Integer, Integer>(1000, new MultiplyShiftHashStrategy());
+
+		for(int i = 0; i < 100; ++i) {
+			map.put(i, i);
+		}
+		assertEquals(1024, map.capacity);
+		map.trimToSize();
+		assertEquals(256, map.capacity);
+		assertEquals(100, map.size());
+		for(int i = 0; i < 100; ++i) {
+			assertEquals(i, map.get(i));
+		}
+		assertThrows(IllegalArgumentException.class, () -> new ChainHashMap<Integer, Integer>(16, new MADHashStrategy(), false, 0.5, 0.25));
+		assertThrows(IllegalArgumentException.class, () -> new ChainHashMap<Integer, Integer>(16, new MADHashStrategy(), false, 0, 0));
+	}
+
+	@Test
+	void testCapacityOne() {
+		HashStrategy[] strategies = { new MADHashStrategy(), new MultiplyShiftHashStrategy(), new MurmurHashStrategy() };
+		for(HashStrategy strategy : strategies) {
+			ChainHashMap<Integer, Integer> map = new ChainHashMap<Integer, Integer>(1, strategy);
+			for(int i = 0; i < 100; ++i) {
+				map.put(i, i);
+			}
+			assertEquals(100, map.size(), strategy.toString());
+			assertEquals(42, map.get(42), strategy.toString());
+		}
+	}
 }
@@ -0,0 +1,201 @@
+package hashtable;
+
+import interfaces.AbstractMap;
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+ * Thread-safe map built from lock-striped segments of separate chaining.
+ *
+ * The key space is split across a fixed, power-of-two number of segments,
+ * each a ChainHashMap guarded by its own read-write lock. Readers of a segment
+ * share its read lock, writers take its write lock, and operations on
+ * different segments never contend. Each segment resizes on its own when its
+ * load factor is exceeded, so a resize only blocks the threads using that
+ * segment rather than the whole map. The total size is kept in a LongAdder.
+ */
+public class ConcurrentChainHashMap<K extends Comparable<K>, V> extends AbstractMap<K, V> {
+
+	private final ChainHashMap<K, V>[] segments;
+	private final ReentrantReadWriteLock[] locks;
+	private final LongAdder count = new LongAdder();
+	private final int mask;               // number of segments - 1
+
+	/** Creates a map with 16 segments, each with initial capacity 17. */
+	public ConcurrentChainHashMap() {
+		this(16);
+	}
+
+	/** Creates a map with at least the given number of segments (rounded up to a power of two). */
+	public ConcurrentChainHashMap(int concurrencyLevel) {
+		this(concurrencyLevel, 17);
+	}
+
+	/** Creates a map with the given number of segments, each with the given initial capacity. */
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	public ConcurrentChainHashMap(int concurrencyLevel, int segmentCapacity) {
+		int n = MultiplyShiftHashStrategy.powerOfTwo(concurrencyLevel);
+		segments = (ChainHashMap<K, V>[]) new ChainHashMap[n];
+		locks = new ReentrantReadWriteLock[n];
+		for (int i = 0; i < n; i++) {
+			segments[i] = new ChainHashMap<>(segmentCapacity);
+			locks[i] = new ReentrantReadWriteLock();
+		}
+		mask = n - 1;
+	}
+
+	/**
+	 * Returns the segment index for the given key. The hash code is mixed with
+	 * the Murmur3 finalizer first, so segment choice does not depend only on
+	 * the low bits that the segment's own table also uses.
+	 */
+	private int segmentFor(K key) {
+		int h = key.hashCode();
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & mask;
+	}
+
+	/**
+	 * Returns the number of entries in the map.
+	 *
+	 * @return number of entries in the map
+	 */
+	@Override
+	public int size() {
+		return count.intValue();
+	}
+
+	/**
+	 * Returns the value associated with the specified key, or null if no such entry
+	 * exists.
+	 *
+	 * @param key the key whose associated value is to be returned
+	 * @return the associated value, or null if no such entry exists
+	 */
+	@Override
+	public V get(K key) {
+		int s = segmentFor(key);
+		ReentrantReadWriteLock.ReadLock lock = locks[s].readLock();
+		lock.lock();
+		try {
+			return segments[s].get(key);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Associates the given value with the given key. If an entry with the key was
+	 * already in the map, this replaced the previous value with the new one and
+	 * returns the old value. Otherwise, a new entry is added and null is returned.
+	 *
+	 * @param key   key with which the specified value is to be associated
+	 * @param value value to be associated with the specified key
+	 * @return the previous value associated with the key (or null, if no such
+	 *         entry)
+	 */
+	@Override
+	public V put(K key, V value) {
+		int s = segmentFor(key);
+		ReentrantReadWriteLock.WriteLock lock = locks[s].writeLock();
+		lock.lock();
+		try {
+			int oldSize = segments[s].size();
+			V answer = segments[s].put(key, value);
+			count.add(segments[s].size() - oldSize);
+			return answer;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes the entry with the specified key, if present, and returns its
+	 * associated value. Otherwise does nothing and returns null.
+	 *
+	 * @param key the key whose entry is to be removed from the map
+	 * @return the previous value associated with the removed key, or null if no
+	 *         such entry exists
+	 */
+	@Override
+	public V remove(K key) {
+		int s = segmentFor(key);
+		ReentrantReadWriteLock.WriteLock lock = locks[s].writeLock();
+		lock.lock();
+		try {
+			int oldSize = segments[s].size();
+			V answer = segments[s].remove(key);
+			count.add(segments[s].size() - oldSize);
+			return answer;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns an iterable collection of copies of all key-value entries of the
+	 * map. Each segment's entries are copied under its read lock, so the result
+	 * is consistent per segment but not necessarily across segments, and later
+	 * updates to the map do not change it.
+	 *
+	 * @return iterable collection of the map's entries
+	 */
+	@Override
+	public Iterable<Entry<K, V>> entrySet() {
+		ArrayList<Entry<K, V>> buffer = new ArrayList<>(size());
+		for (int s = 0; s < segments.length; s++) {
+			ReentrantReadWriteLock.ReadLock lock = locks[s].readLock();
+			lock.lock();
+			try {
+				for (Entry<K, V> entry : segments[s].entrySet()) {
+					buffer.add(new MapEntry<>(entry.getKey(), entry.getValue()));
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+		return buffer;
+	}
+
+	@Override
+	public double loadFactor() {
+		int capacity = 0;
+		for (int s = 0; s < segments.length; s++) {
+			ReentrantReadWriteLock.ReadLock lock = locks[s].readLock();
+			lock.lock();
+			try {
+				capacity += segments[s].capacity;
+			} finally {
+				lock.unlock();
+			}
+		}
+		return (double) size() / capacity;
+	}
+
+	@Override
+	public int numCollisions() {
+		int collisions = 0;
+		for (int s = 0; s < segments.length; s++) {
+			ReentrantReadWriteLock.ReadLock lock = locks[s].readLock();
+			lock.lock();
+			try {
+				collisions += segments[s].numCollisions();
+			} finally {
+				lock.unlock();
+			}
+		}
+		return collisions;
+	}
+
+	public String toString() {
+		return entrySet().toString();
+	}
+}
@@ -0,0 +1,98 @@
+package hashtable;
+
+import interfaces.Entry;
+import org.junit.jupiter.api.Test;
+import priorityqueue.DefaultComparator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentChainHashMapTest {
+
+	@Test
+	void testSize() {
+		ConcurrentChainHashMap<Integer, String> map = new ConcurrentChainHashMap<Integer, String>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, Integer.toString(i));
+		}
+		assertEquals(n, map.size());
+	}
+
+	@Test
+	void testGet() {
+		ConcurrentChainHashMap<String, Integer> map = new ConcurrentChainHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		assertEquals(5, map.get("5"));
+		assertEquals(2, map.get("2"));
+		assertNull(map.get("10"));
+	}
+
+	@Test
+	void testRemove() {
+		ConcurrentChainHashMap<String, Integer> map = new ConcurrentChainHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		assertEquals(5, map.remove("5"));
+		assertNull(map.remove("5"));
+		assertEquals(n-1, map.size());
+	}
+
+	@Test
+	void testKeySet() {
+		ConcurrentChainHashMap<String, Integer> map = new ConcurrentChainHashMap<String, Integer>(4);
+
+		map.put("one", 1);
+		map.put("two", 2);
+		map.put("three", 3);
+		ArrayList<String> buf = new ArrayList<>();
+		for(String s : map.keySet()) buf.add(s);
+		buf.sort(new DefaultComparator<String>());
+		assertEquals("[one, three, two]", buf.toString());
+	}
+
+	@Test
+	void testEntrySetIsACopy() {
+		ConcurrentChainHashMap<String, Integer> map = new ConcurrentChainHashMap<String, Integer>(4);
+
+		map.put("one", 1);
+		Iterable<Entry<String, Integer>> entries = map.entrySet();
+		map.put("one", 100);
+		for(Entry<String, Integer> e : entries) assertEquals(1, e.getValue());
+	}
+
+	@Test
+	void testConcurrentPuts() throws InterruptedException {
+		ConcurrentChainHashMap<Integer, Integer> map = new ConcurrentChainHashMap<Integer, Integer>(8);
+
+		int threads = 8, perThread = 20000;
+		List<Thread> workers = new ArrayList<>();
+		for(int t = 0; t < threads; ++t) {
+			final int base = t * perThread;
+			workers.add(new Thread(() -> {
+				for(int i = 0; i < perThread; ++i) {
+					map.put(base + i, base + i);
+					if(i % 2 == 1) map.remove(base + i);
+				}
+			}));
+		}
+		for(Thread w : workers) w.start();
+		for(Thread w : workers) w.join();
+
+		assertEquals(threads * perThread / 2, map.size());
+		for(int k = 0; k < threads * perThread; ++k) {
+			assertEquals(k % 2 == 0 ? k : null, map.get(k));
+		}
+	}
+
+}
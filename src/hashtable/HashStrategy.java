@@ -0,0 +1,36 @@
+package hashtable;
+
+/**
+ * A strategy for compressing a key's hash code into a bucket index, together
+ * with the table sizes the compression function works with.
+ * <p>
+ * AbstractHashMap asks the strategy for the initial table size, for the size
+ * to grow to on a resize, and for the bucket of every key it looks up.
+ */
+public interface HashStrategy {
+
+	/**
+	 * Returns the table size to use when a capacity of at least cap is requested.
+	 *
+	 * @param cap the requested capacity
+	 * @return a capacity this strategy can compress into
+	 */
+	int tableSize(int cap);
+
+	/**
+	 * Returns the capacity to grow to when a table of the given capacity is full.
+	 *
+	 * @param cap the current capacity
+	 * @return the larger capacity
+	 */
+	int grow(int cap);
+
+	/**
+	 * Returns the bucket index, in the range [0, cap), for the given hash code.
+	 *
+	 * @param hashCode the key's hash code
+	 * @param cap      the capacity of the table (as returned by tableSize or grow)
+	 * @return the bucket index
+	 */
+	int hash(int hashCode, int cap);
+}
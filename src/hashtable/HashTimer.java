@@ -0,0 +1,122 @@
+package hashtable;
+
+import interfaces.AbstractMap;
+import interfaces.Entry;
+import interfaces.Map;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+/*
+ * Multi-threaded throughput benchmarks for the thread-safe hash maps.
+ * Each thread performs a fixed number of random get/put operations on a
+ * shared map, and the total operations per second is reported for an
+ * increasing number of threads.
+ */
+public class HashTimer {
+
+    public static int OPS_PER_THREAD = 1000000;
+    public static int KEY_RANGE = 100000;
+
+    /**
+     * Runs OPS_PER_THREAD operations on each of the given number of threads and
+     * returns the combined throughput in operations per second. A fraction
+     * writeRatio of the operations are puts, the rest are gets.
+     */
+    public static double throughput(Map<Integer, Integer> map, int threads, double writeRatio) throws InterruptedException {
+        for (int k = 0; k < KEY_RANGE; k += 2) {            // half-full map to start with
+            try {
+                map.put(k, k);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final long seed = 1024 + t;
+            workers.add(new Thread(() -> {
+                Random rnd = new Random(seed);
+                try {
+                    for (int i = 0; i < OPS_PER_THREAD; i++) {
+                        int k = rnd.nextInt(KEY_RANGE);
+                        if (rnd.nextDouble() < writeRatio) {
+                            map.put(k, i);
+                        } else {
+                            map.get(k);
+                        }
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        for (Thread w : workers) w.start();
+        for (Thread w : workers) w.join();
+        long elapsed = System.nanoTime() - start;
+        return 1e9 * threads * OPS_PER_THREAD / elapsed;
+    }
+
+    /** Prints the throughput of each map for 1, 2, 4, ... up to maxThreads threads. */
+    public static void compare(String[] names, List<Supplier<Map<Integer, Integer>>> maps,
+                               int maxThreads, double writeRatio) throws InterruptedException {
+        System.out.print("threads");
+        for (String name : names) System.out.print("\t" + name);
+        System.out.println();
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            System.out.print(threads);
+            for (Supplier<Map<Integer, Integer>> map : maps) {
+                System.out.printf("\t%,.0f", throughput(map.get(), threads, writeRatio));
+            }
+            System.out.println();
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        System.out.println("# ingestion (50% puts), ops/s");
+        compare(new String[]{"SingleLock", "Striped"},
+                List.of(() -> new SingleLockMap<Integer, Integer>(new ChainHashMap<Integer, Integer>()),
+                        () -> new ConcurrentChainHashMap<Integer, Integer>()),
+                maxThreads, 0.5);
+        System.out.println("# read-mostly cache (5% puts), ops/s");
+        compare(new String[]{"SingleLock", "Striped", "NonBlocking"},
+                List.of(() -> new SingleLockMap<Integer, Integer>(new ChainHashMap<Integer, Integer>()),
+                        () -> new ConcurrentChainHashMap<Integer, Integer>(),
+                        () -> new NonBlockingHashMap<Integer, Integer>()),
+                maxThreads, 0.05);
+    }
+
+    /*
+     * A map that serializes every operation on one global lock, the baseline
+     * that the concurrent maps are compared against.
+     */
+    static class SingleLockMap<K, V> extends AbstractMap<K, V> {
+        private final Map<K, V> map;
+
+        SingleLockMap(Map<K, V> map) {
+            this.map = map;
+        }
+
+        public synchronized int size() { return map.size(); }
+
+        public synchronized V get(K key) throws IOException { return map.get(key); }
+
+        public synchronized V put(K key, V value) throws IOException { return map.put(key, value); }
+
+        public synchronized V remove(K key) throws IOException { return map.remove(key); }
+
+        public synchronized Iterable<Entry<K, V>> entrySet() {
+            ArrayList<Entry<K, V>> buffer = new ArrayList<>(map.size());
+            for (Entry<K, V> entry : map.entrySet()) buffer.add(entry);
+            return buffer;
+        }
+
+        public synchronized double loadFactor() { return map.loadFactor(); }
+
+        public synchronized int numCollisions() { return map.numCollisions(); }
+    }
+}
@@ -0,0 +1,279 @@
+package hashtable;
+
+import interfaces.AbstractMap;
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+
+/*
+ * Map from int keys to int values using open addressing with linear probing.
+ *
+ * Keys and values are held in parallel primitive arrays, so no objects are
+ * allocated per entry and no boxing happens on the primitive methods. The
+ * capacity is always a power of two and keys are spread with a Fibonacci
+ * (multiply-shift) hash. Removal shifts the rest of the probe run back
+ * rather than leaving a tombstone.
+ *
+ * The boxed methods of the Map interface are provided so the map can stand in
+ * for ChainHashMap<Integer, Integer> or ProbeHashMap<Integer, Integer>.
+ */
+public class IntIntHashMap extends AbstractMap<Integer, Integer> {
+    private static final double MAX_LOAD = 0.75;
+
+    private int[] keys;
+    private int[] vals;
+    private boolean[] used;
+    private int n = 0;                   // number of entries in the map
+    private int mask;                    // capacity - 1
+    private int bits;                    // log2(capacity)
+    private int collisions = 0;          // probes that landed on an occupied slot
+
+    /** Creates a map with capacity 16. */
+    public IntIntHashMap() {
+        this(16);
+    }
+
+    /** Creates a map with room for at least cap entries before it resizes. */
+    public IntIntHashMap(int cap) {
+        createTable(tableSizeFor(cap));
+    }
+
+    /** Returns the smallest power of two able to hold cap entries within MAX_LOAD. */
+    static int tableSizeFor(int cap) {
+        int size = 2;
+        while (size * MAX_LOAD < cap) size <<= 1;
+        return size;
+    }
+
+    private void createTable(int capacity) {
+        keys = new int[capacity];
+        vals = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        bits = Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /** Home slot of key k: the top bits of k times the golden ratio. */
+    private int hash(int k) {
+        return (k * 0x9E3779B9) >>> (32 - bits);
+    }
+
+    /** Returns the slot holding key k, or -1 if k is not in the map. */
+    private int findSlot(int k) {
+        int j = hash(k);
+        while (used[j]) {
+            if (keys[j] == k) return j;
+            collisions++;
+            j = (j + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Tests whether the map contains the given key.
+     *
+     * @param key the key of interest
+     * @return true if there is an entry with the given key
+     */
+    public boolean containsKey(int key) {
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Returns the value associated with the given key, or defaultValue if no
+     * such entry exists.
+     *
+     * @param key          the key whose associated value is to be returned
+     * @param defaultValue the value to return if the key is absent
+     * @return the associated value, or defaultValue if no such entry exists
+     */
+    public int getOrDefault(int key, int defaultValue) {
+        int j = findSlot(key);
+        return j < 0 ? defaultValue : vals[j];
+    }
+
+    /**
+     * Associates the given value with the given key, returning the previous
+     * value, or defaultValue if the key was not already present.
+     *
+     * @param key          key with which the specified value is to be associated
+     * @param value        value to be associated with the specified key
+     * @param defaultValue the value to return if the key was absent
+     * @return the previous value associated with the key, or defaultValue
+     */
+    public int put(int key, int value, int defaultValue) {
+        int j = hash(key);
+        while (used[j]) {
+            if (keys[j] == key) {
+                int old = vals[j];
+                vals[j] = value;
+                return old;
+            }
+            collisions++;
+            j = (j + 1) & mask;
+        }
+        used[j] = true;
+        keys[j] = key;
+        vals[j] = value;
+        if (++n > keys.length * MAX_LOAD) {
+            resize(2 * keys.length);
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Removes the entry with the given key, returning its value, or
+     * defaultValue if no such entry exists.
+     *
+     * @param key          the key whose entry is to be removed from the map
+     * @param defaultValue the value to return if the key is absent
+     * @return the removed value, or defaultValue if no such entry exists
+     */
+    public int remove(int key, int defaultValue) {
+        int j = findSlot(key);
+        if (j < 0) return defaultValue;
+        int answer = vals[j];
+        shiftBack(j);
+        n--;
+        return answer;
+    }
+
+    /**
+     * Empties slot j and moves later entries of the same probe run back into
+     * the gap, so that no search is cut short by the hole.
+     */
+    private void shiftBack(int j) {
+        int next = (j + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]);
+            // move the entry at next into the hole at j unless its home slot
+            // lies cyclically in (j, next]
+            if (((next - home) & mask) >= ((next - j) & mask)) {
+                keys[j] = keys[next];
+                vals[j] = vals[next];
+                j = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[j] = false;
+    }
+
+    /** Reinserts every entry into a table of the given capacity. */
+    private void resize(int newCap) {
+        int[] oldKeys = keys;
+        int[] oldVals = vals;
+        boolean[] oldUsed = used;
+        createTable(newCap);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int j = hash(oldKeys[i]);
+                while (used[j]) j = (j + 1) & mask;
+                used[j] = true;
+                keys[j] = oldKeys[i];
+                vals[j] = oldVals[i];
+            }
+        }
+    }
+
+    // boxed methods of the Map interface
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    public Integer get(Integer key) {
+        int j = findSlot(key);
+        return j < 0 ? null : vals[j];
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     * @throws IllegalArgumentException if value is null
+     */
+    @Override
+    public Integer put(Integer key, Integer value) {
+        if (value == null) throw new IllegalArgumentException("null values are not supported");
+        int j = findSlot(key);
+        if (j >= 0) {
+            int old = vals[j];
+            vals[j] = value;
+            return old;
+        }
+        put(key.intValue(), value.intValue(), 0);
+        return null;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    public Integer remove(Integer key) {
+        int j = findSlot(key);
+        if (j < 0) return null;
+        int answer = vals[j];
+        shiftBack(j);
+        n--;
+        return answer;
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map.
+     * The entries are boxed into a new list, a snapshot that later updates do
+     * not change.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<Integer, Integer>> entrySet() {
+        ArrayList<Entry<Integer, Integer>> buffer = new ArrayList<>(n);
+        for (int j = 0; j < keys.length; j++) {
+            if (used[j]) buffer.add(new MapEntry<>(keys[j], vals[j]));
+        }
+        return buffer;
+    }
+
+    @Override
+    public double loadFactor() {
+        return (double) n / keys.length;
+    }
+
+    /**
+     * Returns the number of probes, over all operations so far, that landed on
+     * a slot occupied by a different key.
+     */
+    @Override
+    public int numCollisions() {
+        return collisions;
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
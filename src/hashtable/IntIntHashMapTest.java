@@ -0,0 +1,102 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+import priorityqueue.DefaultComparator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntHashMapTest {
+
+	@Test
+	void testSize() {
+		IntIntHashMap map = new IntIntHashMap();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, i, -1);
+		}
+		assertEquals(n, map.size());
+	}
+
+	@Test
+	void testGet() {
+		IntIntHashMap map = new IntIntHashMap();
+
+		int n = 100;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, i * 10, -1);
+		}
+		assertEquals(50, map.getOrDefault(5, -1));
+		assertEquals(-1, map.getOrDefault(100, -1));
+		assertEquals(20, map.get(Integer.valueOf(2)));
+		assertNull(map.get(Integer.valueOf(-7)));
+	}
+
+	@Test
+	void testPut() {
+		IntIntHashMap map = new IntIntHashMap();
+
+		assertNull(map.put(Integer.valueOf(0), Integer.valueOf(1)));
+		assertEquals(1, map.put(Integer.valueOf(0), Integer.valueOf(2)));
+		assertEquals(2, map.put(0, 3, -1));
+		assertEquals(-1, map.put(Integer.MIN_VALUE, 4, -1));
+		assertEquals(2, map.size());
+		assertThrows(IllegalArgumentException.class, () -> map.put(Integer.valueOf(5), null));
+		assertEquals(2, map.size());
+	}
+
+	@Test
+	void testRemove() {
+		IntIntHashMap map = new IntIntHashMap();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, i, -1);
+		}
+		assertEquals(5, map.remove(5, -1));
+		assertEquals(-1, map.remove(5, -1));
+		assertEquals(3, map.remove(Integer.valueOf(3)));
+		assertFalse(map.containsKey(3));
+		assertEquals(n-2, map.size());
+	}
+
+	@Test
+	void testValues() {
+		IntIntHashMap map = new IntIntHashMap();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, i, -1);
+		}
+		ArrayList<Integer> buf = new ArrayList<>();
+		for(Integer s : map.values()) buf.add(s);
+		buf.sort(new DefaultComparator<Integer>());
+		assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", buf.toString());
+	}
+
+	@Test
+	void testChurn() {
+		IntIntHashMap map = new IntIntHashMap(4);
+		HashMap<Integer, Integer> expected = new HashMap<>();
+		Random rnd = new Random(1024);
+
+		for(int i = 0; i < 50000; ++i) {
+			int k = rnd.nextInt(2000) * 1024;   // clustered keys
+			if(rnd.nextInt(3) > 0) {
+				assertEquals(expected.put(k, i), map.put(k, i));
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for(int k = 0; k < 2000; ++k) {
+			assertEquals(expected.get(k * 1024), map.get(k * 1024));
+		}
+		assertTrue(map.loadFactor() <= 0.75);
+	}
+
+}
@@ -0,0 +1,233 @@
+package hashtable;
+
+import interfaces.AbstractMap;
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+
+/*
+ * Map from int keys to object values using open addressing with linear probing.
+ *
+ * Keys are held in a primitive array alongside a parallel array of values,
+ * so no entry objects are allocated and keys are never boxed by the primitive
+ * methods. The layout and probing are the same as in IntIntHashMap.
+ */
+public class IntObjectHashMap<V> extends AbstractMap<Integer, V> {
+    private static final double MAX_LOAD = 0.75;
+
+    private int[] keys;
+    private Object[] vals;
+    private boolean[] used;
+    private int n = 0;                   // number of entries in the map
+    private int mask;                    // capacity - 1
+    private int bits;                    // log2(capacity)
+    private int collisions = 0;          // probes that landed on an occupied slot
+
+    /** Creates a map with capacity 16. */
+    public IntObjectHashMap() {
+        this(16);
+    }
+
+    /** Creates a map with room for at least cap entries before it resizes. */
+    public IntObjectHashMap(int cap) {
+        createTable(IntIntHashMap.tableSizeFor(cap));
+    }
+
+    private void createTable(int capacity) {
+        keys = new int[capacity];
+        vals = new Object[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        bits = Integer.numberOfTrailingZeros(capacity);
+    }
+
+    /** Home slot of key k: the top bits of k times the golden ratio. */
+    private int hash(int k) {
+        return (k * 0x9E3779B9) >>> (32 - bits);
+    }
+
+    /** Returns the slot holding key k, or -1 if k is not in the map. */
+    private int findSlot(int k) {
+        int j = hash(k);
+        while (used[j]) {
+            if (keys[j] == k) return j;
+            collisions++;
+            j = (j + 1) & mask;
+        }
+        return -1;
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private V valueAt(int j) {
+        return (V) vals[j];
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Tests whether the map contains the given key.
+     *
+     * @param key the key of interest
+     * @return true if there is an entry with the given key
+     */
+    public boolean containsKey(int key) {
+        return findSlot(key) >= 0;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    public V get(int key) {
+        int j = findSlot(key);
+        return j < 0 ? null : valueAt(j);
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     */
+    public V put(int key, V value) {
+        int j = hash(key);
+        while (used[j]) {
+            if (keys[j] == key) {
+                V old = valueAt(j);
+                vals[j] = value;
+                return old;
+            }
+            collisions++;
+            j = (j + 1) & mask;
+        }
+        used[j] = true;
+        keys[j] = key;
+        vals[j] = value;
+        if (++n > keys.length * MAX_LOAD) {
+            resize(2 * keys.length);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    public V remove(int key) {
+        int j = findSlot(key);
+        if (j < 0) return null;
+        V answer = valueAt(j);
+        shiftBack(j);
+        n--;
+        return answer;
+    }
+
+    /**
+     * Empties slot j and moves later entries of the same probe run back into
+     * the gap, so that no search is cut short by the hole.
+     */
+    private void shiftBack(int j) {
+        int next = (j + 1) & mask;
+        while (used[next]) {
+            int home = hash(keys[next]);
+            // move the entry at next into the hole at j unless its home slot
+            // lies cyclically in (j, next]
+            if (((next - home) & mask) >= ((next - j) & mask)) {
+                keys[j] = keys[next];
+                vals[j] = vals[next];
+                j = next;
+            }
+            next = (next + 1) & mask;
+        }
+        used[j] = false;
+        vals[j] = null;                  // help garbage collection
+    }
+
+    /** Reinserts every entry into a table of the given capacity. */
+    private void resize(int newCap) {
+        int[] oldKeys = keys;
+        Object[] oldVals = vals;
+        boolean[] oldUsed = used;
+        createTable(newCap);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int j = hash(oldKeys[i]);
+                while (used[j]) j = (j + 1) & mask;
+                used[j] = true;
+                keys[j] = oldKeys[i];
+                vals[j] = oldVals[i];
+            }
+        }
+    }
+
+    // boxed methods of the Map interface
+
+    @Override
+    public V get(Integer key) {
+        return get(key.intValue());
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public V remove(Integer key) {
+        return remove(key.intValue());
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map.
+     * The entries are boxed into a new list, a snapshot that later updates do
+     * not change.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<Integer, V>> entrySet() {
+        ArrayList<Entry<Integer, V>> buffer = new ArrayList<>(n);
+        for (int j = 0; j < keys.length; j++) {
+            if (used[j]) buffer.add(new MapEntry<>(keys[j], valueAt(j)));
+        }
+        return buffer;
+    }
+
+    @Override
+    public double loadFactor() {
+        return (double) n / keys.length;
+    }
+
+    /**
+     * Returns the number of probes, over all operations so far, that landed on
+     * a slot occupied by a different key.
+     */
+    @Override
+    public int numCollisions() {
+        return collisions;
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
@@ -0,0 +1,69 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntObjectHashMapTest {
+
+	@Test
+	void testSize() {
+		IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, Integer.toString(i));
+		}
+		assertEquals(n, map.size());
+	}
+
+	@Test
+	void testGet() {
+		IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+		int n = 100;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, Integer.toString(i));
+		}
+		assertEquals("5", map.get(5));
+		assertEquals("2", map.get(Integer.valueOf(2)));
+		assertNull(map.get(100));
+	}
+
+	@Test
+	void testRemove() {
+		IntObjectHashMap<String> map = new IntObjectHashMap<>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, Integer.toString(i));
+		}
+		assertEquals("5", map.remove(5));
+		assertNull(map.remove(5));
+		assertEquals(n-1, map.size());
+	}
+
+	@Test
+	void testChurn() {
+		IntObjectHashMap<String> map = new IntObjectHashMap<>(4);
+		HashMap<Integer, String> expected = new HashMap<>();
+		Random rnd = new Random(1024);
+
+		for(int i = 0; i < 50000; ++i) {
+			int k = rnd.nextInt(2000) - 1000;
+			if(rnd.nextInt(3) > 0) {
+				assertEquals(expected.put(k, "v" + i), map.put(k, "v" + i));
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for(int k = -1000; k < 1000; ++k) {
+			assertEquals(expected.get(k), map.get(k));
+		}
+	}
+
+}
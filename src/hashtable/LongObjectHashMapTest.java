@@ -0,0 +1,54 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectHashMapTest {
+
+	@Test
+	void testWideKeys() {
+		LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+		int n = 100;
+		for(int i = 0; i < n; ++i) {
+			map.put((long) i, "low" + i);
+			map.put(i + (1L << 32), "high" + i);       // same low 32 bits as i
+		}
+		assertEquals(2 * n, map.size());
+		assertEquals("low5", map.get(5L));
+		assertEquals("high5", map.get(5L + (1L << 32)));
+		assertNull(map.get(5L + (1L << 33)));
+		assertEquals("high5", map.remove(5L + (1L << 32)));
+		assertEquals("low5", map.get(5L));
+		assertEquals(2 * n - 1, map.size());
+		assertNull(map.put(Long.MIN_VALUE, "min"));
+		assertNull(map.put(Long.MAX_VALUE, "max"));
+		assertEquals("min", map.get(Long.MIN_VALUE));
+		assertEquals("max", map.get(Long.MAX_VALUE));
+	}
+
+	@Test
+	void testChurn() {
+		LongObjectHashMap<String> map = new LongObjectHashMap<>(4);
+		HashMap<Long, String> expected = new HashMap<>();
+		Random rnd = new Random(1024);
+
+		for(int i = 0; i < 50000; ++i) {
+			long k = (rnd.nextInt(2000) - 1000) * (1L << 33);
+			if(rnd.nextInt(3) > 0) {
+				assertEquals(expected.put(k, "v" + i), map.put(k, "v" + i));
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for(long k = -1000; k < 1000; ++k) {
+			assertEquals(expected.get(k * (1L << 33)), map.get(k * (1L << 33)));
+		}
+	}
+
+}
@@ -0,0 +1,48 @@
+package hashtable;
+
+import java.util.Random;
+
+/**
+ * The Multiply-Add-and-Divide compression function
+ * [(a*h + b) mod p] mod N with a random scale a and shift b, for a prime p.
+ * <p>
+ * This is the original AbstractHashMap scheme and works with any capacity;
+ * tables grow to 2N-1 to stay odd.
+ */
+public class MADHashStrategy implements HashStrategy {
+	private final int prime;             // prime factor
+	private final long scale;            // the scaling factor
+	private final long shift;            // the shift factor
+
+	/** Creates a MAD strategy with prime factor 109345121. */
+	public MADHashStrategy() {
+		this(109345121);
+	}
+
+	/** Creates a MAD strategy with the given prime factor. */
+	public MADHashStrategy(int p) {
+		prime = p;
+		Random rand = new Random();
+		scale = rand.nextInt(prime - 1) + 1;
+		shift = rand.nextInt(prime);
+	}
+
+	@Override
+	public int tableSize(int cap) {
+		return cap;
+	}
+
+	@Override
+	public int grow(int cap) {
+		return Math.max(2 * cap - 1, 3);      // 2N-1 would leave a table of one slot stuck
+	}
+
+	@Override
+	public int hash(int hashCode, int cap) {
+		return (int) ((Math.abs(hashCode * scale + shift) % prime) % cap);
+	}
+
+	public String toString() {
+		return "MAD";
+	}
+}
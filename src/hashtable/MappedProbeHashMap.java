@@ -0,0 +1,427 @@
+package hashtable;
+
+import interfaces.AbstractMap;
+import interfaces.Entry;
+import utils.ByteCodec;
+import utils.MapEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/*
+ * Persistent map using open addressing with linear probing, stored in
+ * memory-mapped files rather than on the Java heap.
+ *
+ * Keys and values are serialized with a ByteCodec. Two files are used:
+ *
+ *   <path>       the index: a header followed by a power-of-two table of
+ *                16-byte slots (key hash, state, record offset)
+ *   <path>.data  the records: [key length][value length][key][value],
+ *                appended and mapped in fixed-size chunks
+ *
+ * Every update writes straight into the mapped pages, so the operating system
+ * persists it even if the process dies; flush() forces it to disk. Opening an
+ * existing map only maps the files and reads the header, so it takes O(1) time
+ * however many entries the map holds.
+ *
+ * Removed slots are marked DEFUNCT as in ProbeHashMap. A value whose new
+ * encoding has the same length as the old one is overwritten in place;
+ * otherwise a new record is appended and the old one becomes garbage. When the
+ * index passes its load factor it is rebuilt into a temporary file, which then
+ * atomically replaces the old index.
+ */
+public class MappedProbeHashMap<K extends Comparable<K>, V> extends AbstractMap<K, V> implements Closeable {
+
+    private static final int MAGIC = 0x4D504D31;        // "MPM1"
+    private static final double MAX_LOAD = 0.5;
+
+    // header layout of the index file
+    private static final int HEADER = 32;
+    private static final int CAPACITY_AT = 4;
+    private static final int SIZE_AT = 8;
+    private static final int USED_AT = 12;              // FULL plus DEFUNCT slots
+    private static final int DATA_END_AT = 16;          // next free byte of the data file
+
+    // slot layout and states
+    private static final int SLOT = 16;
+    private static final int STATE_AT = 4;
+    private static final int RECORD_AT = 8;
+    private static final int EMPTY = 0, FULL = 1, DEFUNCT = 2;
+
+    /** Records are mapped in chunks of 2^CHUNK_BITS bytes and never straddle two chunks. */
+    static final int CHUNK_BITS = 24;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private final Path indexPath;
+    private final Path dataPath;
+    private final ByteCodec<K> keyCodec;
+    private final ByteCodec<V> valueCodec;
+
+    private MappedByteBuffer index;                     // null once closed
+    private int mask;                                   // capacity - 1
+    private final FileChannel data;
+    private final ArrayList<MappedByteBuffer> chunks = new ArrayList<>();
+    private int collisions = 0;                         // probes that landed on another key
+
+    /**
+     * Opens the map stored at the given path, or creates an empty one with
+     * capacity 16 if there is none.
+     */
+    public MappedProbeHashMap(Path path, ByteCodec<K> keyCodec, ByteCodec<V> valueCodec) throws IOException {
+        this(path, 16, keyCodec, valueCodec);
+    }
+
+    /**
+     * Opens the map stored at the given path, or creates an empty one with room
+     * for at least cap entries if there is none.
+     *
+     * @throws IOException if the files cannot be opened or are not a map
+     */
+    public MappedProbeHashMap(Path path, int cap, ByteCodec<K> keyCodec, ByteCodec<V> valueCodec) throws IOException {
+        this.indexPath = path;
+        this.dataPath = path.resolveSibling(path.getFileName() + ".data");
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        if (Files.exists(indexPath)) {
+            try (FileChannel channel = FileChannel.open(indexPath, READ, WRITE)) {
+                if (channel.size() < HEADER) throw new IOException("not a mapped hash map: " + path);
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER);
+                if (header.getInt(0) != MAGIC) throw new IOException("not a mapped hash map: " + path);
+                int capacity = header.getInt(CAPACITY_AT);
+                index = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER + (long) capacity * SLOT);
+            }
+        } else {
+            Files.deleteIfExists(dataPath);
+            index = createIndex(indexPath, MultiplyShiftHashStrategy.powerOfTwo(2 * cap), 0, 0);
+            index.force();
+        }
+        mask = index.getInt(CAPACITY_AT) - 1;
+        data = FileChannel.open(dataPath, CREATE, READ, WRITE);
+    }
+
+    // ---------------- file layout ----------------
+
+    /** Creates an index file with an empty table of the given capacity and maps it. */
+    private static MappedByteBuffer createIndex(Path path, int capacity, int size, long dataEnd) throws IOException {
+        long length = HEADER + (long) capacity * SLOT;
+        if (length > Integer.MAX_VALUE) throw new IOException("index too large: " + capacity + " slots");
+        try (FileChannel channel = FileChannel.open(path, CREATE, TRUNCATE_EXISTING, READ, WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(CAPACITY_AT, capacity);
+            buffer.putInt(SIZE_AT, size);
+            buffer.putInt(USED_AT, size);
+            buffer.putLong(DATA_END_AT, dataEnd);
+            return buffer;
+        }
+    }
+
+    private static int slotAt(int j) {
+        return HEADER + j * SLOT;
+    }
+
+    private int capacity() {
+        return mask + 1;
+    }
+
+    private int state(int j) {
+        return index.getInt(slotAt(j) + STATE_AT);
+    }
+
+    private long record(int j) {
+        return index.getLong(slotAt(j) + RECORD_AT);
+    }
+
+    /** Returns the mapped chunk of the data file holding the given offset. */
+    private MappedByteBuffer chunk(long offset) throws IOException {
+        int c = (int) (offset >>> CHUNK_BITS);
+        while (chunks.size() <= c) {
+            chunks.add(data.map(FileChannel.MapMode.READ_WRITE, (long) chunks.size() << CHUNK_BITS, CHUNK_SIZE));
+        }
+        return chunks.get(c);
+    }
+
+    /** Appends a record to the data file and returns its offset. */
+    private long append(byte[] key, byte[] value) throws IOException {
+        int length = 8 + key.length + value.length;
+        if (length > CHUNK_SIZE) throw new IllegalArgumentException("entry too large: " + length + " bytes");
+        long offset = index.getLong(DATA_END_AT);
+        if ((offset & (CHUNK_SIZE - 1)) + length > CHUNK_SIZE) {
+            offset = ((offset >>> CHUNK_BITS) + 1) << CHUNK_BITS;   // start a new chunk
+        }
+        MappedByteBuffer c = chunk(offset);
+        int p = (int) (offset & (CHUNK_SIZE - 1));
+        c.putInt(p, key.length);
+        c.putInt(p + 4, value.length);
+        c.put(p + 8, key);
+        c.put(p + 8 + key.length, value);
+        index.putLong(DATA_END_AT, offset + length);
+        return offset;
+    }
+
+    /** Tests whether the record at offset has the given key, without copying it. */
+    private boolean keyEquals(long offset, byte[] key) throws IOException {
+        MappedByteBuffer c = chunk(offset);
+        int p = (int) (offset & (CHUNK_SIZE - 1));
+        if (c.getInt(p) != key.length) return false;
+        for (int i = 0; i < key.length; i++) {
+            if (c.get(p + 8 + i) != key[i]) return false;
+        }
+        return true;
+    }
+
+    private byte[] readKey(long offset) throws IOException {
+        MappedByteBuffer c = chunk(offset);
+        int p = (int) (offset & (CHUNK_SIZE - 1));
+        byte[] key = new byte[c.getInt(p)];
+        c.get(p + 8, key);
+        return key;
+    }
+
+    private byte[] readValue(long offset) throws IOException {
+        MappedByteBuffer c = chunk(offset);
+        int p = (int) (offset & (CHUNK_SIZE - 1));
+        byte[] value = new byte[c.getInt(p + 4)];
+        c.get(p + 8 + c.getInt(p), value);
+        return value;
+    }
+
+    /** FNV-1a over the key's bytes, then the Murmur3 finalizer; stable across runs. */
+    private static int hash(byte[] key) {
+        int h = 0x811c9dc5;
+        for (byte b : key) {
+            h ^= b;
+            h *= 0x01000193;
+        }
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Searches for the given key, returning the index of its slot or, if it
+     * is absent, -(a+1) where a is the first available slot of its probe run.
+     */
+    private int findSlot(int h, byte[] key) throws IOException {
+        int avail = -1;
+        int j = h & mask;
+        while (true) {
+            int state = state(j);
+            if (state == EMPTY) {
+                return -((avail == -1 ? j : avail) + 1);
+            }
+            if (state == DEFUNCT) {
+                if (avail == -1) avail = j;
+            } else if (index.getInt(slotAt(j)) == h && keyEquals(record(j), key)) {
+                return j;
+            } else {
+                collisions++;
+            }
+            j = (j + 1) & mask;
+        }
+    }
+
+    /** Rebuilds the index with the given capacity, dropping DEFUNCT slots. */
+    private void resize(int newCap) throws IOException {
+        Path tmp = indexPath.resolveSibling(indexPath.getFileName() + ".tmp");
+        MappedByteBuffer table = createIndex(tmp, newCap, size(), index.getLong(DATA_END_AT));
+        int newMask = newCap - 1;
+        for (int j = 0; j < capacity(); j++) {
+            if (state(j) != FULL) continue;
+            int h = index.getInt(slotAt(j));
+            int k = h & newMask;
+            while (table.getInt(slotAt(k) + STATE_AT) != EMPTY) k = (k + 1) & newMask;
+            table.putInt(slotAt(k), h);
+            table.putLong(slotAt(k) + RECORD_AT, record(j));
+            table.putInt(slotAt(k) + STATE_AT, FULL);
+        }
+        table.force();
+        Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(indexPath.toAbsolutePath().getParent()); // later updates go to the renamed file only
+        index = table;
+        mask = newMask;
+    }
+
+    /** Forces the directory entries of dir, such as a rename, to disk. */
+    private static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void ensureOpen() {
+        if (index == null) throw new IllegalStateException("map is closed");
+    }
+
+    // ---------------- public methods ----------------
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        ensureOpen();
+        return index.getInt(SIZE_AT);
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     * @throws IOException if the data file cannot be mapped
+     */
+    @Override
+    public V get(K key) throws IOException {
+        ensureOpen();
+        byte[] k = keyCodec.encode(key);
+        int j = findSlot(hash(k), k);
+        if (j < 0) return null;
+        return valueCodec.decode(readValue(record(j)));
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     * @throws IOException if the files cannot be extended
+     */
+    @Override
+    public V put(K key, V value) throws IOException {
+        ensureOpen();
+        byte[] k = keyCodec.encode(key);
+        byte[] v = valueCodec.encode(value);
+        int h = hash(k);
+        int j = findSlot(h, k);
+        if (j >= 0) {
+            long offset = record(j);
+            byte[] old = readValue(offset);
+            if (old.length == v.length) {                       // same width: overwrite in place
+                chunk(offset).put((int) (offset & (CHUNK_SIZE - 1)) + 8 + k.length, v);
+            } else {
+                index.putLong(slotAt(j) + RECORD_AT, append(k, v));
+            }
+            return valueCodec.decode(old);
+        }
+        j = -(j + 1);
+        boolean reused = state(j) == DEFUNCT;
+        long offset = append(k, v);                             // write the record before the slot
+        index.putInt(slotAt(j), h);
+        index.putLong(slotAt(j) + RECORD_AT, offset);
+        index.putInt(slotAt(j) + STATE_AT, FULL);
+        index.putInt(SIZE_AT, size() + 1);
+        if (!reused) {
+            int used = index.getInt(USED_AT) + 1;
+            index.putInt(USED_AT, used);
+            if (used > capacity() * MAX_LOAD) {
+                // grow, unless most used slots are DEFUNCT and a rebuild frees enough
+                resize(size() > capacity() * MAX_LOAD / 2 ? 2 * capacity() : capacity());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     * @throws IOException if the data file cannot be mapped
+     */
+    @Override
+    public V remove(K key) throws IOException {
+        ensureOpen();
+        byte[] k = keyCodec.encode(key);
+        int j = findSlot(hash(k), k);
+        if (j < 0) return null;
+        V answer = valueCodec.decode(readValue(record(j)));
+        index.putInt(slotAt(j) + STATE_AT, DEFUNCT);
+        index.putInt(SIZE_AT, size() - 1);
+        return answer;
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        ensureOpen();
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>(size());
+        try {
+            for (int j = 0; j < capacity(); j++) {
+                if (state(j) == FULL) {
+                    long offset = record(j);
+                    buffer.add(new MapEntry<>(keyCodec.decode(readKey(offset)), valueCodec.decode(readValue(offset))));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    @Override
+    public double loadFactor() {
+        return (double) size() / capacity();
+    }
+
+    /**
+     * Returns the number of probes, over all operations since the map was
+     * opened, that landed on a slot occupied by a different key.
+     */
+    @Override
+    public int numCollisions() {
+        return collisions;
+    }
+
+    /** Forces all changes to the index and data files out to disk. */
+    public void flush() {
+        ensureOpen();
+        index.force();
+        for (MappedByteBuffer c : chunks) c.force();
+    }
+
+    /**
+     * Flushes the map and releases its files. The map cannot be used
+     * afterwards, but can be reopened by constructing a new one on the same path.
+     */
+    @Override
+    public void close() throws IOException {
+        if (index == null) return;
+        flush();
+        index = null;
+        chunks.clear();
+        data.close();
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
@@ -0,0 +1,119 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import priorityqueue.DefaultComparator;
+import utils.ByteCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedProbeHashMapTest {
+
+	@TempDir
+	Path dir;
+
+	private MappedProbeHashMap<String, Integer> open(String name) throws IOException {
+		return new MappedProbeHashMap<String, Integer>(dir.resolve(name), ByteCodec.STRING, ByteCodec.INTEGER);
+	}
+
+	@Test
+	void testGet() throws IOException {
+		try(MappedProbeHashMap<String, Integer> map = open("get")) {
+			int n = 10;
+			for(int i = 0; i < n; ++i) {
+				map.put(Integer.toString(i), i);
+			}
+			assertEquals(n, map.size());
+			assertEquals(5, map.get("5"));
+			assertEquals(2, map.get("2"));
+			assertNull(map.get("10"));
+		}
+	}
+
+	@Test
+	void testPutAndRemove() throws IOException {
+		try(MappedProbeHashMap<String, Integer> map = open("put")) {
+			int n = 10;
+			for(int i = 0; i < n; ++i) {
+				map.put(Integer.toString(i), i);
+			}
+			assertEquals(3, map.put("3", 33));
+			assertEquals(33, map.get("3"));
+			assertEquals(5, map.remove("5"));
+			assertNull(map.remove("5"));
+			assertNull(map.get("5"));
+			assertEquals(n - 1, map.size());
+
+			ArrayList<String> buf = new ArrayList<>();
+			for(String s : map.keySet()) buf.add(s);
+			buf.sort(new DefaultComparator<String>());
+			assertEquals("[0, 1, 2, 3, 4, 6, 7, 8, 9]", buf.toString());
+		}
+	}
+
+	@Test
+	void testReopen() throws IOException {
+		int n = 20000;
+		try(MappedProbeHashMap<String, Integer> map = open("reopen")) {
+			for(int i = 0; i < n; ++i) {
+				map.put("key" + i, i);
+			}
+			for(int i = 0; i < n; i += 3) {
+				map.remove("key" + i);
+			}
+		}
+		try(MappedProbeHashMap<String, Integer> map = open("reopen")) {
+			assertEquals(n - (n + 2) / 3, map.size());
+			for(int i = 0; i < n; ++i) {
+				assertEquals(i % 3 == 0 ? null : i, map.get("key" + i));
+			}
+			map.put("key0", -1);
+		}
+		try(MappedProbeHashMap<String, Integer> map = open("reopen")) {
+			assertEquals(-1, map.get("key0"));
+		}
+		assertTrue(Files.exists(dir.resolve("reopen.data")));
+	}
+
+	@Test
+	void testVariableLengthValues() throws IOException {
+		Path path = dir.resolve("strings");
+		HashMap<Long, String> expected = new HashMap<>();
+		Random rnd = new Random(1024);
+		try(MappedProbeHashMap<Long, String> map = new MappedProbeHashMap<Long, String>(path, ByteCodec.LONG, ByteCodec.STRING)) {
+			for(int i = 0; i < 20000; ++i) {
+				long k = rnd.nextInt(1000);
+				if(rnd.nextInt(4) > 0) {
+					String v = "v".repeat(rnd.nextInt(20)) + i;
+					assertEquals(expected.put(k, v), map.put(k, v));
+				} else {
+					assertEquals(expected.remove(k), map.remove(k));
+				}
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		try(MappedProbeHashMap<Long, String> map = new MappedProbeHashMap<Long, String>(path, ByteCodec.LONG, ByteCodec.STRING)) {
+			for(long k = 0; k < 1000; ++k) {
+				assertEquals(expected.get(k), map.get(k));
+			}
+		}
+	}
+
+	@Test
+	void testClosed() throws IOException {
+		MappedProbeHashMap<String, Integer> map = open("closed");
+		map.put("a", 1);
+		map.close();
+		assertThrows(IllegalStateException.class, () -> map.get("a"));
+		Files.write(dir.resolve("garbage"), new byte[64]);
+		assertThrows(IOException.class, () -> open("garbage"));
+	}
+
+}
@@ -0,0 +1,37 @@
+package hashtable;
+
+/**
+ * Fibonacci (multiply-shift) hashing: the hash code is multiplied by
+ * 2^32 / phi and the top log2(N) bits of the product are kept.
+ * <p>
+ * Capacities are powers of two, so the compression is a multiply and a
+ * shift with no division.
+ */
+public class MultiplyShiftHashStrategy implements HashStrategy {
+
+	/** Returns the smallest power of two that is at least cap (and at least 2). */
+	static int powerOfTwo(int cap) {
+		int size = 2;
+		while (size < cap) size <<= 1;
+		return size;
+	}
+
+	@Override
+	public int tableSize(int cap) {
+		return powerOfTwo(cap);
+	}
+
+	@Override
+	public int grow(int cap) {
+		return 2 * cap;
+	}
+
+	@Override
+	public int hash(int hashCode, int cap) {
+		return (hashCode * 0x9E3779B9) >>> (32 - Integer.numberOfTrailingZeros(cap));
+	}
+
+	public String toString() {
+		return "MultiplyShift";
+	}
+}
@@ -0,0 +1,36 @@
+package hashtable;
+
+/**
+ * Applies the MurmurHash3 32-bit finalizer (fmix32) to the hash code and
+ * masks the result to a power-of-two capacity.
+ * <p>
+ * The finalizer mixes every input bit into every output bit, so even keys
+ * with poor hashCode() implementations spread well over the low bits.
+ */
+public class MurmurHashStrategy implements HashStrategy {
+
+	@Override
+	public int tableSize(int cap) {
+		return MultiplyShiftHashStrategy.powerOfTwo(cap);
+	}
+
+	@Override
+	public int grow(int cap) {
+		return 2 * cap;
+	}
+
+	@Override
+	public int hash(int hashCode, int cap) {
+		int h = hashCode;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h & (cap - 1);
+	}
+
+	public String toString() {
+		return "Murmur";
+	}
+}
@@ -0,0 +1,379 @@
+package hashtable;
+
+import interfaces.AbstractMap;
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Lock-free map using open addressing, after Cliff Click's non-blocking
+ * hash table.
+ *
+ * Keys and values share one AtomicReferenceArray (key at 2j, value at 2j+1).
+ * A key slot is claimed once by CAS and never changes afterwards; values are
+ * replaced by CAS, and a removed value becomes the TOMBSTONE sentinel. Readers
+ * only perform volatile loads: get never locks and never CASes.
+ *
+ * When a table fills up a larger one is chained behind it and entries are
+ * migrated slot by slot by the writers. Copying a slot first freezes its value
+ * by wrapping it in a Prime; writers that meet a Prime finish copying that slot
+ * and retry in the newer table, and readers that meet one consult the newer
+ * table before falling back to the frozen value. Empty key slots are killed
+ * (KEY_TOMB) so no key can be added behind the copier. Once every slot of the
+ * oldest table has been copied, the newer table is promoted.
+ */
+public class NonBlockingHashMap<K extends Comparable<K>, V> extends AbstractMap<K, V> {
+
+    private static final Object TOMBSTONE = new Object();      // value of a removed entry
+    private static final Object KEY_TOMB = new Object();       // key of a slot killed during a copy
+    private static final Object NOT_FOUND = new Object();      // search result: no information here
+    private static final Prime TOMBPRIME = new Prime(TOMBSTONE); // value of a fully copied slot
+    private static final int COPY_CHUNK = 64;                  // slots copied by each helping writer
+
+    /** Marks a value frozen for copying into the next table. */
+    private static final class Prime {
+        final Object value;
+
+        Prime(Object value) {
+            this.value = value;
+        }
+    }
+
+    /** One generation of the hash table. */
+    private static final class Table {
+        final AtomicReferenceArray<Object> kvs;
+        final int len;                                           // number of slots, a power of two
+        final AtomicInteger slots = new AtomicInteger();         // key slots claimed so far
+        final AtomicReference<Table> next = new AtomicReference<>();
+        final AtomicInteger copyIndex = new AtomicInteger();     // next slot to hand to a copier
+        final AtomicInteger copyDone = new AtomicInteger();      // slots fully copied
+
+        Table(int len) {
+            this.len = len;
+            kvs = new AtomicReferenceArray<>(2 * len);
+        }
+
+        Object key(int j) {
+            return kvs.get(2 * j);
+        }
+
+        Object val(int j) {
+            return kvs.get(2 * j + 1);
+        }
+
+        boolean casKey(int j, Object expected, Object key) {
+            return kvs.compareAndSet(2 * j, expected, key);
+        }
+
+        boolean casVal(int j, Object expected, Object value) {
+            return kvs.compareAndSet(2 * j + 1, expected, value);
+        }
+
+        /** Probes beyond this many slots trigger a resize. */
+        int reprobeLimit() {
+            return 10 + (len >> 2);
+        }
+    }
+
+    private final AtomicReference<Table> top;
+    private final LongAdder count = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+
+    /** Creates a map with capacity 16. */
+    public NonBlockingHashMap() {
+        this(16);
+    }
+
+    /** Creates a map with at least the given capacity (rounded up to a power of two). */
+    public NonBlockingHashMap(int cap) {
+        top = new AtomicReference<>(new Table(MultiplyShiftHashStrategy.powerOfTwo(Math.max(cap, 8))));
+    }
+
+    /** Spreads the key's hash code with the Murmur3 finalizer. */
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return count.intValue();
+    }
+
+    // ---------------- reads ----------------
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public V get(K key) {
+        Object v = getIn(top.get(), key, hash(key));
+        return (v == NOT_FOUND || v == TOMBSTONE) ? null : (V) v;
+    }
+
+    /**
+     * Looks key up in table t and the tables chained after it. Returns the
+     * value (possibly TOMBSTONE) or NOT_FOUND if no table holds a value.
+     */
+    private Object getIn(Table t, Object key, int h) {
+        int mask = t.len - 1;
+        int j = h & mask;
+        for (int probes = 0; probes < t.reprobeLimit(); probes++) {
+            Object k = t.key(j);
+            if (k == null || k == KEY_TOMB) break;               // not in this table
+            if (k == key || k.equals(key)) {
+                Object v = t.val(j);
+                if (!(v instanceof Prime)) {
+                    return v == null ? NOT_FOUND : v;
+                }
+                // frozen for copying: a newer table has the latest value, if any
+                Object newer = getIn(t.next.get(), key, h);
+                if (newer != NOT_FOUND) return newer;
+                return v == TOMBPRIME ? NOT_FOUND : ((Prime) v).value;
+            }
+            j = (j + 1) & mask;
+        }
+        Table nt = t.next.get();
+        return nt == null ? NOT_FOUND : getIn(nt, key, h);
+    }
+
+    // ---------------- writes ----------------
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     * @throws IllegalArgumentException if value is null
+     */
+    @Override
+    public V put(K key, V value) {
+        if (value == null) throw new IllegalArgumentException("null values are not supported");
+        return write(key, value);
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    public V remove(K key) {
+        return write(key, TOMBSTONE);
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private V write(K key, Object value) {
+        Table t = top.get();
+        if (t.next.get() != null) helpCopy(t);
+        Object old = putIfMatch(t, key, hash(key), value, false);
+        return (old == null || old == TOMBSTONE || old == NOT_FOUND) ? null : (V) old;
+    }
+
+    /**
+     * Writes value for key into table t (or a newer table, if t is being copied)
+     * and returns the previous value. If onlyIfAbsent is true, as when copying a
+     * slot forward, the write only happens if key has never had a value in this
+     * table, and the size is not changed.
+     */
+    private Object putIfMatch(Table t, Object key, int h, Object value, boolean onlyIfAbsent) {
+        int mask = t.len - 1;
+        int j = h & mask;
+        int probes = 0;
+        while (true) {                                           // find or claim key's slot
+            Object k = t.key(j);
+            if (k == null) {
+                if (value == TOMBSTONE && t.next.get() == null) {
+                    return NOT_FOUND;                            // nothing to remove
+                }
+                if (t.next.get() != null || t.slots.get() >= (t.len >> 2) * 3) {
+                    Table nt = resize(t);
+                    // kill the empty slot so nobody can add key here behind us
+                    if (t.casKey(j, null, KEY_TOMB)) {
+                        copied(t);
+                        return putIfMatch(nt, key, h, value, onlyIfAbsent);
+                    }
+                    continue;                                    // claimed meanwhile; look again
+                }
+                if (t.casKey(j, null, key)) {
+                    t.slots.incrementAndGet();
+                    break;
+                }
+                continue;                                        // claimed meanwhile; look again
+            }
+            if (k == KEY_TOMB) {                                 // table is being copied
+                return putIfMatch(t.next.get(), key, h, value, onlyIfAbsent);
+            }
+            if (k == key || k.equals(key)) break;
+            collisions.increment();
+            if (++probes >= t.reprobeLimit()) {
+                return putIfMatch(resize(t), key, h, value, onlyIfAbsent);
+            }
+            j = (j + 1) & mask;
+        }
+
+        while (true) {                                           // update the value at slot j
+            Object v = t.val(j);
+            if (v instanceof Prime || t.next.get() != null) {
+                copySlot(t, j);                                  // move it forward, then retry there
+                return putIfMatch(t.next.get(), key, h, value, onlyIfAbsent);
+            }
+            if (onlyIfAbsent && v != null) return v;             // a newer value is already here
+            if (value == TOMBSTONE && (v == null || v == TOMBSTONE)) return v;
+            if (t.casVal(j, v, value)) {
+                if (!onlyIfAbsent) {
+                    boolean wasPresent = (v != null && v != TOMBSTONE);
+                    boolean isPresent = (value != TOMBSTONE);
+                    if (wasPresent != isPresent) count.add(isPresent ? 1 : -1);
+                }
+                return v;
+            }
+        }
+    }
+
+    // ---------------- resizing ----------------
+
+    /** Returns the table chained after t, creating it if necessary. */
+    private Table resize(Table t) {
+        Table nt = t.next.get();
+        if (nt != null) return nt;
+        // grow unless most claimed slots hold removed entries, in which case
+        // copying to a table of the same size is enough to reclaim them
+        int newLen = (size() >= (t.len >> 2)) ? 2 * t.len : t.len;
+        nt = new Table(newLen);
+        if (t.next.compareAndSet(null, nt)) return nt;
+        return t.next.get();
+    }
+
+    /** Copies a chunk of t's slots forward and promotes the next table if t is done. */
+    private void helpCopy(Table t) {
+        int start = t.copyIndex.getAndAdd(COPY_CHUNK);
+        for (int j = start; j < start + COPY_CHUNK && j < t.len; j++) {
+            copySlot(t, j);
+        }
+        if (t.copyDone.get() == t.len) {
+            top.compareAndSet(t, t.next.get());
+        }
+    }
+
+    /** Records that one more slot of t has been fully copied. */
+    private void copied(Table t) {
+        if (t.copyDone.incrementAndGet() == t.len) {
+            top.compareAndSet(t, t.next.get());
+        }
+    }
+
+    /** Makes sure slot j of t has been copied into the next table. */
+    private void copySlot(Table t, int j) {
+        Object k = t.key(j);
+        while (k == null) {
+            if (t.casKey(j, null, KEY_TOMB)) {
+                copied(t);
+                return;
+            }
+            k = t.key(j);
+        }
+        if (k == KEY_TOMB) return;
+
+        Object v = t.val(j);
+        while (!(v instanceof Prime)) {                          // freeze the value
+            Object frozen = (v == null || v == TOMBSTONE) ? TOMBPRIME : new Prime(v);
+            if (t.casVal(j, v, frozen)) {
+                if (frozen == TOMBPRIME) {
+                    copied(t);                                   // nothing to carry forward
+                    return;
+                }
+                v = frozen;
+                break;
+            }
+            v = t.val(j);
+        }
+        if (v == TOMBPRIME) return;
+
+        putIfMatch(t.next.get(), k, hash(k), ((Prime) v).value, true);
+        if (t.casVal(j, v, TOMBPRIME)) {
+            copied(t);
+        }
+    }
+
+    // ---------------- bulk views ----------------
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map. The
+     * snapshot is weakly consistent: it reflects every update completed before
+     * the call and may or may not reflect concurrent ones.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    @SuppressWarnings({"unchecked"})
+    public Iterable<Entry<K, V>> entrySet() {
+        ArrayList<Table> chain = new ArrayList<>();
+        for (Table t = top.get(); t != null; t = t.next.get()) chain.add(t);
+        // visit the newest table first so that newer values win
+        HashMap<Object, Object> seen = new HashMap<>();
+        for (int i = chain.size() - 1; i >= 0; i--) {
+            Table t = chain.get(i);
+            for (int j = 0; j < t.len; j++) {
+                Object k = t.key(j);
+                if (k == null || k == KEY_TOMB || seen.containsKey(k)) continue;
+                Object v = t.val(j);
+                if (v == null || v == TOMBPRIME) continue;
+                seen.put(k, (v instanceof Prime) ? ((Prime) v).value : v);
+            }
+        }
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>(seen.size());
+        for (java.util.Map.Entry<Object, Object> e : seen.entrySet()) {
+            if (e.getValue() != TOMBSTONE) {
+                buffer.add(new MapEntry<>((K) e.getKey(), (V) e.getValue()));
+            }
+        }
+        return buffer;
+    }
+
+    @Override
+    public double loadFactor() {
+        return (double) size() / top.get().len;
+    }
+
+    /**
+     * Returns the number of probes by writers, over all operations so far, that
+     * landed on a slot claimed by a different key.
+     */
+    @Override
+    public int numCollisions() {
+        return collisions.intValue();
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
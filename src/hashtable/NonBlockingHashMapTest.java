@@ -0,0 +1,189 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+import priorityqueue.DefaultComparator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NonBlockingHashMapTest {
+
+	@Test
+	void testSize() {
+		NonBlockingHashMap<Integer, String> map = new NonBlockingHashMap<Integer, String>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, Integer.toString(i));
+		}
+		assertEquals(n, map.size());
+	}
+
+	@Test
+	void testGet() {
+		NonBlockingHashMap<String, Integer> map = new NonBlockingHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		assertEquals(5, map.get("5"));
+		assertEquals(2, map.get("2"));
+		assertNull(map.get("10"));
+	}
+
+	@Test
+	void testPut() {
+		NonBlockingHashMap<String, Integer> map = new NonBlockingHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		assertEquals(3, map.put("3", 33));
+		assertEquals(33, map.get("3"));
+		assertEquals(n, map.size());
+	}
+
+	@Test
+	void testRemove() {
+		NonBlockingHashMap<String, Integer> map = new NonBlockingHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		assertEquals(5, map.remove("5"));
+		assertNull(map.remove("5"));
+		assertNull(map.get("5"));
+		assertEquals(n-1, map.size());
+		assertNull(map.put("5", 55));
+		assertEquals(n, map.size());
+	}
+
+	@Test
+	void testKeySet() {
+		NonBlockingHashMap<String, Integer> map = new NonBlockingHashMap<String, Integer>();
+
+		map.put("one", 1);
+		map.put("two", 2);
+		map.put("three", 3);
+		map.remove("two");
+		ArrayList<String> buf = new ArrayList<>();
+		for(String s : map.keySet()) buf.add(s);
+		buf.sort(new DefaultComparator<String>());
+		assertEquals("[one, three]", buf.toString());
+	}
+
+	@Test
+	void testResizeAndChurn() {
+		NonBlockingHashMap<Integer, Integer> map = new NonBlockingHashMap<Integer, Integer>(8);
+		HashMap<Integer, Integer> expected = new HashMap<>();
+		Random rnd = new Random(1024);
+
+		for(int i = 0; i < 50000; ++i) {
+			int k = rnd.nextInt(2000);
+			if(rnd.nextBoolean()) {
+				assertEquals(expected.put(k, i), map.put(k, i));
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for(int k = 0; k < 2000; ++k) {
+			assertEquals(expected.get(k), map.get(k));
+		}
+		int entries = 0;
+		for(Integer v : map.values()) entries++;
+		assertEquals(expected.size(), entries);
+	}
+
+	@Test
+	void testConcurrentPuts() throws InterruptedException {
+		NonBlockingHashMap<Integer, Integer> map = new NonBlockingHashMap<Integer, Integer>(8);
+
+		int threads = 8, perThread = 20000;
+		List<Thread> workers = new ArrayList<>();
+		for(int t = 0; t < threads; ++t) {
+			final int base = t * perThread;
+			workers.add(new Thread(() -> {
+				for(int i = 0; i < perThread; ++i) {
+					map.put(base + i, base + i);
+					if(i % 2 == 1) map.remove(base + i);
+				}
+			}));
+		}
+		for(Thread w : workers) w.start();
+		for(Thread w : workers) w.join();
+
+		assertEquals(threads * perThread / 2, map.size());
+		for(int k = 0; k < threads * perThread; ++k) {
+			assertEquals(k % 2 == 0 ? k : null, map.get(k));
+		}
+	}
+
+	/*
+	 * Threads put unique values into and remove them from a small shared key
+	 * range while the table keeps resizing. In any linearizable history each
+	 * value is replaced or removed at most once, so no value may be returned
+	 * by two operations, and for each key the puts that found it absent must
+	 * exceed the removes that found it present by exactly one if the key ends
+	 * up present, and by zero otherwise.
+	 */
+	@Test
+	void testLinearizableUnderContention() throws InterruptedException {
+		NonBlockingHashMap<Integer, Integer> map = new NonBlockingHashMap<Integer, Integer>(8);
+
+		int threads = 4, perThread = 50000, keys = 64;
+		int[][] inserts = new int[threads][keys];       // puts that returned null
+		int[][] deletes = new int[threads][keys];       // removes that returned a value
+		List<List<Integer>> returned = new ArrayList<>();
+		List<Thread> workers = new ArrayList<>();
+		for(int t = 0; t < threads; ++t) {
+			final int id = t;
+			final List<Integer> seen = new ArrayList<>();
+			returned.add(seen);
+			workers.add(new Thread(() -> {
+				Random rnd = new Random(id);
+				for(int i = 0; i < perThread; ++i) {
+					int k = rnd.nextInt(keys);
+					Integer old;
+					if(rnd.nextInt(3) > 0) {
+						old = map.put(k, id * perThread + i);
+						if(old == null) inserts[id][k]++;
+					} else {
+						old = map.remove(k);
+						if(old != null) deletes[id][k]++;
+					}
+					if(old != null) seen.add(old);
+					map.get(rnd.nextInt(keys));
+				}
+			}));
+		}
+		for(Thread w : workers) w.start();
+		for(Thread w : workers) w.join();
+
+		HashSet<Integer> all = new HashSet<>();
+		for(List<Integer> seen : returned) {
+			for(Integer v : seen) assertTrue(all.add(v), "value " + v + " returned twice");
+		}
+		int present = 0;
+		for(int k = 0; k < keys; ++k) {
+			int balance = 0;
+			for(int t = 0; t < threads; ++t) balance += inserts[t][k] - deletes[t][k];
+			Integer last = map.get(k);
+			assertEquals(last == null ? 0 : 1, balance, "key " + k);
+			if(last != null) {
+				assertFalse(all.contains(last));
+				present++;
+			}
+		}
+		assertEquals(present, map.size());
+	}
+
+}
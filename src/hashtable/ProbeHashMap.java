@@ -1,77 +1,236 @@
 package hashtable;
 
 import interfaces.Entry;
-import interfaces.Position;
 import utils.MapEntry;
 
-import java.io.IOException;
 import java.util.ArrayList;
 
+/*
+ * Map implementation using hash table with open addressing.
+ *
+ * Collisions are resolved by probing the table according to the selected
+ * ProbeMode. Removed entries are replaced by the DEFUNCT sentinel so that
+ * later searches continue past them, and insertions reuse the first DEFUNCT
+ * slot found along the probe sequence.
+ */
 public class ProbeHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K, V> {
+
+    /** Strategies for choosing the next slot after a collision. */
+    public enum ProbeMode {
+        /** Probe h, h+1, h+2, ... */
+        LINEAR,
+        /** Probe h, h+1, h+4, h+9, ... */
+        QUADRATIC,
+        /** Probe h, h+d(k), h+2d(k), ... with a secondary hash d(k) */
+        DOUBLE_HASH
+    }
+
     private MapEntry<K, V>[] table;
-    private MapEntry<K,V> DEFUNCT = new MapEntry<>(null, null);
+    private final MapEntry<K, V> DEFUNCT = new MapEntry<>(null, null);  // sentinel
+    private final ProbeMode mode;
+    private int collisions = 0;          // probes that landed on an occupied slot
+
+    /** Creates a linear probing hash table with capacity 17 and prime factor 109345121. */
     public ProbeHashMap() {
+        this(ProbeMode.LINEAR);
+    }
+
+    /** Creates a hash table with capacity 17 and prime factor 109345121. */
+    public ProbeHashMap(ProbeMode mode) {
         super();
+        this.mode = mode;
     }
 
-    /** Creates a hash table with given capacity and prime factor 109345121. */
+    /** Creates a linear probing hash table with given capacity and prime factor 109345121. */
     public ProbeHashMap(int cap) {
+        this(cap, ProbeMode.LINEAR);
+    }
+
+    /** Creates a hash table with given capacity and prime factor 109345121. */
+    public ProbeHashMap(int cap, ProbeMode mode) {
         super(cap);
+        this.mode = mode;
     }
 
-    /** Creates a hash table with the given capacity and prime factor. */
+    /** Creates a linear probing hash table with the given capacity and prime factor. */
     public ProbeHashMap(int cap, int p) {
+        this(cap, p, ProbeMode.LINEAR);
+    }
+
+    /** Creates a hash table with the given capacity, prime factor and probe mode. */
+    public ProbeHashMap(int cap, int p, ProbeMode mode) {
         super(cap, p);
+        this.mode = mode;
     }
+
+    /** Creates a hash table of at least the given capacity with the given hash strategy and probe mode. */
+    public ProbeHashMap(int cap, HashStrategy strategy, ProbeMode mode) {
+        super(cap, strategy, false);
+        this.mode = mode;
+    }
+
+    /**
+     * Creates a hash table of at least the given capacity with the given hash
+     * strategy and probe mode, which grows above load factor maxLoad (less
+     * than 1) and shrinks below minLoad.
+     */
+    public ProbeHashMap(int cap, HashStrategy strategy, ProbeMode mode, double maxLoad, double minLoad) {
+        super(cap, strategy, false, checkOpenAddressingLoad(maxLoad), minLoad);
+        this.mode = mode;
+    }
+
+    /** Creates an empty table having length equal to current capacity. */
     @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
     protected void createTable() {
-        table = new MapEntry[capacity];
+        table = (MapEntry<K, V>[]) new MapEntry[capacity];
     }
 
-    int findSlot(int h, K k) {
-        // TODO
-        return 0;
+    /** Returns the probing strategy used by this map. */
+    public ProbeMode getProbeMode() {
+        return mode;
+    }
 
+    /** Returns true if location is either empty or the "defunct" sentinel. */
+    private boolean isAvailable(int j) {
+        return (table[j] == null || table[j] == DEFUNCT);
+    }
+
+    /**
+     * Secondary hash used as the step size for double hashing (never 0). For
+     * power-of-two capacities the step is made odd so that every slot is visited.
+     * Tables of one or two slots just step by 1.
+     */
+    private int stepSize(K k) {
+        if (capacity <= 2) return 1;
+        int step = 1 + (k.hashCode() & 0x7fffffff) % (capacity - 1);
+        return (capacity % 2 == 0) ? (step | 1) : step;
+    }
+
+    /**
+     * Returns the i-th slot of the probe sequence starting at bucket h.
+     * The first capacity probes follow the selected mode; since the capacity is
+     * not always prime, quadratic and double hashing may not visit every slot,
+     * so any further probes fall back to a linear sweep.
+     */
+    private int probe(int h, int i, int step) {
+        if (i >= capacity) {
+            return (h + i - capacity) % capacity;
+        }
+        switch (mode) {
+            case QUADRATIC:
+                return (int) ((h + (long) i * i) % capacity);
+            case DOUBLE_HASH:
+                return (int) ((h + (long) i * step) % capacity);
+            default:
+                return (h + i) % capacity;
+        }
+    }
+
+    /**
+     * Searches for an entry with key k along the probe sequence of bucket h.
+     * Returns its index if found, or -(a+1) where a is the first available slot
+     * (the first DEFUNCT slot seen, otherwise the empty slot that ended the search).
+     */
+    int findSlot(int h, K k) {
+        int avail = -1;                                  // no slot available (thus far)
+        int step = (mode == ProbeMode.DOUBLE_HASH) ? stepSize(k) : 1;
+        for (int i = 0; i < 2 * capacity; i++) {
+            int j = probe(h, i, step);
+            if (isAvailable(j)) {                        // may be either empty or defunct
+                if (avail == -1) avail = j;              // this is the first available slot!
+                if (table[j] == null) break;             // if empty, search fails immediately
+            } else if (table[j].getKey().equals(k)) {
+                return j;                                // successful match
+            } else {
+                collisions++;                            // occupied by another key
+            }
+        }
+        return -(avail + 1);                             // search has failed
     }
+
+    /**
+     * Returns value associated with key k in bucket with hash value h. If no such
+     * entry exists, returns null.
+     *
+     * @param h the hash value of the relevant bucket
+     * @param k the key of interest
+     * @return associate value (or null, if no such entry)
+     */
     @Override
     protected V bucketGet(int h, K k) {
-        // TODO
-        return null;
+        int j = findSlot(h, k);
+        if (j < 0) return null;                          // no match found
+        return table[j].getValue();
     }
 
+    /**
+     * Associates key k with value v in bucket with hash value h, returning the
+     * previously associated value, if any.
+     *
+     * @param h the hash value of the relevant bucket
+     * @param k the key of interest
+     * @param v the value to be associated
+     * @return previous value associated with k (or null, if no such entry)
+     */
     @Override
     protected V bucketPut(int h, K k, V v) {
-        // TODO
+        int j = findSlot(h, k);
+        if (j >= 0) {                                    // this key has an existing entry
+            return table[j].setValue(v);
+        }
+        table[-(j + 1)] = new MapEntry<>(k, v);          // convert to proper index
+        n++;
         return null;
     }
 
+    /**
+     * Removes entry having key k from bucket with hash value h, returning the
+     * previously associated value, if found.
+     *
+     * @param h the hash value of the relevant bucket
+     * @param k the key of interest
+     * @return previous value associated with k (or null, if no such entry)
+     */
     @Override
     protected V bucketRemove(int h, K k) {
-        // TODO
-        return null;
+        int j = findSlot(h, k);
+        if (j < 0) return null;                          // nothing to remove
+        V answer = table[j].getValue();
+        table[j] = DEFUNCT;                              // mark this slot as deactivated
+        n--;
+        return answer;
     }
 
-    /** Returns true if location is either empty or the "defunct" sentinel. */
-    private boolean isAvailable(int j) {
-        // TODO
-        return false;
-    }
-    
+    /**
+     * Returns an iterable collection of all key-value entries of the map.
+     *
+     * @return iterable collection of the map's entries
+     */
     @Override
-    public Iterable<Entry<K,V>> entrySet() {
-        // TODO
-        return null;
+    public Iterable<Entry<K, V>> entrySet() {
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>(n);
+        for (int h = 0; h < capacity; h++) {
+            if (!isAvailable(h)) buffer.add(table[h]);
+        }
+        return buffer;
     }
 
     @Override
     public double loadFactor() {
-        // TODO
-        return 0;
+        return (double) n / capacity;
     }
 
+    /**
+     * Returns the number of probes, over all operations so far, that landed on
+     * a slot occupied by a different key.
+     */
     @Override
     public int numCollisions() {
-        // TODO
-        return 0;
+        return collisions;
+    }
+
+    public String toString() {
+        return entrySet().toString();
     }
 }
@@ -7,6 +7,8 @@ import priorityqueue.DefaultComparator;
 import java.util.ArrayList;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class ProbeHashMapTest {
 
@@ -118,4 +120,116 @@ class ProbeHashMapTest {
 		assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", buf.toString());
 	}
 
+	@Test
+	void testProbeModes() {
+		for(ProbeHashMap.ProbeMode mode : ProbeHashMap.ProbeMode.values()) {
+			ProbeHashMap<Integer, Integer> map = new ProbeHashMap<Integer, Integer>(mode);
+
+			int n = 1000;
+			for(int i = 0; i < n; ++i) {
+				map.put(i, i * i);
+			}
+			assertEquals(n, map.size(), mode.toString());
+			for(int i = 0; i < n; ++i) {
+				assertEquals(i * i, map.get(i), mode.toString());
+			}
+			for(int i = 0; i < n; i += 2) {
+				assertEquals(i * i, map.remove(i), mode.toString());
+			}
+			assertEquals(n / 2, map.size(), mode.toString());
+			for(int i = 0; i < n; ++i) {
+				assertEquals(i % 2 == 0 ? null : i * i, map.get(i), mode.toString());
+			}
+		}
+	}
+
+	@Test
+	void testDefunctReuse() {
+		ProbeHashMap<Integer, String> map = new ProbeHashMap<Integer, String>(101);
+
+		// churning one key must keep reusing its DEFUNCT slot
+		for(int i = 0; i < 1000; ++i) {
+			map.put(7, Integer.toString(i));
+			map.remove(7);
+		}
+		map.put(7, "seven");
+		assertEquals("seven", map.get(7));
+		assertEquals(1, map.size());
+		assertEquals(101, map.capacity);
+	}
+
+	@Test
+	void testNumCollisions() {
+		ProbeHashMap<Integer, Integer> map = new ProbeHashMap<Integer, Integer>(ProbeHashMap.ProbeMode.DOUBLE_HASH);
+
+		assertEquals(0, map.numCollisions());
+		int n = 500;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, i);
+		}
+		assertTrue(map.numCollisions() > 0);
+		assertTrue(map.loadFactor() <= 0.5);
+	}
+
+	@Test
+	void testHashStrategies() {
+		HashStrategy[] strategies = { new MADHashStrategy(), new MultiplyShiftHashStrategy(), new MurmurHashStrategy() };
+		for(HashStrategy strategy : strategies) {
+			for(ProbeHashMap.ProbeMode mode : ProbeHashMap.ProbeMode.values()) {
+				ProbeHashMap<Integer, Integer> map = new ProbeHashMap<Integer, Integer>(16, strategy, mode);
+
+				int n = 1000;
+				for(int i = 0; i < n; ++i) {
+					map.put(i * 64, i);
+				}
+				for(int i = 0; i < n; i += 3) {
+					map.remove(i * 64);
+				}
+				for(int i = 0; i < n; ++i) {
+					assertEquals(i % 3 == 0 ? null : i, map.get(i * 64), strategy + " " + mode);
+				}
+			}
+		}
+	}
+
+	@Test
+	void testShrinkOnDelete() {
+		ProbeHashMap<Integer, Integer> map = new ProbeHashMap<Integer, Integer>(17, new MADHashStrategy(), ProbeHashMap.ProbeMode.LINEAR, 0.5, 0.1);
+
+		int n = 5000;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, i);
+		}
+		int full = map.capacity;
+		for(int i = 0; i < n; i += 2) {
+			assertEquals(i, map.remove(i));
+		}
+		assertEquals(full, map.capacity);       // load is still above 0.1
+		for(int i = 1; i < n - 20; i += 2) {
+			assertEquals(i, map.remove(i));
+		}
+		assertTrue(map.capacity < full / 10);
+		assertEquals(10, map.size());
+		for(int i = n - 19; i < n; i += 2) {
+			assertEquals(i, map.get(i));
+		}
+		map.trimToSize();
+		assertEquals(20, map.capacity);
+		assertThrows(IllegalArgumentException.class, () -> new ProbeHashMap<Integer, Integer>(17, new MADHashStrategy(), ProbeHashMap.ProbeMode.LINEAR, 1.0, 0));
+	}
+
+
+	@Test
+	void testTinyDoubleHashTable() {
+		for(int cap = 1; cap <= 3; ++cap) {
+			ProbeHashMap<Integer, Integer> map = new ProbeHashMap<Integer, Integer>(cap, ProbeHashMap.ProbeMode.DOUBLE_HASH);
+			for(int i = 0; i < 100; ++i) {
+				map.put(i, i);
+			}
+			assertEquals(100, map.size());
+			for(int i = 0; i < 100; ++i) {
+				assertEquals(i, map.get(i));
+			}
+		}
+	}
 }
@@ -0,0 +1,203 @@
+package hashtable;
+
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.ArrayList;
+
+/*
+ * Map implementation using open addressing with Robin Hood linear probing.
+ *
+ * Every occupied slot records how far its entry sits from its home bucket.
+ * An insertion that reaches an entry closer to home than itself takes that
+ * slot and carries the displaced entry further along, which keeps probe
+ * lengths short and even. Removal shifts the following run of entries back
+ * by one slot instead of leaving a DEFUNCT marker, so the table never fills
+ * up with tombstones under churn.
+ */
+public class RobinHoodHashMap<K extends Comparable<K>, V> extends AbstractHashMap<K, V> {
+
+    /** Robin Hood probing stays efficient at much higher loads than plain probing. */
+    private static final double MAX_LOAD = 0.9;
+
+    private MapEntry<K, V>[] table;
+    private int[] dist;                  // probe distance of the entry in each slot
+    private int collisions = 0;          // probes that landed on an occupied slot
+
+    /** Creates a hash table with capacity 17 and prime factor 109345121. */
+    public RobinHoodHashMap() {
+        this(17);
+    }
+
+    /** Creates a hash table with given capacity and prime factor 109345121. */
+    public RobinHoodHashMap(int cap) {
+        this(cap, new MADHashStrategy());
+    }
+
+    /** Creates a hash table with the given capacity and prime factor. */
+    public RobinHoodHashMap(int cap, int p) {
+        this(cap, new MADHashStrategy(p));
+    }
+
+    /** Creates a hash table of at least the given capacity using the given hash strategy. */
+    public RobinHoodHashMap(int cap, HashStrategy strategy) {
+        this(cap, strategy, MAX_LOAD, 0);
+    }
+
+    /**
+     * Creates a hash table of at least the given capacity using the given hash
+     * strategy, which grows above load factor maxLoad (less than 1) and shrinks
+     * below minLoad.
+     */
+    public RobinHoodHashMap(int cap, HashStrategy strategy, double maxLoad, double minLoad) {
+        super(cap, strategy, false, checkOpenAddressingLoad(maxLoad), minLoad);
+    }
+
+    /** Creates an empty table having length equal to current capacity. */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    protected void createTable() {
+        table = (MapEntry<K, V>[]) new MapEntry[capacity];
+        dist = new int[capacity];
+    }
+
+    /**
+     * Returns the index of the entry with key k whose home bucket is h, or -1.
+     * The search stops early at the first slot holding an entry that is closer
+     * to its own home than k would be, since k would have displaced it.
+     */
+    private int findSlot(int h, K k) {
+        int j = h;
+        for (int d = 0; table[j] != null && dist[j] >= d; d++) {
+            if (table[j].getKey().equals(k)) return j;
+            collisions++;
+            j = (j + 1) % capacity;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns value associated with key k in bucket with hash value h. If no such
+     * entry exists, returns null.
+     *
+     * @param h the hash value of the relevant bucket
+     * @param k the key of interest
+     * @return associate value (or null, if no such entry)
+     */
+    @Override
+    protected V bucketGet(int h, K k) {
+        int j = findSlot(h, k);
+        if (j < 0) return null;
+        return table[j].getValue();
+    }
+
+    /**
+     * Associates key k with value v in bucket with hash value h, returning the
+     * previously associated value, if any.
+     *
+     * @param h the hash value of the relevant bucket
+     * @param k the key of interest
+     * @param v the value to be associated
+     * @return previous value associated with k (or null, if no such entry)
+     */
+    @Override
+    protected V bucketPut(int h, K k, V v) {
+        int j = findSlot(h, k);
+        if (j >= 0) {                                    // this key has an existing entry
+            return table[j].setValue(v);
+        }
+        MapEntry<K, V> entry = new MapEntry<>(k, v);
+        int d = 0;
+        j = h;
+        while (table[j] != null) {
+            if (dist[j] < d) {                           // resident is richer: swap places
+                MapEntry<K, V> displaced = table[j];
+                int displacedDist = dist[j];
+                table[j] = entry;
+                dist[j] = d;
+                entry = displaced;
+                d = displacedDist;
+            }
+            collisions++;
+            j = (j + 1) % capacity;
+            d++;
+        }
+        table[j] = entry;
+        dist[j] = d;
+        n++;
+        return null;
+    }
+
+    /**
+     * Removes entry having key k from bucket with hash value h, returning the
+     * previously associated value, if found.
+     *
+     * @param h the hash value of the relevant bucket
+     * @param k the key of interest
+     * @return previous value associated with k (or null, if no such entry)
+     */
+    @Override
+    protected V bucketRemove(int h, K k) {
+        int j = findSlot(h, k);
+        if (j < 0) return null;                          // nothing to remove
+        V answer = table[j].getValue();
+        // shift the rest of the run back one slot, until an empty slot or an
+        // entry already sitting in its home bucket
+        int next = (j + 1) % capacity;
+        while (table[next] != null && dist[next] > 0) {
+            table[j] = table[next];
+            dist[j] = dist[next] - 1;
+            j = next;
+            next = (next + 1) % capacity;
+        }
+        table[j] = null;
+        dist[j] = 0;
+        n--;
+        return answer;
+    }
+
+    /**
+     * Returns the largest probe distance of any entry currently in the table.
+     *
+     * @return the longest probe sequence needed by a successful search, minus one
+     */
+    public int maxProbeDistance() {
+        int max = 0;
+        for (int j = 0; j < capacity; j++) {
+            if (table[j] != null) max = Math.max(max, dist[j]);
+        }
+        return max;
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>(n);
+        for (int j = 0; j < capacity; j++) {
+            if (table[j] != null) buffer.add(table[j]);
+        }
+        return buffer;
+    }
+
+    @Override
+    public double loadFactor() {
+        return (double) n / capacity;
+    }
+
+    /**
+     * Returns the number of probes, over all operations so far, that landed on
+     * a slot occupied by a different key.
+     */
+    @Override
+    public int numCollisions() {
+        return collisions;
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
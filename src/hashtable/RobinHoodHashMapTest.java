@@ -0,0 +1,112 @@
+package hashtable;
+
+import org.junit.jupiter.api.Test;
+import priorityqueue.DefaultComparator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RobinHoodHashMapTest {
+
+	@Test
+	void testSize() {
+		RobinHoodHashMap<Integer, String> map = new RobinHoodHashMap<Integer, String>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, Integer.toString(i));
+		}
+		assertEquals(n, map.size());
+	}
+
+	@Test
+	void testGet() {
+		RobinHoodHashMap<String, Integer> map = new RobinHoodHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		assertEquals(5, map.get("5"));
+		assertEquals(2, map.get("2"));
+		assertNull(map.get("10"));
+	}
+
+	@Test
+	void testPut() {
+		RobinHoodHashMap<String, Integer> map = new RobinHoodHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		assertEquals(3, map.put("3", 33));
+		assertEquals(33, map.get("3"));
+		assertEquals(n, map.size());
+	}
+
+	@Test
+	void testRemove() {
+		RobinHoodHashMap<String, Integer> map = new RobinHoodHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		assertEquals(5, map.remove("5"));
+		assertNull(map.remove("5"));
+		assertEquals(n-1, map.size());
+	}
+
+	@Test
+	void testValues() {
+		RobinHoodHashMap<String, Integer> map = new RobinHoodHashMap<String, Integer>();
+
+		int n = 10;
+		for(int i = 0; i < n; ++i) {
+			map.put(Integer.toString(i), i);
+		}
+		ArrayList<Integer> buf = new ArrayList<>();
+		for(Integer s : map.values()) buf.add(s);
+		buf.sort(new DefaultComparator<Integer>());
+		assertEquals("[0, 1, 2, 3, 4, 5, 6, 7, 8, 9]", buf.toString());
+	}
+
+	@Test
+	void testHighLoadFactor() {
+		RobinHoodHashMap<Integer, Integer> map = new RobinHoodHashMap<Integer, Integer>(101);
+
+		for(int i = 0; i < 90; ++i) {
+			map.put(i, i);
+		}
+		assertEquals(101, map.capacity);
+		assertTrue(map.loadFactor() > 0.8);
+		for(int i = 0; i < 90; ++i) {
+			assertEquals(i, map.get(i));
+		}
+	}
+
+	@Test
+	void testChurn() {
+		RobinHoodHashMap<Integer, Integer> map = new RobinHoodHashMap<Integer, Integer>();
+		HashMap<Integer, Integer> expected = new HashMap<>();
+		Random rnd = new Random(1024);
+
+		for(int i = 0; i < 20000; ++i) {
+			int k = rnd.nextInt(500);
+			if(rnd.nextBoolean()) {
+				assertEquals(expected.put(k, i), map.put(k, i));
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+			assertEquals(expected.size(), map.size());
+		}
+		for(int k = 0; k < 500; ++k) {
+			assertEquals(expected.get(k), map.get(k));
+		}
+	}
+
+}
@@ -1,6 +1,7 @@
 package interfaces;
 
 import java.util.Iterator;
+import java.util.function.BiConsumer;
 
 /**
  * An abstract base class to ease the implementation of the Map interface.
@@ -97,4 +98,17 @@ public abstract class AbstractMap<K, V> implements Map<K, V> {
 	public Iterable<V> values() {
 		return new ValueIterable();
 	}
+
+	/**
+	 * Performs the given action for each entry of the map. Subclasses may
+	 * override this to walk their storage directly without creating an
+	 * iterator.
+	 *
+	 * @param action the action to be performed for each key and value
+	 */
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		for (Entry<K, V> entry : entrySet()) {
+			action.accept(entry.getKey(), entry.getValue());
+		}
+	}
 }
@@ -5,18 +5,22 @@ import interfaces.Position;
 
 import java.io.IOException;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
+import java.util.function.Function;
 
 
 /**
- * An implementation of a sorted map using an AVL tree.
+ * An implementation of a sorted map using an AVL tree. Unless another tree
+ * is given, entries are stored in an OrderStatisticBinaryTree, so that rank,
+ * select and split take O(log n) time.
  */
 
 public class AVLTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
 
 	/** Constructs an empty map using the natural ordering of keys. */
 	public AVLTreeMap() {
-		super();
+		super(new OrderStatisticBinaryTree<>());
 	}
 
 	/**
@@ -25,7 +29,52 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
 	 * @param comp comparator defining the order of keys in the map
 	 */
 	public AVLTreeMap(Comparator<K> comp) {
-		super(comp);
+		super(comp, new OrderStatisticBinaryTree<>());
+	}
+
+	/**
+	 * Constructs an empty map stored in the given empty tree, such as a
+	 * NullLeafBinaryTree or an ArrayBalanceableBinaryTree, using the natural
+	 * ordering of keys.
+	 *
+	 * @param tree an empty tree to hold the entries
+	 */
+	public AVLTreeMap(BalanceableBinaryTree<K, V> tree) {
+		super(tree);
+	}
+
+	/** Constructs an empty map stored in the given empty tree, ordering keys by comp. */
+	protected AVLTreeMap(Comparator<K> comp, BalanceableBinaryTree<K, V> tree) {
+		super(comp, tree);
+	}
+
+	/**
+	 * Returns a map holding the given entries, built as a perfectly balanced
+	 * tree with correct heights in linear time rather than by n insertions.
+	 *
+	 * @param sorted entries in strictly increasing key order
+	 * @return a new map holding the entries
+	 * @throws IllegalArgumentException if the keys are not strictly increasing
+	 */
+	public static <K extends Comparable<K>, V> AVLTreeMap<K, V> fromSorted(List<? extends Entry<K, V>> sorted) {
+		AVLTreeMap<K, V> map = new AVLTreeMap<>();
+		map.bulkLoad(sorted);
+		return map;
+	}
+
+	/**
+	 * Returns a map of the given keys, each with the value computed for it,
+	 * built as fromSorted() builds it. Keys already in order are loaded in
+	 * linear time; others are sorted first. Duplicate keys are stored once.
+	 *
+	 * @param keys    the keys, in any order
+	 * @param valueOf function giving the value for each key
+	 * @return a new map holding the keys
+	 */
+	public static <K extends Comparable<K>, V> AVLTreeMap<K, V> fromSorted(K[] keys, Function<? super K, ? extends V> valueOf) {
+		AVLTreeMap<K, V> map = new AVLTreeMap<>();
+		map.bulkLoad(map.sortedEntries(keys, valueOf));
+		return map;
 	}
 
 	public static void main(String [] args) throws IOException {
@@ -64,7 +113,7 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
 		if (height(tree.left(p)) < height(tree.right(p))) return tree.right(p); // clear winner
 		// equal height children; break tie while matching parent's orientation
 		if (tree.isRoot(p)) return tree.left(p); // choice is irrelevant
-		if (p == tree.left(tree.parent(p))) return tree.left(p); // return aligned child
+		if (p.equals(tree.left(tree.parent(p)))) return tree.left(p); // return aligned child
 		else return tree.right(p);
 	}
 
@@ -90,6 +139,137 @@ public class AVLTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
 		} while (oldHeight != newHeight && p != null);
 	}
 
+	// ---------------- split and join ----------------
+
+	/** Hangs l and r below m, which must then be balanced, and returns m. */
+	private Position<Entry<K, V>> node(Position<Entry<K, V>> l, Position<Entry<K, V>> m, Position<Entry<K, V>> r) {
+		tree.link(m, l, r);
+		recomputeHeight(m);
+		return m;
+	}
+
+	/** Rotates the right child of detached subtree p above it, returning the new root. */
+	private Position<Entry<K, V>> rotateLeft(Position<Entry<K, V>> p) {
+		Position<Entry<K, V>> r = tree.right(p), middle = tree.left(r), outer = tree.right(r);
+		return node(node(tree.left(p), p, middle), r, outer);
+	}
+
+	/** Rotates the left child of detached subtree p above it, returning the new root. */
+	private Position<Entry<K, V>> rotateRight(Position<Entry<K, V>> p) {
+		Position<Entry<K, V>> l = tree.left(p), middle = tree.right(l), outer = tree.left(l);
+		return node(outer, l, node(middle, p, tree.right(p)));
+	}
+
+	/**
+	 * Joins by height: if l and r differ in height by more than one, m is
+	 * joined into the taller tree along its spine facing the shorter one, at
+	 * the first subtree no more than one taller than it, and the spine is
+	 * rebalanced on the way back up with at most a double rotation. This
+	 * takes time proportional to the difference in height.
+	 */
+	@Override
+	protected Position<Entry<K, V>> join(Position<Entry<K, V>> l, Position<Entry<K, V>> m, Position<Entry<K, V>> r) {
+		if (height(l) > height(r) + 1) return joinRight(l, m, r);
+		if (height(r) > height(l) + 1) return joinLeft(l, m, r);
+		return node(l, m, r);
+	}
+
+	/** Joins a shorter r into the right spine of l. */
+	private Position<Entry<K, V>> joinRight(Position<Entry<K, V>> l, Position<Entry<K, V>> m, Position<Entry<K, V>> r) {
+		Position<Entry<K, V>> a = tree.left(l), c = tree.right(l);
+		if (height(c) <= height(r) + 1) {
+			Position<Entry<K, V>> t = node(c, m, r);
+			if (height(t) <= height(a) + 1) return node(a, l, t);
+			return rotateLeft(node(a, l, rotateRight(t)));
+		}
+		Position<Entry<K, V>> t = joinRight(c, m, r);
+		Position<Entry<K, V>> joined = node(a, l, t);
+		return height(t) <= height(a) + 1 ? joined : rotateLeft(joined);
+	}
+
+	/** Joins a shorter l into the left spine of r. */
+	private Position<Entry<K, V>> joinLeft(Position<Entry<K, V>> l, Position<Entry<K, V>> m, Position<Entry<K, V>> r) {
+		Position<Entry<K, V>> c = tree.left(r), a = tree.right(r);
+		if (height(c) <= height(l) + 1) {
+			Position<Entry<K, V>> t = node(l, m, c);
+			if (height(t) <= height(a) + 1) return node(t, r, a);
+			return rotateRight(node(rotateLeft(t), r, a));
+		}
+		Position<Entry<K, V>> t = joinLeft(l, m, c);
+		Position<Entry<K, V>> joined = node(t, r, a);
+		return height(t) <= height(a) + 1 ? joined : rotateRight(joined);
+	}
+
+	/**
+	 * Moves the entries with keys greater than or equal to key into a new map,
+	 * which is returned. This map keeps the smaller keys. Takes O(log n) time
+	 * in the default OrderStatisticBinaryTree; in a tree that does not store
+	 * subtree sizes the entries left below key must be counted, in O(n) time.
+	 *
+	 * @param key the least key to move
+	 * @return a map of the moved entries, stored in the same kind of tree
+	 * @throws UnsupportedOperationException if the map is stored in an
+	 *                                       ArrayBalanceableBinaryTree
+	 */
+	public AVLTreeMap<K, V> split(K key) {
+		AVLTreeMap<K, V> upper = new AVLTreeMap<>(comparator(), tree.emptyTree());
+		splitInto(key, upper);
+		return upper;
+	}
+
+	/**
+	 * Moves all entries of right, whose keys must all be greater than this
+	 * map's, to the end of this map in O(log n) time, leaving right empty.
+	 *
+	 * @param right a map stored in the same kind of tree
+	 * @throws IllegalArgumentException      if the key ranges overlap
+	 * @throws UnsupportedOperationException if the map is stored in an
+	 *                                       ArrayBalanceableBinaryTree
+	 */
+	public void join(AVLTreeMap<K, V> right) {
+		joinFrom(right);
+	}
+
+	/**
+	 * Adds the entries of other whose keys are not in this map, leaving other
+	 * empty. Takes O(m log(n/m + 1)) time for maps of m and n entries, m &lt;= n.
+	 *
+	 * @param other a map stored in the same kind of tree
+	 * @throws UnsupportedOperationException if the map is stored in an
+	 *                                       ArrayBalanceableBinaryTree
+	 */
+	public void union(AVLTreeMap<K, V> other) {
+		unionWith(other);
+	}
+
+	/**
+	 * Removes the entries whose keys are not in other, leaving other empty.
+	 *
+	 * @param other a map stored in the same kind of tree
+	 * @throws UnsupportedOperationException if the map is stored in an
+	 *                                       ArrayBalanceableBinaryTree
+	 */
+	public void intersection(AVLTreeMap<K, V> other) {
+		intersectWith(other);
+	}
+
+	/**
+	 * Removes the entries whose keys are in other, leaving other empty.
+	 *
+	 * @param other a map stored in the same kind of tree
+	 * @throws UnsupportedOperationException if the map is stored in an
+	 *                                       ArrayBalanceableBinaryTree
+	 */
+	public void difference(AVLTreeMap<K, V> other) {
+		subtract(other);
+	}
+
+	/** Sets the height of each position built by a bulk load. */
+	@Override
+	protected void bulkLoaded(Position<Entry<K, V>> p, int depth, int n) {
+		recomputeHeight(p);
+	}
+
 	/** Overrides the TreeMap rebalancing hook that is called after an insertion. */
 	@Override
 	protected void rebalanceInsert(Position<Entry<K, V>> p) throws IOException {
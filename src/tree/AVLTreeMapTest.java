@@ -2,14 +2,19 @@ package tree;
 
 import org.junit.jupiter.api.Test;
 import interfaces.Entry;
+import interfaces.Position;
+import utils.MapEntry;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AVLTreeMapTest {
 
@@ -229,4 +234,112 @@ class AVLTreeMapTest {
 		assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
 	}
 
+
+	/** Returns the height of p's subtree, failing if a stored height is wrong or unbalanced. */
+	private int checkHeights(AVLTreeMap<Integer, String> map, Position<Entry<Integer, String>> p) {
+		if(map.tree.isExternal(p)) return 0;
+		int a = checkHeights(map, map.tree.left(p)), b = checkHeights(map, map.tree.right(p));
+		assertTrue(Math.abs(a - b) <= 1);
+		assertEquals(1 + Math.max(a, b), map.height(p));
+		return 1 + Math.max(a, b);
+	}
+
+	@Test
+	void testFromSorted() throws IOException {
+		List<Entry<Integer, String>> entries = new ArrayList<>();
+		for(int i = 0; i < 1000; ++i) entries.add(new MapEntry<>(2 * i, "v" + i));
+		AVLTreeMap<Integer, String> map = AVLTreeMap.fromSorted(entries);
+		assertEquals(1000, map.size());
+		assertEquals(1000, map.tree.subtreeSize(map.root()));
+		assertEquals(10, checkHeights(map, map.root()));
+		assertEquals("v500", map.get(1000));
+		for(int i = 0; i < 500; ++i) {
+			map.put(2 * i + 1, "odd");
+			map.remove(4 * i);
+		}
+		checkHeights(map, map.root());
+		assertEquals(1000, map.size());
+
+		AVLTreeMap<Integer, String> keys = AVLTreeMap.fromSorted(new Integer[] {5, 3, 9, 3, 1}, k -> "v" + k);
+		assertEquals("[1, 3, 5, 9]", keys.entrySet().toString());
+		assertEquals("v9", keys.get(9));
+		checkHeights(keys, keys.root());
+		assertThrows(IllegalArgumentException.class, () -> AVLTreeMap.fromSorted(List.of(new MapEntry<>(2, "b"), new MapEntry<>(1, "a"))));
+	}
+
+	private static AVLTreeMap<Integer, String> randomMap(java.util.TreeMap<Integer, String> expected, int n, int range, String tag, Random rnd) throws IOException {
+		AVLTreeMap<Integer, String> map = new AVLTreeMap<>();
+		for(int i = 0; i < n; ++i) {
+			int k = rnd.nextInt(range);
+			map.put(k, tag + k);
+			expected.put(k, tag + k);
+		}
+		return map;
+	}
+
+	private void assertSameEntries(java.util.TreeMap<Integer, String> expected, AVLTreeMap<Integer, String> map) throws IOException {
+		assertEquals(expected.size(), map.size());
+		assertEquals(expected.size(), map.tree.subtreeSize(map.root()));
+		assertEquals(expected.keySet().toString(), map.entrySet().toString());
+		for(Integer k : expected.keySet()) assertEquals(expected.get(k), map.get(k));
+		checkHeights(map, map.root());
+	}
+
+	@Test
+	void testSplitJoin() throws IOException {
+		Random rnd = new Random(5);
+		for(int round = 0; round < 20; ++round) {
+			java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+			AVLTreeMap<Integer, String> map = randomMap(expected, rnd.nextInt(2000), 5000, "a", rnd);
+			int key = rnd.nextInt(5200) - 100;
+			AVLTreeMap<Integer, String> upper = map.split(key);
+			assertSameEntries(new java.util.TreeMap<>(expected.headMap(key)), map);
+			assertSameEntries(new java.util.TreeMap<>(expected.tailMap(key)), upper);
+			upper.put(Integer.MAX_VALUE, "new");         // both halves stay usable
+			upper.remove(Integer.MAX_VALUE);
+			map.join(upper);
+			assertTrue(upper.isEmpty());
+			assertSameEntries(expected, map);
+		}
+		AVLTreeMap<Integer, String> a = new AVLTreeMap<>(new OrderStatisticBinaryTree<Integer, String>());
+		AVLTreeMap<Integer, String> b = new AVLTreeMap<>(new OrderStatisticBinaryTree<Integer, String>());
+		a.put(5, "a");
+		b.put(5, "b");
+		assertThrows(IllegalArgumentException.class, () -> a.join(b));
+		assertThrows(IllegalArgumentException.class, () -> a.join(new AVLTreeMap<>(new BalanceableBinaryTree<Integer, String>())));
+		AVLTreeMap<Integer, String> array = new AVLTreeMap<>(new ArrayBalanceableBinaryTree<Integer, String>());
+		assertThrows(UnsupportedOperationException.class, () -> array.split(1));
+	}
+
+	@Test
+	void testSetOperations() throws IOException {
+		Random rnd = new Random(6);
+		for(int round = 0; round < 10; ++round) {
+			int n = rnd.nextInt(1000), m = rnd.nextInt(50) + (round % 2) * 1000;
+			java.util.TreeMap<Integer, String> ea = new java.util.TreeMap<>(), eb = new java.util.TreeMap<>();
+			AVLTreeMap<Integer, String> a = randomMap(ea, n, 3000, "a", rnd), b = randomMap(eb, m, 3000, "b", rnd);
+			java.util.TreeMap<Integer, String> union = new java.util.TreeMap<>(eb);
+			union.putAll(ea);
+			a.union(b);
+			assertTrue(b.isEmpty());
+			assertSameEntries(union, a);
+
+			ea.clear();
+			eb.clear();
+			a = randomMap(ea, n, 3000, "a", rnd);
+			b = randomMap(eb, m, 3000, "b", rnd);
+			java.util.TreeMap<Integer, String> intersection = new java.util.TreeMap<>(ea);
+			intersection.keySet().retainAll(eb.keySet());
+			java.util.TreeMap<Integer, String> difference = new java.util.TreeMap<>(ea);
+			difference.keySet().removeAll(eb.keySet());
+			AVLTreeMap<Integer, String> c = new AVLTreeMap<>(new OrderStatisticBinaryTree<Integer, String>());
+			for(Integer k : ea.keySet()) c.put(k, "a" + k);
+			AVLTreeMap<Integer, String> d = new AVLTreeMap<>(new OrderStatisticBinaryTree<Integer, String>());
+			for(Integer k : eb.keySet()) d.put(k, "b" + k);
+			a.intersection(b);
+			assertSameEntries(intersection, a);
+			c.difference(d);
+			assertSameEntries(difference, c);
+		}
+	}
 }
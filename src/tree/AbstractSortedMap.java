@@ -5,7 +5,18 @@ import interfaces.Entry;
 import interfaces.SortedMap;
 import utils.DefaultComparator;
 
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * An abstract base class to ease the implementation of the SortedMap interface.
@@ -38,6 +49,11 @@ public abstract class AbstractSortedMap<K, V> extends AbstractMap<K, V> implemen
 		this(new DefaultComparator<K>()); // default comparator uses natural ordering
 	}
 
+	/** Returns the comparator defining the ordering of keys in the map. */
+	protected Comparator<K> comparator() {
+		return comp;
+	}
+
 	/** Method for comparing two entries according to key */
 	protected int compare(Entry<K, V> a, Entry<K, V> b) {
 		return comp.compare(a.getKey(), b.getKey());
@@ -58,4 +74,191 @@ public abstract class AbstractSortedMap<K, V> extends AbstractMap<K, V> implemen
 		return comp.compare(a, b);
 	}
 
+	// ---------------- streams and parallel bulk operations ----------------
+	/*
+	 * The bulk operations follow those of java.util.concurrent.ConcurrentHashMap:
+	 * the entries are split into chunks of at most parallelismThreshold
+	 * (estimated) entries through spliterator(), and each chunk is handled by
+	 * a fork/join task, in the pool of the calling task or else the common
+	 * pool. Use Long.MAX_VALUE for a sequential run and 1 for maximal
+	 * parallelism. The map must not be changed while an operation runs.
+	 */
+
+	/**
+	 * Returns a Spliterator over the entries of the map in key order. This one
+	 * splits the entry iterator into batches; tree maps override it to hand
+	 * off whole subtrees instead.
+	 *
+	 * @return a Spliterator over the map's entries
+	 */
+	public Spliterator<Entry<K, V>> spliterator() {
+		return Spliterators.spliterator(entrySet().iterator(), size(),
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/** Returns a sequential stream of the entries of the map, in key order. */
+	public Stream<Entry<K, V>> stream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/** Returns a possibly parallel stream of the entries of the map. */
+	public Stream<Entry<K, V>> parallelStream() {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+	/**
+	 * Splits s while it is estimated to hold more than threshold entries,
+	 * returning the prefixes split off, in key order; s keeps the last part.
+	 */
+	private static <T> List<Spliterator<T>> split(Spliterator<T> s, long threshold) {
+		List<Spliterator<T>> prefixes = new ArrayList<>();
+		Spliterator<T> prefix;
+		while (s.estimateSize() > threshold && (prefix = s.trySplit()) != null) {
+			prefixes.add(prefix);
+		}
+		return prefixes;
+	}
+
+	/**
+	 * Performs the given action for each entry, in parallel once the map has
+	 * more than parallelismThreshold entries. The order of the calls is not
+	 * defined, and the action must be safe to call from several threads.
+	 *
+	 * @param parallelismThreshold the number of entries below which a chunk is
+	 *                             not split further
+	 * @param action               the action to perform on each key and value
+	 */
+	public void forEach(long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+		new ForEachTask<>(spliterator(), Math.max(parallelismThreshold, 1), action).invoke();
+	}
+
+	private static final class ForEachTask<K, V> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Spliterator<Entry<K, V>> entries;
+		private final long threshold;
+		private final BiConsumer<? super K, ? super V> action;
+
+		ForEachTask(Spliterator<Entry<K, V>> entries, long threshold, BiConsumer<? super K, ? super V> action) {
+			this.entries = entries;
+			this.threshold = threshold;
+			this.action = action;
+		}
+
+		@Override
+		protected void compute() {
+			List<ForEachTask<K, V>> forked = new ArrayList<>();
+			for (Spliterator<Entry<K, V>> prefix : split(entries, threshold)) {
+				ForEachTask<K, V> task = new ForEachTask<>(prefix, threshold, action);
+				task.fork();
+				forked.add(task);
+			}
+			entries.forEachRemaining(e -> action.accept(e.getKey(), e.getValue()));
+			for (ForEachTask<K, V> task : forked) task.join();
+		}
+	}
+
+	/**
+	 * Returns the result of accumulating the given transformation of all
+	 * entries using the given reducer to combine values, or null if none.
+	 * Null transformations are skipped. Partial results are combined in key
+	 * order, so the reducer need only be associative.
+	 *
+	 * @param parallelismThreshold the number of entries below which a chunk is
+	 *                             not split further
+	 * @param transformer          a function returning the transformation for
+	 *                             an entry, or null if there is none
+	 * @param reducer              an associative function combining two results
+	 * @return the accumulated transformations of all entries, or null
+	 */
+	public <U> U reduce(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> transformer,
+						BiFunction<? super U, ? super U, ? extends U> reducer) {
+		return new ReduceTask<K, V, U>(spliterator(), Math.max(parallelismThreshold, 1), transformer, reducer).invoke();
+	}
+
+	private static final class ReduceTask<K, V, U> extends RecursiveTask<U> {
+		private static final long serialVersionUID = 1L;
+		private final Spliterator<Entry<K, V>> entries;
+		private final long threshold;
+		private final BiFunction<? super K, ? super V, ? extends U> transformer;
+		private final BiFunction<? super U, ? super U, ? extends U> reducer;
+		private U partial;			// of the entries this task handles itself
+
+		ReduceTask(Spliterator<Entry<K, V>> entries, long threshold,
+				   BiFunction<? super K, ? super V, ? extends U> transformer,
+				   BiFunction<? super U, ? super U, ? extends U> reducer) {
+			this.entries = entries;
+			this.threshold = threshold;
+			this.transformer = transformer;
+			this.reducer = reducer;
+		}
+
+		private U combine(U a, U b) {
+			return a == null ? b : b == null ? a : reducer.apply(a, b);
+		}
+
+		@Override
+		protected U compute() {
+			List<ReduceTask<K, V, U>> forked = new ArrayList<>();
+			for (Spliterator<Entry<K, V>> prefix : split(entries, threshold)) {
+				ReduceTask<K, V, U> task = new ReduceTask<>(prefix, threshold, transformer, reducer);
+				task.fork();
+				forked.add(task);
+			}
+			entries.forEachRemaining(e -> partial = combine(partial, transformer.apply(e.getKey(), e.getValue())));
+			U result = null;
+			for (ReduceTask<K, V, U> task : forked) result = combine(result, task.join());
+			return combine(result, partial);
+		}
+	}
+
+	/**
+	 * Returns a non-null result of applying the given function to some entry,
+	 * or null if there is none. Once a result is found the other tasks stop
+	 * early; when several entries match, which one is returned is not defined.
+	 *
+	 * @param parallelismThreshold the number of entries below which a chunk is
+	 *                             not split further
+	 * @param searchFunction       a function returning a non-null result on
+	 *                             success, else null
+	 * @return a non-null result from some entry, or null
+	 */
+	public <U> U search(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> searchFunction) {
+		AtomicReference<U> result = new AtomicReference<>();
+		new SearchTask<K, V, U>(spliterator(), Math.max(parallelismThreshold, 1), searchFunction, result).invoke();
+		return result.get();
+	}
+
+	private static final class SearchTask<K, V, U> extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final Spliterator<Entry<K, V>> entries;
+		private final long threshold;
+		private final BiFunction<? super K, ? super V, ? extends U> searchFunction;
+		private final AtomicReference<U> result;
+
+		SearchTask(Spliterator<Entry<K, V>> entries, long threshold,
+				   BiFunction<? super K, ? super V, ? extends U> searchFunction, AtomicReference<U> result) {
+			this.entries = entries;
+			this.threshold = threshold;
+			this.searchFunction = searchFunction;
+			this.result = result;
+		}
+
+		@Override
+		protected void compute() {
+			List<SearchTask<K, V, U>> forked = new ArrayList<>();
+			for (Spliterator<Entry<K, V>> prefix : split(entries, threshold)) {
+				SearchTask<K, V, U> task = new SearchTask<>(prefix, threshold, searchFunction, result);
+				task.fork();
+				forked.add(task);
+			}
+			while (result.get() == null && entries.tryAdvance(e -> {
+				U u = searchFunction.apply(e.getKey(), e.getValue());
+				if (u != null) result.compareAndSet(null, u);
+			})) {
+				// keep going until something is found
+			}
+			for (SearchTask<K, V, U> task : forked) task.join();
+		}
+	}
+
 }
@@ -0,0 +1,495 @@
+package tree;
+
+import interfaces.Entry;
+import interfaces.Position;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * A BalanceableBinaryTree that keeps its nodes in parallel arrays instead of
+ * linked Node objects.
+ * <p>
+ * Each internal position is a slot index into the left, right, parent and aux
+ * int arrays and the element array; removed slots are chained into a free list
+ * through their left index and reused. Leaves are not stored at all: an empty
+ * child is the index NIL, and a Position for it names its parent and side. A
+ * map entry therefore costs 20 bytes of array space, instead of one Node for
+ * the entry plus one sentinel Node for a leaf, and the garbage collector traces
+ * a handful of arrays rather than four references per node.
+ * <p>
+ * Positions handed out are small handles created on demand, so two handles
+ * for the same position are equal() but not necessarily ==: they are equal
+ * when they name the same slot, or the same side of the same slot for a leaf.
+ * A handle for a leaf that is then filled in with set() becomes the handle of
+ * the new internal position, as a leaf Node does in a LinkedBinaryTree.
+ * <p>
+ * There are no Node objects, so the LinkedBinaryTree methods that build a
+ * tree of nodes directly (add, setRoot, construct and createLevelOrder) are
+ * rejected; inorderSuccessor and inorderPredecessor search the slots.
+ */
+public class ArrayBalanceableBinaryTree<K, V> extends BalanceableBinaryTree<K, V> {
+
+    private static final int NIL = -1;
+
+    private int[] left, right, parent, aux;
+    private Object[] elements;
+    private int rootSlot = NIL;
+    private int freeList = NIL;
+    private int slots = 0;              // slots ever handed out, free or not
+
+    /** Constructs an empty tree with room for 16 internal positions. */
+    public ArrayBalanceableBinaryTree() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty tree with room for the given number of internal
+     * positions before the arrays grow.
+     *
+     * @param capacity initial number of slots
+     */
+    public ArrayBalanceableBinaryTree(int capacity) {
+        capacity = Math.max(capacity, 1);
+        left = new int[capacity];
+        right = new int[capacity];
+        parent = new int[capacity];
+        aux = new int[capacity];
+        elements = new Object[capacity];
+    }
+
+    // ---------------- handles ----------------
+
+    /** A position: an internal slot, or the empty child on one side of a slot. */
+    private final class Handle implements Position<Entry<K, V>> {
+        int slot;                       // NIL while this names a leaf; set() fills it in
+        final int above;                // for leaves: parent slot, NIL for a leaf root
+        final boolean onRight;
+
+        Handle(int slot) {
+            this.slot = slot;
+            this.above = NIL;
+            this.onRight = false;
+        }
+
+        Handle(int above, boolean onRight) {
+            this.slot = NIL;
+            this.above = above;
+            this.onRight = onRight;
+        }
+
+        /** Returns the slot now at this position, or NIL if it is a leaf. */
+        int resolve() {
+            return slot != NIL ? slot : childOf(above, onRight);
+        }
+
+        /** Returns the slot this handle names or, for a leaf, a negative index made from its parent slot and side. */
+        int index() {
+            return slot != NIL ? slot : ~(2 * (above + 1) + (onRight ? 1 : 0));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<K, V> getElement() {
+            int s = resolve();
+            return s == NIL ? null : (Entry<K, V>) elements[s];
+        }
+
+        @Override
+        public void setElement(Entry<K, V> element) {
+            set(this, element);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ArrayBalanceableBinaryTree<?, ?>.Handle other && index() == other.index();
+        }
+
+        @Override
+        public int hashCode() {
+            return index();
+        }
+
+        @Override
+        public String toString() {
+            Entry<K, V> e = getElement();
+            return e == null ? "" : e.toString();
+        }
+    }
+
+    private int childOf(int slot, boolean onRight) {
+        if (slot == NIL) return rootSlot;
+        return onRight ? right[slot] : left[slot];
+    }
+
+    private Handle handle(int slot, int above, boolean onRight) {
+        return slot != NIL ? new Handle(slot) : new Handle(above, onRight);
+    }
+
+    private Handle check(Position<Entry<K, V>> p) {
+        if (!(p instanceof ArrayBalanceableBinaryTree<?, ?>.Handle h)) {
+            throw new IllegalArgumentException("Not valid position type");
+        }
+        @SuppressWarnings("unchecked")
+        Handle handle = (Handle) h;
+        int s = handle.resolve();
+        if (s != NIL && parent[s] == s) throw new IllegalArgumentException("p is no longer in the tree");
+        return handle;
+    }
+
+    /** Returns the slot of internal position p. */
+    private int slotOf(Position<Entry<K, V>> p) {
+        int s = check(p).resolve();
+        if (s == NIL) throw new IllegalArgumentException("p is a leaf");
+        return s;
+    }
+
+    // ---------------- slot allocation ----------------
+
+    private int allocate(Entry<K, V> e, int above) {
+        int s;
+        if (freeList != NIL) {
+            s = freeList;
+            freeList = left[s];
+        } else {
+            if (slots == elements.length) grow();
+            s = slots++;
+        }
+        left[s] = right[s] = NIL;
+        parent[s] = above;
+        aux[s] = 0;
+        elements[s] = e;
+        return s;
+    }
+
+    private void free(int s) {
+        elements[s] = null;             // let the entry be collected
+        parent[s] = s;                  // our convention for a defunct slot
+        left[s] = freeList;
+        freeList = s;
+    }
+
+    private void grow() {
+        int capacity = 2 * elements.length;
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        parent = Arrays.copyOf(parent, capacity);
+        aux = Arrays.copyOf(aux, capacity);
+        elements = Arrays.copyOf(elements, capacity);
+    }
+
+    /** Makes child the child of slot above (or the root, if above is NIL) on the given side. */
+    private void relink(int above, int child, boolean onRight) {
+        if (above == NIL) {
+            rootSlot = child;
+        } else if (onRight) {
+            right[above] = child;
+        } else {
+            left[above] = child;
+        }
+        if (child != NIL) parent[child] = above;
+    }
+
+    private boolean isRightChild(int s) {
+        int p = parent[s];
+        return p != NIL && right[p] == s;
+    }
+
+    // ---------------- accessors ----------------
+
+    @Override
+    public Position<Entry<K, V>> root() {
+        if (size == 0) return null;
+        return handle(rootSlot, NIL, false);
+    }
+
+    @Override
+    public Position<Entry<K, V>> parent(Position<Entry<K, V>> p) {
+        Handle h = check(p);
+        int s = h.resolve();
+        int above = (s == NIL) ? h.above : parent[s];
+        return above == NIL ? null : new Handle(above);
+    }
+
+    @Override
+    public Position<Entry<K, V>> left(Position<Entry<K, V>> p) {
+        int s = check(p).resolve();
+        return s == NIL ? null : handle(left[s], s, false);
+    }
+
+    @Override
+    public Position<Entry<K, V>> right(Position<Entry<K, V>> p) {
+        int s = check(p).resolve();
+        return s == NIL ? null : handle(right[s], s, true);
+    }
+
+    @Override
+    public Position<Entry<K, V>> sibling(Position<Entry<K, V>> p) {
+        Handle h = check(p);
+        int s = h.resolve();
+        int above = (s == NIL) ? h.above : parent[s];
+        if (above == NIL) return null;
+        boolean onRight = (s == NIL) ? h.onRight : right[above] == s;
+        return handle(childOf(above, !onRight), above, !onRight);
+    }
+
+    @Override
+    public boolean isRoot(Position<Entry<K, V>> p) {
+        Handle h = check(p);
+        int s = h.resolve();
+        return s == NIL ? h.above == NIL : parent[s] == NIL;
+    }
+
+    @Override
+    public boolean isInternal(Position<Entry<K, V>> p) {
+        return check(p).resolve() != NIL;
+    }
+
+    @Override
+    public boolean isExternal(Position<Entry<K, V>> p) {
+        return check(p).resolve() == NIL;
+    }
+
+    @Override
+    public int numChildren(Position<Entry<K, V>> p) {
+        return isInternal(p) ? 2 : 0;
+    }
+
+    @Override
+    public int getAux(Position<Entry<K, V>> p) {
+        int s = check(p).resolve();
+        return s == NIL ? 0 : aux[s];
+    }
+
+    /**
+     * Sets the auxiliary value of p. Leaves are not stored, so their value is
+     * always 0 and can only be set to 0.
+     */
+    @Override
+    public void setAux(Position<Entry<K, V>> p, int value) {
+        int s = check(p).resolve();
+        if (s != NIL) {
+            aux[s] = value;
+        } else if (value != 0) {
+            throw new IllegalArgumentException("leaves have no auxiliary value");
+        }
+    }
+
+    // ---------------- update methods ----------------
+
+    /** Adds an empty root, which is a leaf. */
+    @Override
+    public Position<Entry<K, V>> addRoot(Entry<K, V> e) throws IllegalStateException {
+        if (!isEmpty()) throw new IllegalStateException("Tree is not empty");
+        size = 1;
+        if (e == null) return new Handle(NIL, false);
+        rootSlot = allocate(e, NIL);
+        size += 2;                      // and its two leaves
+        return new Handle(rootSlot);
+    }
+
+    /**
+     * Every internal position already has a leaf on each side, so adding a
+     * null left child just counts it; a non-null one fills the leaf in.
+     */
+    @Override
+    public Position<Entry<K, V>> addLeft(Position<Entry<K, V>> p, Entry<K, V> e) {
+        return addChild(p, e, false);
+    }
+
+    @Override
+    public Position<Entry<K, V>> addRight(Position<Entry<K, V>> p, Entry<K, V> e) {
+        return addChild(p, e, true);
+    }
+
+    private Position<Entry<K, V>> addChild(Position<Entry<K, V>> p, Entry<K, V> e, boolean onRight) {
+        int s = slotOf(p);
+        if (childOf(s, onRight) != NIL) {
+            throw new IllegalStateException("already has a " + (onRight ? "right" : "left") + " child");
+        }
+        Handle child = new Handle(s, onRight);
+        if (e != null) set(child, e);
+        return child;
+    }
+
+    /**
+     * Replaces the element at p. Setting a non-null element at a leaf makes it
+     * an internal position with two leaves, and p becomes its handle.
+     */
+    @Override
+    public Entry<K, V> set(Position<Entry<K, V>> p, Entry<K, V> e) {
+        Handle h = check(p);
+        int s = h.resolve();
+        if (s != NIL) {
+            Entry<K, V> old = h.getElement();
+            elements[s] = e;
+            return old;
+        }
+        if (e == null) return null;
+        h.slot = allocate(e, h.above);
+        relink(h.above, h.slot, h.onRight);
+        size += 2;
+        return null;
+    }
+
+    /**
+     * Removes p and puts its child in its place. A leaf is not stored, so
+     * removing one only updates the count; an internal position may be removed
+     * once at most one of its children is internal.
+     */
+    @Override
+    public Entry<K, V> remove(Position<Entry<K, V>> p) {
+        int s = check(p).resolve();
+        size--;
+        if (s == NIL) return null;
+        if (left[s] != NIL && right[s] != NIL) {
+            size++;
+            throw new IllegalArgumentException("Cant remove node with 2 children");
+        }
+        @SuppressWarnings("unchecked")
+        Entry<K, V> old = (Entry<K, V>) elements[s];
+        relink(parent[s], left[s] != NIL ? left[s] : right[s], isRightChild(s));
+        free(s);
+        return old;
+    }
+
+    @Override
+    public Position<Entry<K, V>> removeExternal(Position<Entry<K, V>> leaf) {
+        Handle h = check(leaf);
+        if (h.resolve() != NIL || h.above == NIL) throw new IllegalArgumentException("not a leaf below the root");
+        int s = h.above;
+        int above = parent[s];
+        boolean onRight = isRightChild(s);
+        int sibling = childOf(s, !h.onRight);
+        relink(above, sibling, onRight);
+        free(s);
+        size -= 2;
+        return handle(sibling, above, onRight);
+    }
+
+    @Override
+    public void rotate(Position<Entry<K, V>> p) {
+        int x = slotOf(p);
+        int y = parent[x];
+        int z = parent[y];
+        relink(z, x, z != NIL && right[z] == y);
+        if (x == left[y]) {
+            relink(y, right[x], false);
+            relink(x, y, true);
+        } else {
+            relink(y, left[x], true);
+            relink(x, y, false);
+        }
+    }
+
+    @Override
+    public Position<Entry<K, V>> restructure(Position<Entry<K, V>> p) {
+        int x = slotOf(p);
+        int y = parent[x];
+        int z = parent[y];
+        if ((right[y] == x) == (right[z] == y)) {
+            rotate(new Handle(y));      // single rotation
+            return new Handle(y);
+        } else {
+            rotate(p);                  // double rotation
+            rotate(p);
+            return new Handle(x);
+        }
+    }
+
+    /** Subtrees cannot be moved between the arrays of two trees. */
+    @Override
+    public boolean canRelink() {
+        return false;
+    }
+
+    @Override
+    public BalanceableBinaryTree<K, V> emptyTree() {
+        return new ArrayBalanceableBinaryTree<>();
+    }
+
+    // ---------------- searches ----------------
+
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> element(int s) {
+        return (Entry<K, V>) elements[s];
+    }
+
+    /**
+     * Returns the position of the least entry greater than key, searching the
+     * slots as LinkedBinaryTree searches its nodes, or null if there is none.
+     */
+    @Override
+    public Position<Entry<K, V>> inorderSuccessor(Entry<K, V> key) {
+        int s = rootSlot, succ = NIL;
+        while (s != NIL) {
+            int c = key.compareTo(element(s));
+            if (c == 0) {
+                if (right[s] != NIL) {
+                    succ = right[s];
+                    while (left[succ] != NIL) succ = left[succ];
+                }
+                break;
+            } else if (c < 0) {
+                succ = s;
+                s = left[s];
+            } else {
+                s = right[s];
+            }
+        }
+        return succ == NIL ? null : new Handle(succ);
+    }
+
+    /**
+     * Returns the position of the greatest entry less than key, searching the
+     * slots as LinkedBinaryTree searches its nodes, or null if there is none.
+     */
+    @Override
+    public Position<Entry<K, V>> inorderPredecessor(Entry<K, V> key) {
+        int s = rootSlot, pred = NIL;
+        while (s != NIL) {
+            int c = key.compareTo(element(s));
+            if (c == 0) {
+                if (left[s] != NIL) {
+                    pred = left[s];
+                    while (right[pred] != NIL) pred = right[pred];
+                }
+                break;
+            } else if (c < 0) {
+                s = left[s];
+            } else {
+                pred = s;
+                s = right[s];
+            }
+        }
+        return pred == NIL ? null : new Handle(pred);
+    }
+
+    // ---------------- node-based LinkedBinaryTree methods ----------------
+
+    @Override
+    public void setRoot(Position<Entry<K, V>> e) {
+        throw new UnsupportedOperationException("array-backed trees are built through addRoot and set");
+    }
+
+    @Override
+    public Position<Entry<K, V>> add(Entry<K, V> e, Position<Entry<K, V>> parent,
+                                     Position<Entry<K, V>> left, Position<Entry<K, V>> right) {
+        throw new UnsupportedOperationException("array-backed trees have no detached nodes");
+    }
+
+    @Override
+    public void construct(Entry<K, V>[] inorder, Entry<K, V>[] preorder) {
+        throw new UnsupportedOperationException("array-backed trees are built through addRoot and set");
+    }
+
+    @Override
+    public void createLevelOrder(ArrayList<Entry<K, V>> l) {
+        throw new UnsupportedOperationException("array-backed trees are built through addRoot and set");
+    }
+
+    @Override
+    public void createLevelOrder(Entry<K, V>[] arr) {
+        throw new UnsupportedOperationException("array-backed trees are built through addRoot and set");
+    }
+}
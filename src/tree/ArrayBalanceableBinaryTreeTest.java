@@ -0,0 +1,122 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+import interfaces.Entry;
+import interfaces.Position;
+import utils.MapEntry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArrayBalanceableBinaryTreeTest {
+
+    @Test
+    void testAVLShape() throws IOException {
+        TreeMapTest.assertSameShape(new AVLTreeMap<>(), new AVLTreeMap<>(new ArrayBalanceableBinaryTree<Integer, String>()));
+    }
+
+    @Test
+    void testRBShape() throws IOException {
+        TreeMapTest.assertSameShape(new RBTreeMap<>(), new RBTreeMap<>(new ArrayBalanceableBinaryTree<Integer, String>()));
+    }
+
+    /** Returns the black height of p's subtree, failing on a red-black violation. */
+    private int blackHeight(TreeMap<Integer, String> map, Position<Entry<Integer, String>> p) {
+        if(map.tree.isExternal(p)) {
+            assertEquals(0, map.tree.getAux(p));
+            return 0;
+        }
+        if(map.tree.getAux(p) == 1) {
+            assertFalse(map.tree.isRoot(p));
+            assertEquals(0, map.tree.getAux(map.tree.left(p)));
+            assertEquals(0, map.tree.getAux(map.tree.right(p)));
+        }
+        assertEquals(p, map.tree.parent(map.tree.left(p)));
+        assertEquals(p, map.tree.parent(map.tree.right(p)));
+        int a = blackHeight(map, map.tree.left(p));
+        assertEquals(a, blackHeight(map, map.tree.right(p)));
+        return a + 1 - map.tree.getAux(p);
+    }
+
+    @Test
+    void testRandomOperations() throws IOException {
+        RBTreeMap<Integer, String> map = new RBTreeMap<>(new ArrayBalanceableBinaryTree<Integer, String>(4));
+        AVLTreeMap<Integer, String> avl = new AVLTreeMap<>(new ArrayBalanceableBinaryTree<Integer, String>());
+        java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+        Random rnd = new Random(1);
+        for(int i = 0; i < 20000; ++i) {
+            int k = rnd.nextInt(2000);
+            if(rnd.nextInt(3) > 0) {
+                assertEquals(expected.put(k, "v" + i), map.put(k, "v" + i));
+                avl.put(k, "v" + i);
+            } else {
+                assertEquals(expected.remove(k), map.remove(k));
+                avl.remove(k);
+            }
+            if(i % 1000 == 0) blackHeight(map, map.root());
+        }
+        blackHeight(map, map.root());
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.keySet().toString(), map.tree.inorder().toString());
+        assertEquals(expected.keySet().toString(), avl.tree.inorder().toString());
+        for(int k = -1; k <= 2001; k += 3) {
+            assertEquals(expected.get(k), map.get(k));
+            Integer c = expected.ceilingKey(k), f = expected.floorKey(k);
+            assertEquals(c, map.ceilingEntry(k) == null ? null : map.ceilingEntry(k).getKey());
+            assertEquals(f, map.floorEntry(k) == null ? null : map.floorEntry(k).getKey());
+        }
+    }
+
+    @Test
+    void testEmptiedAndRefilled() throws IOException {
+        AVLTreeMap<Integer, String> map = new AVLTreeMap<>(new ArrayBalanceableBinaryTree<Integer, String>());
+        for(int round = 0; round < 3; ++round) {
+            for(int i = 0; i < 500; ++i) map.put(i, "v");
+            for(int i = 0; i < 500; ++i) assertEquals("v", map.remove(i));
+            assertTrue(map.isEmpty());
+            assertEquals(1, map.tree.size());
+            assertTrue(map.tree.isExternal(map.root()));
+            assertNull(map.firstEntry());
+        }
+    }
+
+    @Test
+    void testHandleEquality() throws IOException {
+        AVLTreeMap<Integer, String> map = new AVLTreeMap<>(new ArrayBalanceableBinaryTree<Integer, String>());
+        for(Integer i : TreeMapTest.KEYS) map.put(i, Integer.toString(i));
+        Position<Entry<Integer, String>> root = map.root();
+        Position<Entry<Integer, String>> leaf = map.tree.left(map.treeMin(root));
+        assertEquals(root, map.tree.parent(map.tree.left(root)));
+        assertEquals(root.hashCode(), map.tree.parent(map.tree.left(root)).hashCode());
+        assertEquals(leaf, map.tree.left(map.treeMin(root)));
+        assertNotEquals(leaf, map.tree.right(map.treeMin(root)));
+        assertNotEquals(root, leaf);
+    }
+
+    @Test
+    void testInorderNeighbours() throws IOException {
+        AVLTreeMap<Integer, String> map = new AVLTreeMap<>(new ArrayBalanceableBinaryTree<Integer, String>());
+        for(Integer i : TreeMapTest.KEYS) map.put(i, Integer.toString(i));
+        // keys in order: 1 2 4 5 12 15 21 23 24 26 33 35
+        assertEquals(5, map.tree.inorderSuccessor(new MapEntry<>(4, null)).getElement().getKey());
+        assertEquals(12, map.tree.inorderSuccessor(new MapEntry<>(5, null)).getElement().getKey());
+        assertEquals(15, map.tree.inorderSuccessor(new MapEntry<>(13, null)).getElement().getKey());
+        assertNull(map.tree.inorderSuccessor(new MapEntry<>(35, null)));
+        assertEquals(4, map.tree.inorderPredecessor(new MapEntry<>(5, null)).getElement().getKey());
+        assertEquals(33, map.tree.inorderPredecessor(new MapEntry<>(35, null)).getElement().getKey());
+        assertEquals(12, map.tree.inorderPredecessor(new MapEntry<>(13, null)).getElement().getKey());
+        assertNull(map.tree.inorderPredecessor(new MapEntry<>(1, null)));
+        assertNull(new ArrayBalanceableBinaryTree<Integer, String>().inorderSuccessor(new MapEntry<>(1, null)));
+    }
+
+    @Test
+    void testNodeMethodsRejected() {
+        ArrayBalanceableBinaryTree<Integer, String> tree = new ArrayBalanceableBinaryTree<>();
+        tree.addRoot(null);
+        assertThrows(UnsupportedOperationException.class, () -> tree.createLevelOrder(new ArrayList<>()));
+        assertThrows(UnsupportedOperationException.class, () -> tree.setRoot(tree.root()));
+    }
+}
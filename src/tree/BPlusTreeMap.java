@@ -0,0 +1,719 @@
+package tree;
+
+import interfaces.Entry;
+import utils.ByteCodec;
+import utils.MapEntry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.NoSuchElementException;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A sorted map stored on disk as a B+-tree of fixed-size pages.
+ * <p>
+ * Page 0 of the file is a header; every other page is a node. Internal nodes
+ * hold up to fanout separator keys and child page numbers, and leaves hold up
+ * to fanout entries, serialized with a ByteCodec. A node also splits when its
+ * serialized form would no longer fit in a page. Leaves are linked to their
+ * neighbours in both directions, so entrySet, subMap and the ceiling, floor,
+ * lower and higher searches scan neighbouring pages instead of walking back up
+ * the tree.
+ * <p>
+ * Pages are read and written through a FileChannel and kept in an LRU cache of
+ * decoded pages. Changed pages reach the file when they are evicted and on
+ * flush() or close(); the file is a consistent map after either of those.
+ * <p>
+ * Removal takes entries out of their leaf without merging underfull pages.
+ * Separators stay valid, empty leaves are skipped by scans, and their space is
+ * reused when keys in the same range are inserted again.
+ */
+public class BPlusTreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V> implements Closeable {
+
+    private static final int MAGIC = 0x42505431;      // "BPT1"
+    private static final long NONE = 0;               // page 0 is the header, never a node
+    private static final int NODE_HEADER = 1 + 4 + 8 + 8;
+
+    /** A decoded page; keys are kept both decoded and serialized. */
+    private final class Page {
+        final long id;
+        final boolean leaf;
+        final ArrayList<K> keys = new ArrayList<>();
+        final ArrayList<byte[]> rawKeys = new ArrayList<>();
+        final ArrayList<byte[]> rawValues = new ArrayList<>();    // leaves only
+        final ArrayList<Long> children = new ArrayList<>();       // internal nodes only
+        long prev = NONE, next = NONE;                            // leaf links
+        int bytes = NODE_HEADER;                                  // serialized size
+        boolean dirty;
+
+        Page(long id, boolean leaf) {
+            this.id = id;
+            this.leaf = leaf;
+            if (!leaf) bytes += 8;                                // leftmost child
+        }
+
+        boolean overflows() {
+            return keys.size() > fanout || bytes > pageSize;
+        }
+    }
+
+    private final FileChannel channel;
+    private final ByteCodec<K> keyCodec;
+    private final ByteCodec<V> valueCodec;
+    private final int pageSize;
+    private final int fanout;
+    private final int cachePages;
+    private final LinkedHashMap<Long, Page> cache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private long root;
+    private long pageCount;         // including the header page
+    private int n;
+    private int modCount = 0;
+    private long pageReads = 0;     // pages read from the file
+
+    /**
+     * Opens the B+-tree stored at the given path, or creates an empty one with
+     * 4 KB pages, fanout 128 and a 256-page cache.
+     */
+    public BPlusTreeMap(Path path, ByteCodec<K> keyCodec, ByteCodec<V> valueCodec) throws IOException {
+        this(path, keyCodec, valueCodec, 4096, 128, 256);
+    }
+
+    /**
+     * Opens the B+-tree stored at the given path, or creates an empty one. The
+     * page size and fanout of an existing file take precedence over the ones
+     * given here.
+     *
+     * @param path       the file holding the tree
+     * @param keyCodec   serializer for keys
+     * @param valueCodec serializer for values
+     * @param pageSize   bytes per page
+     * @param fanout     maximum number of keys per page
+     * @param cachePages number of decoded pages kept in memory
+     * @throws IOException if the file cannot be opened or is not a B+-tree
+     */
+    public BPlusTreeMap(Path path, ByteCodec<K> keyCodec, ByteCodec<V> valueCodec,
+                        int pageSize, int fanout, int cachePages) throws IOException {
+        if (fanout < 3) throw new IllegalArgumentException("fanout must be at least 3: " + fanout);
+        if (cachePages < 1) throw new IllegalArgumentException("cache must hold a page: " + cachePages);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.cachePages = cachePages;
+        channel = FileChannel.open(path, CREATE, READ, WRITE);
+        if (channel.size() == 0) {
+            this.pageSize = pageSize;
+            this.fanout = fanout;
+            pageCount = 1;
+            root = allocate(true).id;
+            writeHeader();
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(32);
+            readFully(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                channel.close();
+                throw new IOException("not a B+-tree: " + path);
+            }
+            this.pageSize = header.getInt(4);
+            this.fanout = header.getInt(8);
+            n = header.getInt(12);
+            root = header.getLong(16);
+            pageCount = header.getLong(24);
+        }
+    }
+
+    // ---------------- page I/O ----------------
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) break;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(32);
+        header.putInt(MAGIC).putInt(pageSize).putInt(fanout).putInt(n).putLong(root).putLong(pageCount);
+        writeFully(header, 0);
+    }
+
+    /** Returns the page with the given number, from the cache or the file. */
+    private Page read(long id) throws IOException {
+        Page page = cache.get(id);
+        if (page != null) return page;
+        ByteBuffer buffer = ByteBuffer.allocate(pageSize);
+        readFully(buffer, id * pageSize);
+        pageReads++;
+        page = new Page(id, buffer.get(0) == 1);
+        buffer.position(1);
+        int count = buffer.getInt();
+        page.prev = buffer.getLong();
+        page.next = buffer.getLong();
+        if (!page.leaf) page.children.add(buffer.getLong());
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[buffer.getInt()];
+            buffer.get(key);
+            page.keys.add(keyCodec.decode(key));
+            page.rawKeys.add(key);
+            if (page.leaf) {
+                byte[] value = new byte[buffer.getInt()];
+                buffer.get(value);
+                page.rawValues.add(value);
+                page.bytes += 8 + key.length + value.length;
+            } else {
+                page.children.add(buffer.getLong());
+                page.bytes += 12 + key.length;
+            }
+        }
+        cache.put(id, page);
+        return page;
+    }
+
+    private void write(Page page) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(pageSize);
+        buffer.put((byte) (page.leaf ? 1 : 2));
+        buffer.putInt(page.keys.size());
+        buffer.putLong(page.prev);
+        buffer.putLong(page.next);
+        if (!page.leaf) buffer.putLong(page.children.get(0));
+        for (int i = 0; i < page.keys.size(); i++) {
+            buffer.putInt(page.rawKeys.get(i).length).put(page.rawKeys.get(i));
+            if (page.leaf) {
+                buffer.putInt(page.rawValues.get(i).length).put(page.rawValues.get(i));
+            } else {
+                buffer.putLong(page.children.get(i + 1));
+            }
+        }
+        buffer.position(pageSize);                   // always write whole pages
+        writeFully(buffer, page.id * pageSize);
+        page.dirty = false;
+    }
+
+    private Page allocate(boolean leaf) {
+        Page page = new Page(pageCount++, leaf);
+        page.dirty = true;
+        cache.put(page.id, page);
+        return page;
+    }
+
+    /** Marks a page as changed, putting it back in the cache if it was evicted meanwhile. */
+    private void touch(Page page) {
+        page.dirty = true;
+        cache.put(page.id, page);
+    }
+
+    /**
+     * Trims the cache back to its capacity, writing out changed pages. Called
+     * at the end of each operation, so no page in use is ever evicted.
+     */
+    private void evict() throws IOException {
+        Iterator<Page> pages = cache.values().iterator();
+        while (cache.size() > cachePages) {
+            Page eldest = pages.next();
+            if (eldest.dirty) write(eldest);
+            pages.remove();
+        }
+    }
+
+    /**
+     * Writes every changed page and the header to the file and forces them to disk.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public void flush() throws IOException {
+        for (Page page : cache.values()) {
+            if (page.dirty) write(page);
+        }
+        writeHeader();
+        channel.force(true);
+    }
+
+    /** Flushes the tree and closes its file. */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) return;
+        flush();
+        cache.clear();
+        channel.close();
+    }
+
+    /** Returns the number of pages read from the file so far. */
+    long pageReads() {
+        return pageReads;
+    }
+
+    // ---------------- searching ----------------
+
+    /** Returns the index of the child of internal page p whose subtree may hold key. */
+    private int childIndex(Page p, K key) {
+        int lo = 0, hi = p.keys.size();              // first separator greater than key
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(key, p.keys.get(mid)) < 0) hi = mid;
+            else lo = mid + 1;
+        }
+        return lo;
+    }
+
+    /** Returns the index of the first key in leaf p not less than key (or greater, if strict). */
+    private int lowerBound(Page p, K key, boolean strict) {
+        int lo = 0, hi = p.keys.size();
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int c = compare(p.keys.get(mid), key);
+            if (c < 0 || (strict && c == 0)) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Returns the leaf whose key range covers key. */
+    private Page findLeaf(K key) throws IOException {
+        Page p = read(root);
+        while (!p.leaf) {
+            p = read(p.children.get(childIndex(p, key)));
+        }
+        return p;
+    }
+
+    private Entry<K, V> entryAt(Page leaf, int i) {
+        return new MapEntry<>(leaf.keys.get(i), valueCodec.decode(leaf.rawValues.get(i)));
+    }
+
+    /** Returns the first entry at or after index i of leaf p, following next links. */
+    private Entry<K, V> scanForward(Page p, int i) throws IOException {
+        while (i >= p.keys.size()) {
+            if (p.next == NONE) return null;
+            p = read(p.next);
+            i = 0;
+        }
+        return entryAt(p, i);
+    }
+
+    /** Returns the last entry at or before index i of leaf p, following prev links. */
+    private Entry<K, V> scanBackward(Page p, int i) throws IOException {
+        while (i < 0) {
+            if (p.prev == NONE) return null;
+            p = read(p.prev);
+            i = p.keys.size() - 1;
+        }
+        return entryAt(p, i);
+    }
+
+    // ---------------- map methods ----------------
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     * @throws IOException if a page cannot be read
+     */
+    @Override
+    public V get(K key) throws IOException {
+        Page leaf = findLeaf(key);
+        int i = lowerBound(leaf, key, false);
+        V answer = (i < leaf.keys.size() && compare(leaf.keys.get(i), key) == 0)
+                ? valueCodec.decode(leaf.rawValues.get(i)) : null;
+        evict();
+        return answer;
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     * @throws IOException if a page cannot be read or written
+     */
+    @Override
+    public V put(K key, V value) throws IOException {
+        byte[] rawKey = keyCodec.encode(key);
+        byte[] rawValue = valueCodec.encode(value);
+        if (8 + rawKey.length + rawValue.length > (pageSize - NODE_HEADER - 8) / 4) {
+            throw new IllegalArgumentException("entry too large for " + pageSize + "-byte pages");
+        }
+        ArrayList<Page> path = new ArrayList<>();
+        Page p = read(root);
+        while (!p.leaf) {
+            path.add(p);
+            p = read(p.children.get(childIndex(p, key)));
+        }
+        int i = lowerBound(p, key, false);
+        V answer = null;
+        if (i < p.keys.size() && compare(p.keys.get(i), key) == 0) {
+            byte[] old = p.rawValues.set(i, rawValue);
+            p.bytes += rawValue.length - old.length;
+            answer = valueCodec.decode(old);
+        } else {
+            p.keys.add(i, key);
+            p.rawKeys.add(i, rawKey);
+            p.rawValues.add(i, rawValue);
+            p.bytes += 8 + rawKey.length + rawValue.length;
+            n++;
+            modCount++;
+        }
+        touch(p);
+        while (p.overflows()) {
+            p = split(p, path.isEmpty() ? null : path.remove(path.size() - 1));
+        }
+        evict();
+        return answer;
+    }
+
+    /** Returns the number of bytes the i-th key (and value, in a leaf) of p takes in its page. */
+    private int entryBytes(Page p, int i) {
+        return p.leaf ? 8 + p.rawKeys.get(i).length + p.rawValues.get(i).length : 12 + p.rawKeys.get(i).length;
+    }
+
+    /**
+     * Returns the index at which to split p: the halves get about the same
+     * number of bytes, not of keys, so that with entries of mixed sizes each
+     * fits in a page. As no entry takes more than a quarter of a page, neither
+     * half can overflow.
+     */
+    private int splitPoint(Page p) {
+        int half = (p.bytes - NODE_HEADER - (p.leaf ? 0 : 8)) / 2;
+        int mid = 0, bytes = 0;
+        while (mid < p.keys.size() - 1 && bytes + entryBytes(p, mid) <= half) bytes += entryBytes(p, mid++);
+        return Math.max(mid, 1);
+    }
+
+    /**
+     * Splits overflowing page p in two, adding the separator to its parent (or
+     * a new root, if parent is null), and returns the parent.
+     */
+    private Page split(Page p, Page parent) throws IOException {
+        Page right = allocate(p.leaf);
+        int mid = splitPoint(p);
+        K separator = p.keys.get(mid);
+        byte[] rawSeparator = p.rawKeys.get(mid);
+        int from = p.leaf ? mid : mid + 1;           // internal separators move up, not right
+        for (int i = from; i < p.keys.size(); i++) {
+            right.keys.add(p.keys.get(i));
+            right.rawKeys.add(p.rawKeys.get(i));
+            if (p.leaf) right.rawValues.add(p.rawValues.get(i));
+            right.bytes += entryBytes(p, i);
+        }
+        if (p.leaf) {
+            p.rawValues.subList(mid, p.rawValues.size()).clear();
+            right.next = p.next;
+            right.prev = p.id;
+            if (p.next != NONE) {
+                Page after = read(p.next);
+                after.prev = right.id;
+                touch(after);
+            }
+            p.next = right.id;
+        } else {
+            right.children.addAll(p.children.subList(mid + 1, p.children.size()));
+            p.children.subList(mid + 1, p.children.size()).clear();
+        }
+        p.keys.subList(mid, p.keys.size()).clear();
+        p.rawKeys.subList(mid, p.rawKeys.size()).clear();
+        p.bytes = NODE_HEADER + (p.leaf ? 0 : 8);
+        for (int i = 0; i < p.keys.size(); i++) p.bytes += entryBytes(p, i);
+        touch(p);
+
+        if (parent == null) {                        // the root split: grow a level
+            parent = allocate(false);
+            parent.children.add(p.id);
+            root = parent.id;
+        }
+        int j = parent.children.indexOf(p.id);
+        parent.keys.add(j, separator);
+        parent.rawKeys.add(j, rawSeparator);
+        parent.children.add(j + 1, right.id);
+        parent.bytes += 12 + rawSeparator.length;
+        touch(parent);
+        return parent;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     * @throws IOException if a page cannot be read or written
+     */
+    @Override
+    public V remove(K key) throws IOException {
+        Page leaf = findLeaf(key);
+        int i = lowerBound(leaf, key, false);
+        V answer = null;
+        if (i < leaf.keys.size() && compare(leaf.keys.get(i), key) == 0) {
+            byte[] rawValue = leaf.rawValues.remove(i);
+            byte[] rawKey = leaf.rawKeys.remove(i);
+            leaf.keys.remove(i);
+            leaf.bytes -= 8 + rawKey.length + rawValue.length;
+            answer = valueCodec.decode(rawValue);
+            touch(leaf);
+            n--;
+            modCount++;
+        }
+        evict();
+        return answer;
+    }
+
+    // ---------------- sorted map methods ----------------
+
+    /** Returns the leftmost (or rightmost) leaf. */
+    private Page edgeLeaf(boolean rightmost) throws IOException {
+        Page p = read(root);
+        while (!p.leaf) {
+            p = read(p.children.get(rightmost ? p.children.size() - 1 : 0));
+        }
+        return p;
+    }
+
+    /**
+     * Returns the entry having the least key (or null if map is empty).
+     *
+     * @return entry with least key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> firstEntry() {
+        try {
+            Entry<K, V> answer = scanForward(edgeLeaf(false), 0);
+            evict();
+            return answer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the entry having the greatest key (or null if map is empty).
+     *
+     * @return entry with greatest key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> lastEntry() {
+        try {
+            Page leaf = edgeLeaf(true);
+            Entry<K, V> answer = scanBackward(leaf, leaf.keys.size() - 1);
+            evict();
+            return answer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Returns the least entry with key above (or, unless strict, equal to) key. */
+    private Entry<K, V> above(K key, boolean strict) {
+        try {
+            Page leaf = findLeaf(key);
+            Entry<K, V> answer = scanForward(leaf, lowerBound(leaf, key, strict));
+            evict();
+            return answer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Returns the greatest entry with key below (or, unless strict, equal to) key. */
+    private Entry<K, V> below(K key, boolean strict) {
+        try {
+            Page leaf = findLeaf(key);
+            Entry<K, V> answer = scanBackward(leaf, lowerBound(leaf, key, !strict) - 1);
+            evict();
+            return answer;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with least key greater than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> ceilingEntry(K key) throws IllegalArgumentException {
+        return above(key, false);
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with least key strictly greater than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> higherEntry(K key) throws IllegalArgumentException {
+        return above(key, true);
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with greatest key less than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> floorEntry(K key) throws IllegalArgumentException {
+        return below(key, false);
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with greatest key strictly less than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> lowerEntry(K key) throws IllegalArgumentException {
+        return below(key, true);
+    }
+
+    /**
+     * Returns an iterable containing all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive, found by a
+     * scan along the linked leaves.
+     *
+     * @return iterable with keys in desired range
+     */
+    @Override
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) throws IllegalArgumentException {
+        ArrayList<Entry<K, V>> buffer = new ArrayList<>();
+        try {
+            Page p = findLeaf(fromKey);
+            int i = lowerBound(p, fromKey, false);
+            while (true) {
+                if (i == p.keys.size()) {
+                    if (p.next == NONE) break;
+                    p = read(p.next);
+                    i = 0;
+                    continue;
+                }
+                if (compare(p.keys.get(i), toKey) >= 0) break;
+                buffer.add(entryAt(p, i++));
+            }
+            evict();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer;
+    }
+
+    // ---------------- nested EntryIterator class ----------------
+    /*
+     * Walks the linked leaves from the leftmost one, reading at most one page
+     * at a time. Fails fast if entries are added or removed meanwhile.
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private final int expectedModCount = modCount;
+        private Page leaf;
+        private int index = 0;
+
+        EntryIterator() {
+            try {
+                leaf = edgeLeaf(false);
+                advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /** Moves past exhausted (or empty) leaves. */
+        private void advance() throws IOException {
+            while (leaf != null && index == leaf.keys.size()) {
+                leaf = (leaf.next == NONE) ? null : read(leaf.next);
+                index = 0;
+            }
+            evict();
+        }
+
+        public boolean hasNext() {
+            return leaf != null;
+        }
+
+        public Entry<K, V> next() {
+            if (modCount != expectedModCount) throw new ConcurrentModificationException();
+            if (leaf == null) throw new NoSuchElementException();
+            Entry<K, V> answer = entryAt(leaf, index++);
+            try {
+                advance();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return answer;
+        }
+    } // ----------- end of nested EntryIterator class -----------
+
+    // ---------------- nested EntryIterable class ----------------
+    private class EntryIterable implements Iterable<Entry<K, V>> {
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+    } // ----------- end of nested EntryIterable class -----------
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map, in
+     * key order, read lazily one leaf page at a time.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return new EntryIterable();
+    }
+
+    /** Returns the number of entries divided by the leaf capacity of the pages in use. */
+    @Override
+    public double loadFactor() {
+        return (double) n / ((double) (pageCount - 1) * fanout);
+    }
+
+    @Override
+    public int numCollisions() {
+        return 0;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Entry<K, V> entry : entrySet()) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(entry);
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,162 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import interfaces.Entry;
+import utils.ByteCodec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BPlusTreeMapTest {
+
+	@TempDir
+	Path dir;
+
+	/** Small pages and a tiny cache, so that every operation splits and evicts pages. */
+	private BPlusTreeMap<Integer, String> open() throws IOException {
+		return new BPlusTreeMap<>(dir.resolve("tree"), ByteCodec.INTEGER, ByteCodec.STRING, 512, 8, 4);
+	}
+
+	private void churn(BPlusTreeMap<Integer, String> map, java.util.TreeMap<Integer, String> expected, int ops, long seed) throws IOException {
+		Random rnd = new Random(seed);
+		for(int i = 0; i < ops; ++i) {
+			int k = rnd.nextInt(5000);
+			if(rnd.nextInt(3) > 0) {
+				assertEquals(expected.put(k, "v" + i), map.put(k, "v" + i));
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+		}
+	}
+
+	private static String key(Entry<Integer, String> e) {
+		return e == null ? null : e.getKey() + "=" + e.getValue();
+	}
+
+	private static String key(java.util.Map.Entry<Integer, String> e) {
+		return e == null ? null : e.getKey() + "=" + e.getValue();
+	}
+
+	private void assertSameMap(java.util.TreeMap<Integer, String> expected, BPlusTreeMap<Integer, String> map) throws IOException {
+		assertEquals(expected.size(), map.size());
+		StringBuilder a = new StringBuilder(), b = new StringBuilder();
+		expected.forEach((k, v) -> a.append(k).append('=').append(v).append(' '));
+		map.forEach((k, v) -> b.append(k).append('=').append(v).append(' '));
+		assertEquals(a.toString(), b.toString());
+		for(int k = -1; k <= 5001; k += 7) {
+			assertEquals(expected.get(k), map.get(k));
+			assertEquals(key(expected.ceilingEntry(k)), key(map.ceilingEntry(k)));
+			assertEquals(key(expected.floorEntry(k)), key(map.floorEntry(k)));
+			assertEquals(key(expected.higherEntry(k)), key(map.higherEntry(k)));
+			assertEquals(key(expected.lowerEntry(k)), key(map.lowerEntry(k)));
+		}
+		assertEquals(key(expected.firstEntry()), key(map.firstEntry()));
+		assertEquals(key(expected.lastEntry()), key(map.lastEntry()));
+	}
+
+	@Test
+	void testAgainstTreeMap() throws IOException {
+		java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+		try(BPlusTreeMap<Integer, String> map = open()) {
+			churn(map, expected, 20000, 1);
+			assertSameMap(expected, map);
+
+			StringBuilder a = new StringBuilder(), b = new StringBuilder();
+			expected.subMap(1000, 1200).forEach((k, v) -> a.append(k).append(' '));
+			for(Entry<Integer, String> e : map.subMap(1000, 1200)) b.append(e.getKey()).append(' ');
+			assertEquals(a.toString(), b.toString());
+		}
+	}
+
+	@Test
+	void testEmptyLeaves() throws IOException {
+		java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+		try(BPlusTreeMap<Integer, String> map = open()) {
+			for(int k = 0; k < 2000; ++k) map.put(k, "v");
+			for(int k = 100; k < 1900; ++k) map.remove(k);   // empties most leaves
+			for(int k = 0; k < 100; ++k) expected.put(k, "v");
+			for(int k = 1900; k < 2000; ++k) expected.put(k, "v");
+			assertSameMap(expected, map);
+			assertEquals(1900, map.ceilingEntry(100).getKey());
+			assertEquals(99, map.floorEntry(1899).getKey());
+			assertFalse(map.subMap(100, 1900).iterator().hasNext());
+		}
+		try(BPlusTreeMap<Integer, String> map = open()) {
+			map.remove(0);
+			map.remove(1999);
+			for(int k = 1; k < 100; ++k) map.remove(k);
+			for(int k = 1900; k < 1999; ++k) map.remove(k);
+			assertEquals(0, map.size());
+			assertNull(map.firstEntry());
+			assertNull(map.lastEntry());
+			assertTrue(map.isEmpty());
+		}
+	}
+
+	@Test
+	void testReopen() throws IOException {
+		java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+		try(BPlusTreeMap<Integer, String> map = open()) {
+			churn(map, expected, 10000, 2);
+		}
+		try(BPlusTreeMap<Integer, String> map = new BPlusTreeMap<>(dir.resolve("tree"), ByteCodec.INTEGER, ByteCodec.STRING)) {
+			assertSameMap(expected, map);                 // page size and fanout come from the file
+			churn(map, expected, 5000, 3);
+			assertSameMap(expected, map);
+		}
+	}
+
+	@Test
+	void testSequentialScan() throws IOException {
+		try(BPlusTreeMap<Integer, String> map = open()) {
+			for(int k = 0; k < 10000; ++k) map.put(k, "v" + k);
+			long before = map.pageReads();
+			int count = 0;
+			for(Entry<Integer, String> e : map.subMap(2000, 8000)) {
+				assertEquals(2000 + count++, e.getKey());
+			}
+			assertEquals(6000, count);
+			// one descent plus one read per leaf, at fanout 8 roughly 6000 / 4 leaves
+			assertTrue(map.pageReads() - before < 6000 / 3, "pages read: " + (map.pageReads() - before));
+		}
+	}
+
+	@Test
+	void testRejectsOversizedEntry() throws IOException {
+		try(BPlusTreeMap<Integer, String> map = open()) {
+			assertThrows(IllegalArgumentException.class, () -> map.put(1, "x".repeat(1000)));
+			assertEquals(0, map.size());
+		}
+	}
+
+	@Test
+	void testMixedEntrySizes() throws IOException {
+		String large = "x".repeat(1000);
+		java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+		try(BPlusTreeMap<Integer, String> map = new BPlusTreeMap<>(dir.resolve("mixed"), ByteCodec.INTEGER, ByteCodec.STRING, 4096, 128, 8)) {
+			for(int k = 1000; k <= 1002; ++k) expected.put(k, large);
+			for(int k = 0; k < 78; ++k) expected.put(k, "s");
+			expected.put(1003, large);              // splits a leaf of 78 small and 3 large entries
+			for(java.util.Map.Entry<Integer, String> e : expected.entrySet()) map.put(e.getKey(), e.getValue());
+			Random rnd = new Random(4);
+			for(int i = 0; i < 3000; ++i) {
+				int k = rnd.nextInt(2000);
+				String v = rnd.nextInt(10) == 0 ? large : "v" + i;
+				assertEquals(expected.put(k, v), map.put(k, v));
+			}
+			map.flush();
+			assertSameMap(expected, map);
+		}
+		try(BPlusTreeMap<Integer, String> map = new BPlusTreeMap<>(dir.resolve("mixed"), ByteCodec.INTEGER, ByteCodec.STRING)) {
+			assertSameMap(expected, map);
+		}
+	}
+}
@@ -4,6 +4,8 @@ import interfaces.Entry;
 import interfaces.Position;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
 
 public class BalanceableBinaryTree<K, V> extends LinkedBinaryTree<Entry<K, V>> {
 
@@ -16,6 +18,26 @@ public class BalanceableBinaryTree<K, V> extends LinkedBinaryTree<Entry<K, V>> {
         ((BSTNode<Entry<K, V>>) validate(p)).setAux(value);
     }
 
+    /**
+     * Returns the number of entries (positions with an element) in the subtree
+     * rooted at p. This version counts them, in time linear in the size of the
+     * subtree; an OrderStatisticBinaryTree keeps the counts in its nodes.
+     */
+    public int subtreeSize(Position<Entry<K, V>> p) {
+        int count = 0;
+        Deque<Position<Entry<K, V>>> stack = new ArrayDeque<>();
+        if (p != null) stack.push(p);
+        while (!stack.isEmpty()) {
+            Position<Entry<K, V>> q = stack.pop();
+            if (q.getElement() == null) continue;
+            count++;
+            Position<Entry<K, V>> c;
+            if ((c = left(q)) != null) stack.push(c);
+            if ((c = right(q)) != null) stack.push(c);
+        }
+        return count;
+    }
+
     // Override node factory function to produce a BSTNode (rather than a Node)
     @Override
     protected Node<Entry<K, V>> createNode(Entry<K, V> e, Node<Entry<K, V>> parent, Node<Entry<K, V>> left, Node<Entry<K, V>> right) {
@@ -36,6 +58,59 @@ public class BalanceableBinaryTree<K, V> extends LinkedBinaryTree<Entry<K, V>> {
         }
     }
 
+    /**
+     * Removes external position leaf together with its parent, whose place is
+     * taken by leaf's sibling, and returns the position of that sibling.
+     */
+    public Position<Entry<K, V>> removeExternal(Position<Entry<K, V>> leaf) {
+        Position<Entry<K, V>> sib = sibling(leaf);
+        Position<Entry<K, V>> above = parent(leaf);
+        remove(leaf);
+        remove(above);
+        return sib;
+    }
+
+    // ---------------- relinking whole subtrees ----------------
+    /*
+     * Split and join (see TreeMap) take subtrees apart at their roots and put
+     * them back together, possibly moving nodes between two trees of the same
+     * kind. While they work, the subtrees they hold are detached: parent links
+     * are only set again by link(), and the size only by install().
+     */
+
+    /** Returns whether this tree supports newLeaf(), link() and install(). */
+    public boolean canRelink() {
+        return true;
+    }
+
+    /** Returns a new empty tree of the same kind as this one, with no root yet. */
+    public BalanceableBinaryTree<K, V> emptyTree() {
+        return new BalanceableBinaryTree<>();
+    }
+
+    /** Creates a detached sentinel leaf. */
+    public Position<Entry<K, V>> newLeaf() {
+        return createNode(null, null, null, null);
+    }
+
+    /**
+     * Makes the detached subtrees rooted at left and right the children of
+     * mid, in place of its current ones, and returns mid.
+     */
+    public Position<Entry<K, V>> link(Position<Entry<K, V>> mid, Position<Entry<K, V>> left, Position<Entry<K, V>> right) {
+        Node<Entry<K, V>> m = validate(mid);
+        relink(m, validate(left), true);
+        relink(m, validate(right), false);
+        return m;
+    }
+
+    /** Makes the detached subtree at p, holding the given number of entries, the whole tree. */
+    public void install(Position<Entry<K, V>> p, int entries) {
+        root = validate(p);
+        root.setParent(null);
+        size = 2 * entries + 1;
+    }
+
     /**
      * Rotates Position p above its parent. Switches between these configurations,
      * depending on whether p is a or p is b.
@@ -139,4 +214,4 @@ public class BalanceableBinaryTree<K, V> extends LinkedBinaryTree<Entry<K, V>> {
             return s;
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,489 @@
+package tree;
+
+import interfaces.Entry;
+import utils.MapEntry;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicMarkableReference;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe sorted map implemented as a lock-free skip list, after the
+ * LockFreeSkipList of Herlihy and Shavit.
+ * <p>
+ * Every node sits in the bottom list and, with probability 1/2 per level, in
+ * the lists above it, which act as express lanes for searches. Each level is
+ * a Harris linked list: a node's next references are AtomicMarkableReferences
+ * whose mark flags the node as deleted, so that no node can be linked behind
+ * it, and nodes are only ever linked or unlinked by compareAndSet.
+ * <p>
+ * A node's value is replaced by compareAndSet as well. Removing an entry sets
+ * its value to null, which is the moment the entry leaves the map; the node
+ * is then marked on every level and unlinked by the next search that passes
+ * it, whichever thread runs it. Readers never write: get and the ceiling,
+ * floor, lower and higher searches step over deleted nodes without helping.
+ * <p>
+ * Entries returned by the searches and iterators are snapshots of the key and
+ * value at the time they were read. Iterators are weakly consistent: they
+ * never throw ConcurrentModificationException and see every entry that stays
+ * in the map while they run, and may or may not see concurrent changes.
+ * Null values are not supported.
+ */
+public class ConcurrentSkipListSortedMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V> {
+
+    private static final int MAX_LEVEL = 32;
+
+    /** A skip list node; the head node has a null key and no value. */
+    private static final class Node<K, V> {
+        final K key;
+        final AtomicReference<V> value;
+        final AtomicMarkableReference<Node<K, V>>[] next;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Node(K key, V value, int height) {
+            this.key = key;
+            this.value = new AtomicReference<>(value);
+            next = (AtomicMarkableReference<Node<K, V>>[]) new AtomicMarkableReference[height];
+            for (int level = 0; level < height; level++) next[level] = new AtomicMarkableReference<>(null, false);
+        }
+
+        int topLevel() {
+            return next.length - 1;
+        }
+    }
+
+    private final Node<K, V> head = new Node<>(null, null, MAX_LEVEL);
+    private final LongAdder count = new LongAdder();
+    private final AtomicInteger height = new AtomicInteger(1);  // no node is taller; searches start there
+
+    /**
+     * Constructs an empty map using the natural ordering of keys.
+     */
+    public ConcurrentSkipListSortedMap() {
+        super();
+    }
+
+    /**
+     * Constructs an empty map using the given comparator to order keys.
+     *
+     * @param comp comparator defining the order of keys in the map
+     */
+    public ConcurrentSkipListSortedMap(Comparator<K> comp) {
+        super(comp);
+    }
+
+    /** Returns a random height, each level above the first taken with probability 1/2. */
+    private static int randomHeight() {
+        int bits = ThreadLocalRandom.current().nextInt();
+        return Math.min(Integer.numberOfTrailingZeros(~bits) + 1, MAX_LEVEL);
+    }
+
+    /** Marks every level of a node whose value has been removed, top level first. */
+    private static <K, V> void markAll(Node<K, V> node) {
+        for (int level = node.topLevel(); level >= 0; level--) {
+            boolean[] marked = {false};
+            Node<K, V> succ = node.next[level].get(marked);
+            while (!marked[0]) {
+                node.next[level].compareAndSet(succ, succ, false, true);
+                succ = node.next[level].get(marked);
+            }
+        }
+    }
+
+    /**
+     * Fills in, for every level, the last node with key less than key and the
+     * node after it, unlinking the marked nodes met on the way, and returns
+     * true if the bottom-level successor has the given key. Nodes whose value
+     * was removed but which are not marked yet are marked first, so a search
+     * never waits for a stalled remover.
+     */
+    private boolean find(K key, Node<K, V>[] preds, Node<K, V>[] succs) {
+        boolean[] marked = {false};
+        retry:
+        while (true) {
+            Node<K, V> pred = head;
+            Node<K, V> curr = null;
+            for (int level = height.get() - 1; level >= 0; level--) {
+                curr = pred.next[level].getReference();
+                while (curr != null) {
+                    Node<K, V> succ = curr.next[level].get(marked);
+                    if (!marked[0] && curr.value.get() == null) {
+                        markAll(curr);                          // help a remover
+                        succ = curr.next[level].get(marked);
+                    }
+                    if (marked[0]) {
+                        if (!pred.next[level].compareAndSet(curr, succ, false, false)) continue retry;
+                        curr = succ;
+                    } else if (compare(curr.key, key) < 0) {
+                        pred = curr;
+                        curr = succ;
+                    } else {
+                        break;
+                    }
+                }
+                preds[level] = pred;
+                succs[level] = curr;
+            }
+            return curr != null && compare(curr.key, key) == 0;
+        }
+    }
+
+    /**
+     * Returns the first node with key greater than (or, if inclusive, equal
+     * to) key, or null if there is none; deleted nodes may be returned. Only
+     * reads the list, stepping over marked nodes.
+     */
+    private Node<K, V> successor(K key, boolean inclusive) {
+        boolean[] marked = {false};
+        Node<K, V> pred = head;
+        Node<K, V> curr = null;
+        for (int level = height.get() - 1; level >= 0; level--) {
+            curr = pred.next[level].getReference();
+            while (curr != null) {
+                Node<K, V> succ = curr.next[level].get(marked);
+                if (marked[0]) {
+                    curr = succ;
+                    continue;
+                }
+                int c = compare(curr.key, key);
+                if (c > 0 || (c == 0 && inclusive)) break;
+                pred = curr;
+                curr = succ;
+            }
+        }
+        return curr;
+    }
+
+    /**
+     * Returns the last node with key less than (or, if inclusive, equal to)
+     * key, or the head if there is none; a null key stands for a key greater
+     * than all others. Deleted nodes may be returned.
+     */
+    private Node<K, V> predecessor(K key, boolean inclusive) {
+        boolean[] marked = {false};
+        Node<K, V> pred = head;
+        for (int level = height.get() - 1; level >= 0; level--) {
+            Node<K, V> curr = pred.next[level].getReference();
+            while (curr != null) {
+                Node<K, V> succ = curr.next[level].get(marked);
+                if (marked[0]) {
+                    curr = succ;
+                    continue;
+                }
+                if (key != null) {
+                    int c = compare(curr.key, key);
+                    if (c > 0 || (c == 0 && !inclusive)) break;
+                }
+                pred = curr;
+                curr = succ;
+            }
+        }
+        return pred;
+    }
+
+    /** Returns a snapshot of the node's entry, or null if it has been removed. */
+    private Entry<K, V> snapshot(Node<K, V> node) {
+        V v = node.value.get();
+        return v == null ? null : new MapEntry<>(node.key, v);
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return count.intValue();
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> node = successor(key, true);
+        return node != null && compare(node.key, key) == 0 ? node.value.get() : null;
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     * @throws IllegalArgumentException if value is null
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public V put(K key, V value) {
+        if (value == null) throw new IllegalArgumentException("null values are not supported");
+        Node<K, V>[] preds = (Node<K, V>[]) new Node[MAX_LEVEL];
+        Node<K, V>[] succs = (Node<K, V>[]) new Node[MAX_LEVEL];
+        int nodeHeight = randomHeight();
+        if (nodeHeight > height.get()) height.accumulateAndGet(nodeHeight, Math::max);  // before find() fills preds
+        while (true) {
+            if (find(key, preds, succs)) {
+                Node<K, V> node = succs[0];
+                V old = node.value.get();
+                if (old != null && node.value.compareAndSet(old, value)) return old;
+                continue;                                       // lost to a writer or remover
+            }
+            Node<K, V> node = new Node<>(key, value, nodeHeight);
+            for (int level = 0; level <= node.topLevel(); level++) node.next[level].set(succs[level], false);
+            if (!preds[0].next[0].compareAndSet(succs[0], node, false, false)) continue;
+            count.increment();                                  // the entry is in the map now
+            for (int level = 1; level <= node.topLevel(); level++) {
+                while (true) {
+                    boolean[] marked = {false};
+                    Node<K, V> next = node.next[level].get(marked);
+                    if (marked[0]) return null;                 // already being removed
+                    if (next != succs[level] && !node.next[level].compareAndSet(next, succs[level], false, false)) continue;
+                    if (preds[level].next[level].compareAndSet(succs[level], node, false, false)) break;
+                    if (!find(key, preds, succs) || succs[0] != node) return null;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public V remove(K key) {
+        Node<K, V>[] preds = (Node<K, V>[]) new Node[MAX_LEVEL];
+        Node<K, V>[] succs = (Node<K, V>[]) new Node[MAX_LEVEL];
+        while (true) {
+            if (!find(key, preds, succs)) return null;
+            Node<K, V> node = succs[0];
+            V old = node.value.get();
+            if (old == null) continue;                          // find() will finish that removal
+            if (node.value.compareAndSet(old, null)) {
+                count.decrement();
+                markAll(node);
+                find(key, preds, succs);                        // unlinks the node
+                return old;
+            }
+        }
+    }
+
+    /** Returns the first live entry at or after node, or null. */
+    private Entry<K, V> firstFrom(Node<K, V> node) {
+        for (; node != null; node = node.next[0].getReference()) {
+            Entry<K, V> e = snapshot(node);
+            if (e != null) return e;
+        }
+        return null;
+    }
+
+    /** Returns the last live entry with key below (or, if inclusive, equal to) key. */
+    private Entry<K, V> lastBefore(K key, boolean inclusive) {
+        while (true) {
+            Node<K, V> node = predecessor(key, inclusive);
+            if (node == head) return null;
+            Entry<K, V> e = snapshot(node);
+            if (e != null) return e;
+            key = node.key;                                     // removed meanwhile: look further left
+            inclusive = false;
+        }
+    }
+
+    /**
+     * Returns the entry having the least key (or null if map is empty).
+     *
+     * @return entry with least key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> firstEntry() {
+        return firstFrom(head.next[0].getReference());
+    }
+
+    /**
+     * Returns the entry having the greatest key (or null if map is empty).
+     *
+     * @return entry with greatest key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> lastEntry() {
+        return lastBefore(null, true);
+    }
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with least key greater than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> ceilingEntry(K key) throws IllegalArgumentException {
+        return firstFrom(successor(key, true));
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with least key strictly greater than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> higherEntry(K key) throws IllegalArgumentException {
+        return firstFrom(successor(key, false));
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with greatest key less than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> floorEntry(K key) throws IllegalArgumentException {
+        return lastBefore(key, true);
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with greatest key strictly less than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> lowerEntry(K key) throws IllegalArgumentException {
+        return lastBefore(key, false);
+    }
+
+    // ---------------- nested EntryIterator class ----------------
+    /*
+     * Walks the bottom level from a starting node up to (excluding) toKey, or
+     * to the end if toKey is null, skipping removed entries. Looks one live
+     * entry ahead so that hasNext() is accurate.
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private final K toKey;
+        private Node<K, V> node;
+        private Entry<K, V> nextEntry;
+
+        EntryIterator(Node<K, V> start, K toKey) {
+            this.toKey = toKey;
+            node = start;
+            advance();
+        }
+
+        private void advance() {
+            nextEntry = null;
+            for (; node != null; node = node.next[0].getReference()) {
+                if (toKey != null && compare(node.key, toKey) >= 0) {
+                    node = null;
+                    break;
+                }
+                Entry<K, V> e = snapshot(node);
+                if (e != null) {
+                    nextEntry = e;
+                    node = node.next[0].getReference();
+                    break;
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return nextEntry != null;
+        }
+
+        public Entry<K, V> next() {
+            if (nextEntry == null) throw new NoSuchElementException();
+            Entry<K, V> answer = nextEntry;
+            advance();
+            return answer;
+        }
+    } // ----------- end of nested EntryIterator class -----------
+
+    // ---------------- nested EntryIterable class ----------------
+    private class EntryIterable implements Iterable<Entry<K, V>> {
+        private final K fromKey, toKey;                         // a null fromKey starts at the first entry
+
+        EntryIterable(K fromKey, K toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        public Iterator<Entry<K, V>> iterator() {
+            Node<K, V> start = fromKey == null ? head.next[0].getReference() : successor(fromKey, true);
+            return new EntryIterator(start, toKey);
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Entry<K, V> entry : this) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(entry.getKey());
+            }
+            return sb.append("]").toString();
+        }
+    } // ----------- end of nested EntryIterable class -----------
+
+    /**
+     * Returns an iterable containing all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive, read lazily
+     * along the bottom level of the list.
+     *
+     * @return iterable with keys in desired range
+     */
+    @Override
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) throws IllegalArgumentException {
+        if (compare(fromKey, toKey) >= 0) return new EntryIterable(toKey, toKey);      // an empty range
+        return new EntryIterable(fromKey, toKey);
+    }
+
+    /**
+     * Returns a weakly consistent iterable collection of all key-value entries
+     * of the map, in key order.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return new EntryIterable(null, null);
+    }
+
+    @Override
+    public double loadFactor() {
+        return 0;
+    }
+
+    @Override
+    public int numCollisions() {
+        return 0;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Entry<K, V> entry : entrySet()) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(entry);
+        }
+        return sb.append("]").toString();
+    }
+}
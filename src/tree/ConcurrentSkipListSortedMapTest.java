@@ -0,0 +1,129 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+import interfaces.Entry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentSkipListSortedMapTest {
+
+    private static final Integer[] KEYS = new Integer[] {35,26,15,24,33,4,12,1,23,21,2,5};
+
+    private static Integer key(Entry<Integer, String> e) {
+        return e == null ? null : e.getKey();
+    }
+
+    private static Integer key(java.util.Map.Entry<Integer, String> e) {
+        return e == null ? null : e.getKey();
+    }
+
+    @Test
+    void testSortedMapOperations() {
+        ConcurrentSkipListSortedMap<Integer, String> map = new ConcurrentSkipListSortedMap<>();
+        assertNull(map.firstEntry());
+        assertNull(map.lastEntry());
+        for(Integer i : KEYS) {
+            assertNull(map.put(i, Integer.toString(i)));
+        }
+        assertEquals(12, map.size());
+        assertEquals("15", map.get(15));
+        assertNull(map.get(16));
+        assertEquals(1, map.firstEntry().getKey());
+        assertEquals(35, map.lastEntry().getKey());
+        assertEquals(12, map.ceilingEntry(11).getKey());
+        assertEquals(2, map.ceilingEntry(2).getKey());
+        assertEquals(5, map.floorEntry(11).getKey());
+        assertEquals(23, map.lowerEntry(24).getKey());
+        assertEquals(12, map.higherEntry(11).getKey());
+        assertNull(map.higherEntry(35));
+        assertNull(map.lowerEntry(1));
+        assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
+        assertEquals("[]", map.subMap(34, 12).toString());
+
+        assertEquals("26", map.put(26, "x"));
+        assertEquals("x", map.remove(26));
+        assertNull(map.remove(26));
+        assertEquals(11, map.size());
+        assertEquals(33, map.ceilingEntry(26).getKey());
+        assertThrows(IllegalArgumentException.class, () -> map.put(1, null));
+    }
+
+    @Test
+    void testAgainstTreeMap() {
+        ConcurrentSkipListSortedMap<Integer, String> map = new ConcurrentSkipListSortedMap<>();
+        java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+        Random rnd = new Random(1);
+        for(int i = 0; i < 20000; ++i) {
+            int k = rnd.nextInt(2000);
+            if(rnd.nextInt(3) > 0) {
+                assertEquals(expected.put(k, "v" + i), map.put(k, "v" + i));
+            } else {
+                assertEquals(expected.remove(k), map.remove(k));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        List<Integer> keys = new ArrayList<>();
+        map.keySet().forEach(keys::add);
+        assertEquals(expected.keySet().toString(), keys.toString());
+        for(int k = -1; k <= 2001; k += 3) {
+            assertEquals(expected.get(k), map.get(k));
+            assertEquals(key(expected.ceilingEntry(k)), key(map.ceilingEntry(k)));
+            assertEquals(key(expected.floorEntry(k)), key(map.floorEntry(k)));
+            assertEquals(key(expected.higherEntry(k)), key(map.higherEntry(k)));
+            assertEquals(key(expected.lowerEntry(k)), key(map.lowerEntry(k)));
+        }
+        assertEquals(expected.subMap(500, 700).keySet().toString(), map.subMap(500, 700).toString());
+    }
+
+    @Test
+    void testConcurrentUpdates() throws InterruptedException {
+        ConcurrentSkipListSortedMap<Integer, Integer> map = new ConcurrentSkipListSortedMap<>();
+        int threads = 8, perThread = 20000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean unordered = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while(!done.get()) {
+                Integer last = null;
+                for(Entry<Integer, Integer> e : map.entrySet()) {
+                    if(last != null && last >= e.getKey()) unordered.set(true);
+                    last = e.getKey();
+                }
+            }
+        });
+        reader.start();
+        List<Thread> workers = new ArrayList<>();
+        for(int t = 0; t < threads; ++t) {
+            final int base = t;
+            workers.add(new Thread(() -> {
+                for(int i = 0; i < perThread; ++i) {
+                    int k = i * threads + base;         // interleaves the keys of all threads
+                    map.put(k, k);
+                    if(i % 2 == 1) assertEquals(k, map.remove(k));
+                }
+            }));
+        }
+        for(Thread w : workers) w.start();
+        for(Thread w : workers) w.join();
+        done.set(true);
+        reader.join();
+
+        assertFalse(unordered.get());
+        assertEquals(threads * perThread / 2, map.size());
+        int count = 0;
+        Integer last = -1;
+        for(Entry<Integer, Integer> e : map.entrySet()) {
+            assertTrue(e.getKey() > last);
+            last = e.getKey();
+            count++;
+        }
+        assertEquals(threads * perThread / 2, count);
+        for(int k = 0; k < threads * perThread; ++k) {
+            assertEquals((k / threads) % 2 == 0 ? k : null, map.get(k));
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package tree;
+
+import interfaces.Entry;
+import utils.ByteCodec;
+import utils.MapEntry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * A sorted map that keeps any TreeMap (or AVLTreeMap, RBTreeMap, SplayTreeMap,
+ * Treap) durable in a directory, using a write-ahead log and snapshots.
+ * <p>
+ * Every put and remove that changes the map is appended to the log, in the
+ * form [op][key length][value length][key][value][CRC32]. Records are
+ * collected in memory and written and forced to disk together once groupSize
+ * of them are pending (group commit), or when sync() or close() is called. A
+ * crash may therefore lose up to groupSize - 1 of the latest updates, but never
+ * leaves the map in a state that did not exist.
+ * <p>
+ * Once the log holds as many operations as the map has entries, the map is
+ * written to a snapshot straight from an in-order traversal and the log is
+ * emptied, so the log never grows much beyond the size of the map. Recovery
+ * reads the sorted snapshot, bulk-loads it into a balanced tree in linear
+ * time, and then replays the log, stopping at the first torn or corrupt record.
+ */
+public class DurableTreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V> implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x534E4150;     // "SNAP"
+    private static final byte PUT = 1, REMOVE = 2;
+    /** The log is never checkpointed before it holds this many operations. */
+    private static final int MIN_CHECKPOINT = 1024;
+
+    private final TreeMap<K, V> map;
+    private final ByteCodec<K> keyCodec;
+    private final ByteCodec<V> valueCodec;
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final int groupSize;
+
+    private FileChannel log;                                   // null once closed
+    private final ByteArrayOutputStream batch = new ByteArrayOutputStream();
+    private final DataOutputStream batchOut = new DataOutputStream(batch);
+    private final CRC32 crc = new CRC32();
+    private int pending = 0;        // records in batch, not yet on disk
+    private long logged = 0;        // records in the log since the last snapshot
+
+    /**
+     * Opens the map stored in the given directory, loading it into the given
+     * empty map, or starts an empty one if the directory holds none.
+     *
+     * @param map        an empty map to hold the entries in memory
+     * @param dir        the directory for the snapshot and log files
+     * @param keyCodec   serializer for keys
+     * @param valueCodec serializer for values
+     * @param groupSize  number of updates written and forced to disk together
+     * @throws IOException if the files cannot be read or written
+     */
+    public DurableTreeMap(TreeMap<K, V> map, Path dir, ByteCodec<K> keyCodec, ByteCodec<V> valueCodec,
+                          int groupSize) throws IOException {
+        if (groupSize < 1) throw new IllegalArgumentException("groupSize must be positive: " + groupSize);
+        this.map = map;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        this.groupSize = groupSize;
+        Files.createDirectories(dir);
+        snapshotPath = dir.resolve("snapshot");
+        logPath = dir.resolve("wal");
+        if (Files.exists(snapshotPath)) loadSnapshot();
+        long validLength = Files.exists(logPath) ? replayLog() : 0;
+        log = FileChannel.open(logPath, CREATE, WRITE);
+        log.truncate(validLength);           // drop a torn tail before appending
+        log.position(validLength);
+    }
+
+    // ---------------- recovery ----------------
+
+    private void loadSnapshot() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) throw new IOException("not a snapshot: " + snapshotPath);
+            int n = in.readInt();
+            ArrayList<Entry<K, V>> entries = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                byte[] key = readBytes(in, in.readInt());
+                byte[] value = readBytes(in, in.readInt());
+                entries.add(new MapEntry<>(keyCodec.decode(key), valueCodec.decode(value)));
+            }
+            map.bulkLoad(entries);
+        }
+    }
+
+    /** Applies every intact log record to the map and returns the length they span. */
+    private long replayLog() throws IOException {
+        long valid = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+            while (true) {
+                byte op = in.readByte();
+                int keyLength = in.readInt();
+                int valueLength = in.readInt();
+                if ((op != PUT && op != REMOVE) || keyLength < 0 || valueLength < 0) break;
+                byte[] key = readBytes(in, keyLength);
+                byte[] value = readBytes(in, valueLength);
+                crc.reset();
+                crc.update(op);
+                crc.update(ByteBuffer.allocate(8).putInt(keyLength).putInt(valueLength).array());
+                crc.update(key);
+                crc.update(value);
+                if (in.readInt() != (int) crc.getValue()) break;
+                if (op == PUT) {
+                    map.put(keyCodec.decode(key), valueCodec.decode(value));
+                } else {
+                    map.remove(keyCodec.decode(key));
+                }
+                valid += 13 + keyLength + valueLength;
+                logged++;
+            }
+        } catch (EOFException e) {
+            // the last record was not completely written
+        }
+        return valid;
+    }
+
+    private static byte[] readBytes(InputStream in, int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) throw new EOFException();
+        return bytes;
+    }
+
+    // ---------------- logging ----------------
+
+    private void append(byte op, byte[] key, byte[] value) throws IOException {
+        if (log == null) throw new IllegalStateException("map is closed");
+        crc.reset();
+        crc.update(op);
+        crc.update(ByteBuffer.allocate(8).putInt(key.length).putInt(value.length).array());
+        crc.update(key);
+        crc.update(value);
+        batchOut.writeByte(op);
+        batchOut.writeInt(key.length);
+        batchOut.writeInt(value.length);
+        batchOut.write(key);
+        batchOut.write(value);
+        batchOut.writeInt((int) crc.getValue());
+        logged++;
+        if (++pending >= groupSize) sync();
+    }
+
+    /** Runs after each logged update; takes a snapshot once the log is as long as the map. */
+    private void maybeCheckpoint() throws IOException {
+        if (logged >= Math.max(MIN_CHECKPOINT, map.size())) checkpoint();
+    }
+
+    /**
+     * Writes and forces every pending update to the log.
+     *
+     * @throws IOException if the log cannot be written
+     */
+    public void sync() throws IOException {
+        if (pending == 0) return;
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+        while (buffer.hasRemaining()) log.write(buffer);
+        log.force(false);
+        batch.reset();
+        pending = 0;
+    }
+
+    /**
+     * Writes the whole map to a new snapshot in key order and empties the log.
+     * The snapshot is written to a temporary file and then renamed, so a crash
+     * leaves either the old or the new snapshot in place; replaying a log over
+     * the snapshot that already contains its updates gives the same map.
+     *
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void checkpoint() throws IOException {
+        sync();
+        Path tmp = snapshotPath.resolveSibling("snapshot.tmp");
+        try (FileOutputStream file = new FileOutputStream(tmp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(map.size());
+            for (Entry<K, V> entry : map.entrySet()) {
+                byte[] key = keyCodec.encode(entry.getKey());
+                byte[] value = valueCodec.encode(entry.getValue());
+                out.writeInt(key.length);
+                out.write(key);
+                out.writeInt(value.length);
+                out.write(value);
+            }
+            out.flush();
+            file.getChannel().force(true);
+        }
+        Files.move(tmp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(snapshotPath.getParent());    // the rename must be durable before the log is emptied
+        log.truncate(0);
+        log.position(0);
+        log.force(true);
+        logged = 0;
+    }
+
+    /** Forces the directory entries of dir, such as a rename, to disk. */
+    private static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, READ)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Writes pending updates to the log and releases it. The map cannot be
+     * updated afterwards, but can be reopened on the same directory.
+     */
+    @Override
+    public void close() throws IOException {
+        if (log == null) return;
+        sync();
+        log.close();
+        log = null;
+    }
+
+    // ---------------- map methods ----------------
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public V get(K key) throws IOException {
+        return map.get(key);
+    }
+
+    /**
+     * Associates the given value with the given key and logs the update.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public V put(K key, V value) throws IOException {
+        append(PUT, keyCodec.encode(key), valueCodec.encode(value));
+        V answer = map.put(key, value);
+        maybeCheckpoint();
+        return answer;
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and logs the update.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     * @throws IOException if the log cannot be written
+     */
+    @Override
+    public V remove(K key) throws IOException {
+        if (map.get(key) == null) return null;      // nothing to remove, nothing to log
+        append(REMOVE, keyCodec.encode(key), new byte[0]);
+        V answer = map.remove(key);
+        maybeCheckpoint();
+        return answer;
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return map.firstEntry();
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return map.lastEntry();
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) throws IllegalArgumentException {
+        return map.ceilingEntry(key);
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) throws IllegalArgumentException {
+        return map.floorEntry(key);
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) throws IllegalArgumentException {
+        return map.lowerEntry(key);
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) throws IllegalArgumentException {
+        return map.higherEntry(key);
+    }
+
+    @Override
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) throws IllegalArgumentException {
+        return map.subMap(fromKey, toKey);
+    }
+
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return map.entrySet();
+    }
+
+    @Override
+    public double loadFactor() {
+        return map.loadFactor();
+    }
+
+    @Override
+    public int numCollisions() {
+        return map.numCollisions();
+    }
+
+    public String toString() {
+        return map.toString();
+    }
+}
@@ -0,0 +1,125 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import interfaces.Entry;
+import utils.ByteCodec;
+import utils.MapEntry;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DurableTreeMapTest {
+
+	@TempDir
+	Path dir;
+
+	private DurableTreeMap<Integer, String> open(TreeMap<Integer, String> map, int groupSize) throws IOException {
+		return new DurableTreeMap<>(map, dir, ByteCodec.INTEGER, ByteCodec.STRING, groupSize);
+	}
+
+	/** Applies the same random updates to a durable map and a reference map. */
+	private void churn(DurableTreeMap<Integer, String> map, java.util.TreeMap<Integer, String> expected, int ops, long seed) throws IOException {
+		Random rnd = new Random(seed);
+		for(int i = 0; i < ops; ++i) {
+			int k = rnd.nextInt(3000);
+			if(rnd.nextInt(3) > 0) {
+				assertEquals(expected.put(k, "v" + i), map.put(k, "v" + i));
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+		}
+	}
+
+	private void assertSameEntries(java.util.TreeMap<Integer, String> expected, TreeMap<Integer, String> map) {
+		StringBuilder a = new StringBuilder(), b = new StringBuilder();
+		expected.forEach((k, v) -> a.append(k).append('=').append(v).append(' '));
+		map.forEach((k, v) -> b.append(k).append('=').append(v).append(' '));
+		assertEquals(a.toString(), b.toString());
+		assertEquals(expected.size(), map.size());
+	}
+
+	@Test
+	void testReopen() throws IOException {
+		java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+		try(DurableTreeMap<Integer, String> map = open(new AVLTreeMap<>(), 16)) {
+			churn(map, expected, 10000, 1);
+		}
+		AVLTreeMap<Integer, String> recovered = new AVLTreeMap<>();
+		try(DurableTreeMap<Integer, String> map = open(recovered, 16)) {
+			assertSameEntries(expected, recovered);
+			assertEquals(expected.firstKey(), map.firstEntry().getKey());
+			churn(map, expected, 1000, 2);
+		}
+		recovered = new AVLTreeMap<>();
+		open(recovered, 1).close();
+		assertSameEntries(expected, recovered);
+	}
+
+	@Test
+	void testBulkLoadedTreesStayBalanced() throws IOException {
+		int n = 5000;
+		List<Supplier<TreeMap<Integer, String>>> kinds = List.of(TreeMap::new, AVLTreeMap::new, RBTreeMap::new, Treap::new);
+		for(int kind = 0; kind < kinds.size(); ++kind) {
+			Path sub = dir.resolve("kind" + kind);
+			try(DurableTreeMap<Integer, String> map = new DurableTreeMap<>(kinds.get(kind).get(), sub, ByteCodec.INTEGER, ByteCodec.STRING, 64)) {
+				for(int i = 0; i < n; ++i) {
+					map.put(i, Integer.toString(i));       // sorted input: worst case for TreeMap
+				}
+				map.checkpoint();
+			}
+			TreeMap<Integer, String> loaded = kinds.get(kind).get();
+			try(DurableTreeMap<Integer, String> map = new DurableTreeMap<>(loaded, sub, ByteCodec.INTEGER, ByteCodec.STRING, 64)) {
+				assertEquals(n, map.size());
+				assertTrue(loaded.tree.height(loaded.root()) <= 14, loaded.getClass().getSimpleName());
+				// the balance information must let later updates keep working
+				java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+				for(int i = 0; i < n; ++i) expected.put(i, Integer.toString(i));
+				churn(map, expected, 5000, kind);
+				assertSameEntries(expected, loaded);
+			}
+		}
+	}
+
+	@Test
+	void testTornLogTail() throws IOException {
+		try(DurableTreeMap<Integer, String> map = open(new RBTreeMap<>(), 1)) {
+			map.put(1, "one");
+			map.put(2, "two");
+			map.remove(1);
+		}
+		Path log = dir.resolve("wal");
+		long length = Files.size(log);
+		Files.write(log, new byte[] {1, 0, 0, 0, 4, 0}, StandardOpenOption.APPEND);  // half a record
+
+		RBTreeMap<Integer, String> recovered = new RBTreeMap<>();
+		try(DurableTreeMap<Integer, String> map = open(recovered, 1)) {
+			assertNull(map.get(1));
+			assertEquals("two", map.get(2));
+			assertEquals(length, Files.size(log));
+			map.put(3, "three");
+		}
+		recovered = new RBTreeMap<>();
+		open(recovered, 1).close();
+		assertEquals(2, recovered.size());
+		assertEquals("three", recovered.get(3));
+	}
+
+	@Test
+	void testBulkLoadRejectsUnsortedInput() {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		List<Entry<Integer, String>> entries = List.of(new MapEntry<>(2, "two"), new MapEntry<>(1, "one"));
+		assertThrows(IllegalArgumentException.class, () -> map.bulkLoad(entries));
+	}
+
+}
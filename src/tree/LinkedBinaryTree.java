@@ -6,13 +6,20 @@ import interfaces.Position;
 import list.SinglyLinkedList;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 //import java.util.List;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Concrete implementation of a binary tree using a node-based, linked
@@ -136,32 +143,173 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
         return numChildren(p) > 0;
     }
 
-    /**
-     * Adds positions of the subtree rooted at Position p to the given
-     * snapshot using an inorder traversal
-     *
-     * @param p        Position serving as the root of a subtree
-     * @param snapshot a list to which results are appended
+    // ---------------- lazy traversals ----------------
+    /*
+     * Each traversal is an iterator that keeps only an explicit stack (or, for
+     * breadth-first, a queue) of the positions still to be expanded, so the
+     * caller sees the first position at once and stopping after k positions
+     * costs O(k + h) time and memory rather than O(n). The tree must not be
+     * changed while a traversal is in progress.
      */
-    private void inorderSubtree(Position<E> p, List<Position<E>> snapshot) {
-        if (left(p) != null) inorderSubtree(left(p), snapshot);
-        if (p.getElement() != null) snapshot.addLast(p);//snapshot.addLast(p);
-        if (right(p) != null) inorderSubtree(right(p), snapshot);
+
+    /** Visits positions left subtree first, then the position, then its right subtree. */
+    private class InorderIterator implements Iterator<Position<E>> {
+        private final Deque<Position<E>> stack = new ArrayDeque<>();    // ancestors whose left subtree is in progress
+        private Position<E> next;
+
+        InorderIterator(Position<E> p) {
+            descend(p);
+            advance();
+        }
+
+        private void descend(Position<E> p) {
+            for (; p != null; p = left(p)) stack.push(p);
+        }
+
+        /** Moves next to the following position with an element (skipping sentinel leaves). */
+        private void advance() {
+            next = null;
+            while (next == null && !stack.isEmpty()) {
+                Position<E> p = stack.pop();
+                descend(right(p));
+                if (p.getElement() != null) next = p;
+            }
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Position<E> next() {
+            if (next == null) throw new NoSuchElementException();
+            Position<E> answer = next;
+            advance();
+            return answer;
+        }
+    }
+
+    /** Visits each position before its subtrees, skipping those without an element. */
+    private class PreorderIterator implements Iterator<Position<E>> {
+        private final Deque<Position<E>> stack = new ArrayDeque<>();
+        private Position<E> next;
+
+        PreorderIterator(Position<E> p) {
+            if (p != null) stack.push(p);
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && !stack.isEmpty()) {
+                Position<E> p = stack.pop();
+                Position<E> c;
+                if ((c = right(p)) != null) stack.push(c);         // pushed first, so visited last
+                if ((c = left(p)) != null) stack.push(c);
+                if (p.getElement() != null) next = p;
+            }
+        }
+
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        public Position<E> next() {
+            if (next == null) throw new NoSuchElementException();
+            Position<E> answer = next;
+            advance();
+            return answer;
+        }
+    }
+
+    /** Visits each position after both of its subtrees. */
+    private class PostorderIterator implements Iterator<Position<E>> {
+        private final Deque<Position<E>> stack = new ArrayDeque<>();
+        private final Deque<Boolean> expanded = new ArrayDeque<>();      // whether the children are stacked
+
+        PostorderIterator(Position<E> p) {
+            if (p != null) {
+                stack.push(p);
+                expanded.push(false);
+            }
+        }
+
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        public Position<E> next() {
+            if (stack.isEmpty()) throw new NoSuchElementException();
+            while (!expanded.peek()) {
+                expanded.pop();
+                expanded.push(true);
+                Position<E> p = stack.peek(), c;
+                if ((c = right(p)) != null) {
+                    stack.push(c);
+                    expanded.push(false);
+                }
+                if ((c = left(p)) != null) {
+                    stack.push(c);
+                    expanded.push(false);
+                }
+            }
+            expanded.pop();
+            return stack.pop();
+        }
+    }
+
+    /** Visits positions level by level, from left to right. */
+    private class BreadthFirstIterator implements Iterator<Position<E>> {
+        private final Deque<Position<E>> queue = new ArrayDeque<>();
+
+        BreadthFirstIterator(Position<E> p) {
+            if (p != null) queue.add(p);
+        }
+
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        public Position<E> next() {
+            if (queue.isEmpty()) throw new NoSuchElementException();
+            Position<E> p = queue.remove();
+            Position<E> c;
+            if ((c = left(p)) != null) queue.add(c);
+            if ((c = right(p)) != null) queue.add(c);
+            return p;
+        }
     }
 
     /**
-     * Adds positions of the subtree rooted at Position p to the given
-     * snapshot using a preorder traversal
-     *
-     * @param p        Position serving as the root of a subtree
-     * @param snapshot a list to which results are appended
+     * An Iterable over a traversal, which starts a new lazy iterator each time
+     * and prints as a list of its positions.
      */
-    private void preorderSubtree(Position<E> p, List<Position<E>> snapshot) {
-        if(p.getElement() != null) {
-            snapshot.addLast(p);
-        }// for preorder, we add position p before exploring subtrees
-        for (Position<E> c : children(p)) {
-            preorderSubtree(c, snapshot);
+    private class Traversal implements Iterable<Position<E>> {
+        private final Function<Position<E>, Iterator<Position<E>>> order;
+
+        Traversal(Function<Position<E>, Iterator<Position<E>>> order) {
+            this.order = order;
+        }
+
+        public Iterator<Position<E>> iterator() {
+            return order.apply(isEmpty() ? null : root());
+        }
+
+        @Override
+        public Spliterator<Position<E>> spliterator() {
+            return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        }
+
+        public Stream<Position<E>> stream() {
+            return StreamSupport.stream(spliterator(), false);
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Position<E> p : this) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(p);
+            }
+            return sb.append("]").toString();
         }
     }
 
@@ -171,13 +319,7 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @return iterable collection of the tree's positions in preorder
      */
     public Iterable<Position<E>> preorder() {
-        //List<Position<E>> snapshot = new ArrayList<>();
-        List<Position<E>> snapshot = new SinglyLinkedList<>();
-
-        if (!isEmpty()) {
-            preorderSubtree(root(), snapshot);   // fill the snapshot recursively
-        }
-        return snapshot;
+        return new Traversal(PreorderIterator::new);
     }
 
     /**
@@ -186,24 +328,7 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @return iterable collection of the tree's positions reported in inorder
      */
     public Iterable<Position<E>> inorder() {
-        List<Position<E>> snapshot = new SinglyLinkedList<>();
-        if (!isEmpty()) {
-            inorderSubtree(root(), snapshot);   // fill the snapshot recursively
-        }
-        return snapshot;
-    }
-
-    /**
-     * Adds positions of the subtree rooted at Position p to the given
-     * snapshot using a postorder traversal
-     *
-     * @param p        Position serving as the root of a subtree
-     * @param snapshot a list to which results are appended
-     */
-    private void postorderSubtree(Position<E> p, List<Position<E>> snapshot) {
-        for (Position<E> c : children(p))
-            postorderSubtree(c, snapshot);
-        snapshot.addLast(p);
+        return new Traversal(InorderIterator::new);
     }
 
     /**
@@ -212,9 +337,27 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @return iterable collection of the tree's positions in postorder
      */
     public Iterable<Position<E>> postorder() {
-        List<Position<E>> snapshot = new SinglyLinkedList<>();
-        if (!isEmpty()) postorderSubtree(root(), snapshot);   // fill the snapshot recursively
-        return snapshot;
+        return new Traversal(PostorderIterator::new);
+    }
+
+    /** Returns a sequential stream of the positions of the tree in preorder. */
+    public Stream<Position<E>> preorderStream() {
+        return new Traversal(PreorderIterator::new).stream();
+    }
+
+    /** Returns a sequential stream of the positions of the tree in inorder. */
+    public Stream<Position<E>> inorderStream() {
+        return new Traversal(InorderIterator::new).stream();
+    }
+
+    /** Returns a sequential stream of the positions of the tree in postorder. */
+    public Stream<Position<E>> postorderStream() {
+        return new Traversal(PostorderIterator::new).stream();
+    }
+
+    /** Returns a sequential stream of the positions of the tree in breadth-first order. */
+    public Stream<Position<E>> breadthfirstStream() {
+        return new Traversal(BreadthFirstIterator::new).stream();
     }
 
     public Iterable<Position<E>> positions() {
@@ -229,11 +372,12 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @throws IllegalArgumentException if p is not a valid Position for this tree.
      */
     public int depth(Position<E> p) throws IllegalArgumentException {
-        if (isRoot(p)) {
-            return 0;
-        } else {
-            return 1 + depth(parent(p));
+        int d = 0;
+        while (!isRoot(p)) {
+            p = parent(p);
+            d++;
         }
+        return d;
     }
 
     /**
@@ -258,9 +402,18 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @throws IllegalArgumentException if p is not a valid Position for this tree.
      */
     public int height(Position<E> p) throws IllegalArgumentException {
-        int h = 0;                          // base case if p is external
-        for (Position<E> c : children(p)) {
-            h = Math.max(h, 1 + height(c));
+        // count the levels of a breadth-first walk of the subtree
+        int h = -1;
+        Deque<Position<E>> level = new ArrayDeque<>();
+        level.add(p);
+        while (!level.isEmpty()) {
+            h++;
+            for (int i = level.size(); i > 0; i--) {
+                Position<E> q = level.remove();
+                Position<E> c;
+                if ((c = left(q)) != null) level.add(c);
+                if ((c = right(q)) != null) level.add(c);
+            }
         }
         return h;
     }
@@ -332,82 +485,78 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
         return n;
     }
 
-    // Recursive function to find an inorder successor
+    // Function to find an inorder successor, descending from node
     private Node<E> inorderSuccessor(Node<E> node, Node<E> succ, E key) {
-        // base case
-        if (node == null) {
-            return succ;
-        }
-        // if a node with the desired value is found, the successor is the minimum
-        if (node.element.compareTo(key) == 0) {
-            if (node.right != null) {
-                return findMinimum(node.right);
+        while (node != null) {
+            // if a node with the desired value is found, the successor is the minimum
+            if (node.element.compareTo(key) == 0) {
+                if (node.right != null) {
+                    return findMinimum(node.right);
+                }
+                break;
+            }
+            // if the given key is less than the node, consider the left subtree
+            else if (key.compareTo(node.element) < 0) {
+                succ = node;
+                node = node.left;
+            }
+            // if the given key is more than the node, consider the right subtree
+            else {
+                node = node.right;
             }
-        }
-        // if the given key is less than the root node, consider the left subtree
-        else if (key.compareTo(node.element) < 0) {
-            succ = node;
-            return inorderSuccessor(node.left, succ, key);
-        }
-        // if the given key is more than the root node, consider the right subtree
-        else {
-            return inorderSuccessor(node.right, succ, key);
         }
         return succ;
     }
 
     private Node<E> inorderPredecessor(Node<E> node, Node<E> pred, E key) {
-        // base case
-        if (node == null) {
-            return pred;
-        }
-        // if a node with the desired value is found, the successor is the minimum
-        if (node.element.compareTo(key) == 0) {
-            if (node.left != null) {
-                return findMaximum(node.left);
+        while (node != null) {
+            // if a node with the desired value is found, the predecessor is the maximum
+            if (node.element.compareTo(key) == 0) {
+                if (node.left != null) {
+                    return findMaximum(node.left);
+                }
+                break;
+            }
+            // if the given key is less than the node, consider the left subtree
+            else if (key.compareTo(node.element) < 0) {
+                node = node.left;
+            }
+            // if the given key is more than the node, consider the right subtree
+            else {
+                pred = node;
+                node = node.right;
             }
-        }
-        // if the given key is more than the root node, consider the right subtree
-        else if (key.compareTo(node.element) < 0) {
-            return inorderPredecessor(node.left, pred, key);
-        }
-        // if the given key is less than the root node, consider the left subtree
-        else {
-            pred = node;
-            return inorderPredecessor(node.right, pred, key);
         }
         return pred;
     }
 
     public Position<E> inorderSuccessor(E key) {
-        return inorderSuccessor(root, null, key);
+        return inorderSuccessor(rootNode(), null, key);
     }
 
     public Position<E> inorderPredecessor(E key) {
-        return inorderPredecessor(root, null, key);
-    }
-
-    private int getDiameter(Node<E> n, AtomicInteger diameter) {
-        if (n == null) {
-            return 0;
-        }
-
-        int h_left = getDiameter(n.left, diameter);
-        int h_right = getDiameter(n.right, diameter);
-
-        //System.out.println("getHeight: " + n.element + " " + h_left + " " + h_right);
-        // update the answer, because diameter = h_left + h_right + 1
-        diameter.set(Math.max(diameter.get(), 1 + h_left + h_right));
-        return 1 + Math.max(h_left, h_right);
+        return inorderPredecessor(rootNode(), null, key);
     }
 
+    /**
+     * Returns the number of nodes on the longest path between two nodes of the
+     * tree, computed bottom-up over a postorder walk.
+     */
     public int diameter() {
-        if (root == null) {
+        if (isEmpty()) {
             return 0;
         }
-        AtomicInteger result = new AtomicInteger(0);
-        int h = getDiameter(root, result);
-        return result.get();
+        HashMap<Position<E>, Integer> heights = new HashMap<>();    // of subtrees not yet joined
+        int diameter = 0;
+        for (Position<E> p : postorder()) {
+            Position<E> l = left(p), r = right(p);
+            int h_left = (l == null) ? 0 : heights.remove(l);
+            int h_right = (r == null) ? 0 : heights.remove(r);
+            // update the answer, because diameter = h_left + h_right + 1
+            diameter = Math.max(diameter, 1 + h_left + h_right);
+            heights.put(p, 1 + Math.max(h_left, h_right));
+        }
+        return diameter;
     }
 
     /**
@@ -416,17 +565,7 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
      * @return iterable collection of the tree's positions in breadth-first order
      */
     public Iterable<Position<E>> breadthfirst() {
-        List<Position<E>> snapshot = new SinglyLinkedList<>();
-        if (!isEmpty()) {
-            java.util.Queue<Position<E>> q = new java.util.LinkedList<>();
-            q.add(root());                 // start with the root
-            while (!q.isEmpty()) {
-                Position<E> p = q.remove();     // remove from front of the queue
-                snapshot.addLast(p);                      // report this position
-                children(p).forEach(c -> q.add(c));           // add children to back of queue
-            }
-        }
-        return snapshot;
+        return new Traversal(BreadthFirstIterator::new);
     }
 
 
@@ -500,6 +639,11 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
         return size;
     }
 
+    /** Returns the node at root(), checked as any other position is, or null if the tree is empty. */
+    protected Node<E> rootNode() {
+        return isEmpty() ? null : validate(root());
+    }
+
     /**
      * Returns the root Position of the tree (or null if tree is empty).
      *
@@ -672,7 +816,7 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
 
 
     public void createLevelOrder(ArrayList<E> l) {
-        root = createLevelOrderHelper(l, root, 0);
+        root = createLevelOrderHelper(l, rootNode(), 0);
     }
 
     private Node<E> createLevelOrderHelper(java.util.ArrayList<E> l, Node<E> p, int i) {
@@ -692,7 +836,7 @@ public class LinkedBinaryTree<E extends Comparable<E>> implements BinaryTree<E>
 
 
     public void createLevelOrder(E[] arr) {
-        root = createLevelOrderHelper(arr, root, 0);
+        root = createLevelOrderHelper(arr, rootNode(), 0);
     }
 
     private Node<E> createLevelOrderHelper(E[] arr, Node<E> parent, int i) {
@@ -3,7 +3,13 @@ package tree;
 import org.junit.jupiter.api.Test;
 import interfaces.Position;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class LinkedBinaryTreeTest {
@@ -155,4 +161,24 @@ class LinkedBinaryTreeTest {
         assertEquals(3, bt.height(bt.root()));
     }
 
+
+    @Test
+    void testLazyTraversals() {
+        LinkedBinaryTree<Integer> bt = new LinkedBinaryTree<Integer>();
+        bt.createLevelOrder(new Integer[] {1,2,3,4,5,6,7,8,9,10,11,12});
+
+        assertEquals("[1, 2, 4, 8, 9, 5, 10, 11, 3, 6, 12, 7]", bt.preorder().toString());
+        assertEquals("[8, 9, 4, 10, 11, 5, 2, 12, 6, 7, 3, 1]", bt.postorder().toString());
+        assertEquals("[1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12]", bt.breadthfirst().toString());
+        assertEquals(List.of(8, 4, 9), bt.inorderStream().limit(3).map(Position::getElement).toList());
+        assertEquals(List.of(1, 2, 4), bt.preorderStream().limit(3).map(Position::getElement).toList());
+        assertEquals(12, bt.postorderStream().count());
+        assertEquals(12, bt.breadthfirstStream().mapToInt(Position::getElement).max().getAsInt());
+
+        Iterator<Position<Integer>> it = bt.inorder().iterator();
+        for (int i = 0; i < 12; ++i) it.next();
+        assertFalse(it.hasNext());
+        assertThrows(NoSuchElementException.class, it::next);
+        assertFalse(new LinkedBinaryTree<Integer>().inorder().iterator().hasNext());
+    }
 }
@@ -0,0 +1,326 @@
+package tree;
+
+import interfaces.Entry;
+import interfaces.Position;
+
+/**
+ * A BalanceableBinaryTree whose leaves are null children rather than sentinel
+ * nodes, so a tree holding n entries allocates n nodes instead of 2n + 1.
+ * <p>
+ * Internal positions are the nodes themselves. A leaf is reported as a small
+ * Position naming its parent node and side, created on demand and never
+ * stored; it carries no element and an aux value of 0. Setting an element at
+ * such a leaf creates the node and turns that Position into it, as it does
+ * for a sentinel leaf, so TreeMap and its rebalancing subclasses run on either
+ * kind of tree. The size still counts the leaves, so the two trees agree on
+ * it and on every traversal.
+ * <p>
+ * Leaf positions compare by parent and side, so positions of this tree must be
+ * compared with equals() rather than ==. A leaf Position names the empty
+ * child that was there when it was made: it only becomes a node through
+ * set(), not when a node is later linked in at the same place. This keeps the
+ * leaves that split and join hold on to empty while they relink subtrees.
+ */
+public class NullLeafBinaryTree<K, V> extends BalanceableBinaryTree<K, V> {
+
+    /**
+     * The empty child on one side of a node, the root of an empty tree, or a
+     * detached leaf.
+     */
+    private final class Leaf implements Position<Entry<K, V>> {
+        final Node<Entry<K, V>> above;      // null for the root or a detached leaf
+        final boolean onRight;
+        final boolean detached;
+        Node<Entry<K, V>> filled;           // the node set() put here, if any
+
+        Leaf(Node<Entry<K, V>> above, boolean onRight) {
+            this(above, onRight, false);
+        }
+
+        Leaf(Node<Entry<K, V>> above, boolean onRight, boolean detached) {
+            this.above = above;
+            this.onRight = onRight;
+            this.detached = detached;
+        }
+
+        /** Returns the node set() put at this position, or null while it is a leaf. */
+        Node<Entry<K, V>> resolve() {
+            return filled;
+        }
+
+        @Override
+        public Entry<K, V> getElement() {
+            Node<Entry<K, V>> n = resolve();
+            return n == null ? null : n.getElement();
+        }
+
+        @Override
+        public void setElement(Entry<K, V> element) {
+            set(this, element);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            Node<Entry<K, V>> n = resolve();
+            if (o instanceof NullLeafBinaryTree<?, ?>.Leaf other) {
+                Object m = other.resolve();
+                Object otherAbove = other.above;
+                return n != null ? n == m : m == null && above == otherAbove && onRight == other.onRight;
+            }
+            return n != null && n == o;
+        }
+
+        @Override
+        public int hashCode() {
+            Node<Entry<K, V>> n = resolve();
+            if (n != null) return n.hashCode();
+            return 31 * System.identityHashCode(above) + (onRight ? 1 : 0);
+        }
+
+        @Override
+        public String toString() {
+            Entry<K, V> e = getElement();
+            return e == null ? "" : e.toString();
+        }
+    }
+
+    private Node<Entry<K, V>> childOf(Node<Entry<K, V>> above, boolean onRight) {
+        if (above == null) return root;
+        return onRight ? above.getRight() : above.getLeft();
+    }
+
+    private Position<Entry<K, V>> position(Node<Entry<K, V>> child, Node<Entry<K, V>> above, boolean onRight) {
+        return child != null ? child : new Leaf(above, onRight);
+    }
+
+    /** Returns the node at p, or null if p is a leaf. */
+    @SuppressWarnings("unchecked")
+    private Node<Entry<K, V>> nodeAt(Position<Entry<K, V>> p) {
+        if (p instanceof NullLeafBinaryTree<?, ?>.Leaf leaf) return ((Leaf) leaf).resolve();
+        return super.validate(p);
+    }
+
+    /** Accepts leaf positions that have since been filled in, but not empty leaves. */
+    @Override
+    protected Node<Entry<K, V>> validate(Position<Entry<K, V>> p) throws IllegalArgumentException {
+        Node<Entry<K, V>> n = nodeAt(p);
+        if (n == null) throw new IllegalArgumentException("p is a leaf");
+        return n;
+    }
+
+    // ---------------- accessors ----------------
+
+    @Override
+    public Position<Entry<K, V>> root() {
+        if (size == 0) return null;
+        return position(root, null, false);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Position<Entry<K, V>> parent(Position<Entry<K, V>> p) {
+        Node<Entry<K, V>> n = nodeAt(p);
+        return n != null ? n.getParent() : ((Leaf) p).above;
+    }
+
+    @Override
+    public Position<Entry<K, V>> left(Position<Entry<K, V>> p) {
+        Node<Entry<K, V>> n = nodeAt(p);
+        return n == null ? null : position(n.getLeft(), n, false);
+    }
+
+    @Override
+    public Position<Entry<K, V>> right(Position<Entry<K, V>> p) {
+        Node<Entry<K, V>> n = nodeAt(p);
+        return n == null ? null : position(n.getRight(), n, true);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Position<Entry<K, V>> sibling(Position<Entry<K, V>> p) {
+        Node<Entry<K, V>> n = nodeAt(p);
+        Node<Entry<K, V>> above = (n != null) ? n.getParent() : ((Leaf) p).above;
+        if (above == null) return null;
+        boolean onRight = (n != null) ? above.getRight() == n : ((Leaf) p).onRight;
+        return position(childOf(above, !onRight), above, !onRight);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean isRoot(Position<Entry<K, V>> p) {
+        Node<Entry<K, V>> n = nodeAt(p);
+        return n != null ? n.getParent() == null : ((Leaf) p).above == null;
+    }
+
+    @Override
+    public boolean isInternal(Position<Entry<K, V>> p) {
+        return nodeAt(p) != null;
+    }
+
+    @Override
+    public boolean isExternal(Position<Entry<K, V>> p) {
+        return nodeAt(p) == null;
+    }
+
+    @Override
+    public int numChildren(Position<Entry<K, V>> p) {
+        return isInternal(p) ? 2 : 0;
+    }
+
+    @Override
+    public int getAux(Position<Entry<K, V>> p) {
+        return isInternal(p) ? super.getAux(p) : 0;
+    }
+
+    /** Sets the auxiliary value of p; leaves always have value 0. */
+    @Override
+    public void setAux(Position<Entry<K, V>> p, int value) {
+        if (isInternal(p)) {
+            super.setAux(p, value);
+        } else if (value != 0) {
+            throw new IllegalArgumentException("leaves have no auxiliary value");
+        }
+    }
+
+    // ---------------- relinking whole subtrees ----------------
+
+    /** Creates a detached leaf, which set() turns into a detached node. */
+    @Override
+    public Position<Entry<K, V>> newLeaf() {
+        return new Leaf(null, false, true);
+    }
+
+    /** Makes the detached subtrees at left and right, either of which may be a leaf, the children of mid. */
+    @Override
+    public Position<Entry<K, V>> link(Position<Entry<K, V>> mid, Position<Entry<K, V>> left, Position<Entry<K, V>> right) {
+        Node<Entry<K, V>> m = validate(mid);
+        Node<Entry<K, V>> l = nodeAt(left), r = nodeAt(right);
+        m.setLeft(l);
+        m.setRight(r);
+        if (l != null) l.setParent(m);
+        if (r != null) r.setParent(m);
+        return m;
+    }
+
+    /** Makes the detached subtree at p, which may be a leaf, the whole tree. */
+    @Override
+    public void install(Position<Entry<K, V>> p, int entries) {
+        root = nodeAt(p);
+        if (root != null) root.setParent(null);
+        size = 2 * entries + 1;
+    }
+
+    @Override
+    public BalanceableBinaryTree<K, V> emptyTree() {
+        return new NullLeafBinaryTree<>();
+    }
+
+    // ---------------- update methods ----------------
+
+    /** Adds a root; a null element gives an empty root leaf. */
+    @Override
+    public Position<Entry<K, V>> addRoot(Entry<K, V> e) throws IllegalStateException {
+        if (!isEmpty()) throw new IllegalStateException("Tree is not empty");
+        size = 1;
+        Leaf leaf = new Leaf(null, false);
+        if (e != null) set(leaf, e);
+        return leaf;
+    }
+
+    /**
+     * Every node already has a leaf on each side, so adding a null left child
+     * just returns it; a non-null one fills the leaf in.
+     */
+    @Override
+    public Position<Entry<K, V>> addLeft(Position<Entry<K, V>> p, Entry<K, V> e) {
+        return addChild(p, e, false);
+    }
+
+    @Override
+    public Position<Entry<K, V>> addRight(Position<Entry<K, V>> p, Entry<K, V> e) {
+        return addChild(p, e, true);
+    }
+
+    private Position<Entry<K, V>> addChild(Position<Entry<K, V>> p, Entry<K, V> e, boolean onRight) {
+        Node<Entry<K, V>> n = validate(p);
+        if (childOf(n, onRight) != null) {
+            throw new IllegalStateException("already has a " + (onRight ? "right" : "left") + " child");
+        }
+        Leaf child = new Leaf(n, onRight);
+        if (e != null) set(child, e);
+        return child;
+    }
+
+    /**
+     * Replaces the element at p. Setting a non-null element at a leaf creates
+     * a node there, with two leaves, and p becomes its position.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public Entry<K, V> set(Position<Entry<K, V>> p, Entry<K, V> e) {
+        Node<Entry<K, V>> n = nodeAt(p);
+        if (n != null) return super.set(n, e);
+        if (e == null) return null;
+        Leaf leaf = (Leaf) p;
+        n = createNode(e, leaf.above, null, null);
+        leaf.filled = n;
+        if (leaf.detached) return null;     // install() will count it
+        if (leaf.above == null) {
+            root = n;
+        } else if (leaf.onRight) {
+            leaf.above.setRight(n);
+        } else {
+            leaf.above.setLeft(n);
+        }
+        size += 2;
+        return null;
+    }
+
+    /**
+     * Removes p and puts its child in its place. Removing a leaf only updates
+     * the count; a node may be removed once at most one child is a node.
+     */
+    @Override
+    public Entry<K, V> remove(Position<Entry<K, V>> p) {
+        Node<Entry<K, V>> n = nodeAt(p);
+        if (n == null) {
+            size--;
+            return null;
+        }
+        if (n.getLeft() != null && n.getRight() != null) {
+            throw new IllegalArgumentException("Cant remove node with 2 children");
+        }
+        Node<Entry<K, V>> child = n.getLeft() != null ? n.getLeft() : n.getRight();
+        replace(n, child);
+        size--;
+        return n.getElement();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Position<Entry<K, V>> removeExternal(Position<Entry<K, V>> leaf) {
+        if (isInternal(leaf) || isRoot(leaf)) throw new IllegalArgumentException("not a leaf below the root");
+        Leaf l = (Leaf) leaf;
+        Node<Entry<K, V>> n = l.above;
+        Node<Entry<K, V>> above = n.getParent();
+        boolean onRight = above != null && above.getRight() == n;
+        Node<Entry<K, V>> sibling = childOf(n, !l.onRight);
+        replace(n, sibling);
+        size -= 2;
+        return position(sibling, above, onRight);
+    }
+
+    /** Puts child (possibly null) in the place of node n, which leaves the tree. */
+    private void replace(Node<Entry<K, V>> n, Node<Entry<K, V>> child) {
+        Node<Entry<K, V>> above = n.getParent();
+        if (child != null) child.setParent(above);
+        if (above == null) {
+            root = child;
+        } else if (above.getLeft() == n) {
+            above.setLeft(child);
+        } else {
+            above.setRight(child);
+        }
+        n.setParent(n);                     // our convention for a defunct node
+    }
+}
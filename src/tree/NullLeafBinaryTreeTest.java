@@ -0,0 +1,106 @@
+package tree;
+
+import list.SinglyLinkedList;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NullLeafBinaryTreeTest {
+
+    @Test
+    void testAVLShape() throws IOException {
+        TreeMapTest.assertSameShape(new AVLTreeMap<>(), new AVLTreeMap<>(new NullLeafBinaryTree<Integer, String>()));
+    }
+
+    @Test
+    void testRBShape() throws IOException {
+        TreeMapTest.assertSameShape(new RBTreeMap<>(), new RBTreeMap<>(new NullLeafBinaryTree<Integer, String>()));
+    }
+
+    @Test
+    void testNoSentinels() throws IOException {
+        RBTreeMap<Integer, String> map = new RBTreeMap<>(new NullLeafBinaryTree<Integer, String>());
+        map.put(2, "two");
+        map.put(1, "one");
+        LinkedBinaryTree.Node<?> root = (LinkedBinaryTree.Node<?>) map.root();
+        assertNull(root.getRight());
+        assertNull(root.getLeft().getLeft());
+        assertNull(root.getLeft().getRight());
+        assertTrue(map.tree.isExternal(map.tree.right(map.root())));
+        assertEquals(map.root(), map.tree.parent(map.tree.right(map.root())));
+        assertEquals("[1, 2]", map.tree.inorder().toString());
+    }
+
+    @Test
+    void testTreap() throws IOException {
+        Treap<Integer, String> treap = new Treap<>(new NullLeafBinaryTree<Integer, String>());
+        java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+        Random rnd = new Random(1);
+        for(int i = 0; i < 5000; ++i) {
+            int k = rnd.nextInt(500);
+            if(rnd.nextInt(3) > 0) {
+                assertEquals(expected.put(k, "v" + i), treap.put(k, "v" + i));
+            } else {
+                assertEquals(expected.remove(k), treap.remove(k));
+            }
+        }
+        assertEquals(expected.size(), treap.size());
+        assertEquals(expected.keySet().toString(), treap.tree.inorder().toString());
+        assertTrue(treap.isValidBST(treap.root()));
+        interfaces.List<String> violations = new SinglyLinkedList<>();
+        treap.isValidHeapSubtree(treap.root(), violations);
+        assertTrue(violations.isEmpty(), "Heap property violated");
+    }
+
+    @Test
+    void testSplitJoin() throws IOException {
+        Random rnd = new Random(2);
+        for(int round = 0; round < 10; ++round) {
+            java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+            AVLTreeMap<Integer, String> map = new AVLTreeMap<>(new NullLeafBinaryTree<Integer, String>());
+            Treap<Integer, String> treap = new Treap<>(new NullLeafBinaryTree<Integer, String>());
+            for(int i = rnd.nextInt(1000); i > 0; --i) {
+                int k = rnd.nextInt(2000);
+                expected.put(k, "v" + k);
+                map.put(k, "v" + k);
+                treap.put(k, "v" + k);
+            }
+            int key = rnd.nextInt(2100) - 50;
+            AVLTreeMap<Integer, String> upper = map.split(key);
+            Treap<Integer, String> treapUpper = treap.split(key);
+            assertEquals(expected.headMap(key).keySet().toString(), map.tree.inorder().toString());
+            assertEquals(expected.tailMap(key).keySet().toString(), upper.tree.inorder().toString());
+            assertEquals(expected.tailMap(key).keySet().toString(), treapUpper.tree.inorder().toString());
+            assertEquals(expected.tailMap(key).size(), upper.size());
+            upper.put(Integer.MAX_VALUE, "new");
+            upper.remove(Integer.MAX_VALUE);
+            map.join(upper);
+            treap.join(treapUpper);
+            assertTrue(upper.isEmpty());
+            for(TreeMap<Integer, String> m : java.util.List.of(map, treap)) {
+                assertEquals(expected.size(), m.size());
+                assertEquals(2 * expected.size() + 1, m.tree.size());
+                assertEquals(expected.keySet().toString(), m.tree.inorder().toString());
+                for(Integer k : expected.keySet()) assertEquals(expected.get(k), m.get(k));
+            }
+            assertTrue(treap.isValidBST(treap.root()));
+            interfaces.List<String> violations = new SinglyLinkedList<>();
+            treap.isValidHeapSubtree(treap.root(), violations);
+            assertTrue(violations.isEmpty(), "Heap property violated");
+
+            AVLTreeMap<Integer, String> other = new AVLTreeMap<>(new NullLeafBinaryTree<Integer, String>());
+            for(int i = rnd.nextInt(300); i > 0; --i) {
+                int k = rnd.nextInt(2000);
+                other.put(k, "w" + k);
+                expected.putIfAbsent(k, "w" + k);
+            }
+            map.union(other);
+            assertEquals(expected.size(), map.size());
+            assertEquals(expected.keySet().toString(), map.tree.inorder().toString());
+            for(Integer k : expected.keySet()) assertEquals(expected.get(k), map.get(k));
+        }
+    }
+}
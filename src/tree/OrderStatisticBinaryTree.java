@@ -0,0 +1,111 @@
+package tree;
+
+import interfaces.Entry;
+import interfaces.Position;
+
+/**
+ * A BalanceableBinaryTree whose nodes also record how many entries their
+ * subtree holds, so that subtreeSize() takes constant time and the rank,
+ * select and countRange queries of a TreeMap stored in it take time
+ * proportional to the height of the tree.
+ * <p>
+ * The counts are kept up to date by every update method: filling in or
+ * emptying a leaf and removing a node adjust the counts of its ancestors,
+ * and a rotation recomputes the counts of the two nodes it moves, which are
+ * the only ones whose subtrees change. The aux value is left free for the
+ * balancing scheme, so AVL, red-black and treap maps can all be stored here.
+ */
+public class OrderStatisticBinaryTree<K, V> extends BalanceableBinaryTree<K, V> {
+
+    /** A node that also holds the number of entries in its subtree. */
+    protected static class SizedNode<E> extends BSTNode<E> {
+        int count;
+
+        SizedNode(E e, Node<E> parent, Node<E> leftChild, Node<E> rightChild) {
+            super(e, parent, leftChild, rightChild);
+            count = (e != null ? 1 : 0) + count(leftChild) + count(rightChild);
+        }
+    }
+
+    private static int count(Node<?> n) {
+        return n == null ? 0 : ((SizedNode<?>) n).count;
+    }
+
+    /** Recomputes the count of n from those of its children. */
+    private static void recount(Node<?> n) {
+        ((SizedNode<?>) n).count = (n.getElement() != null ? 1 : 0) + count(n.getLeft()) + count(n.getRight());
+    }
+
+    /** Adds delta to the counts of n and all its ancestors. */
+    private static void adjust(Node<?> n, int delta) {
+        for (; n != null && delta != 0; n = n.getParent()) ((SizedNode<?>) n).count += delta;
+    }
+
+    @Override
+    protected Node<Entry<K, V>> createNode(Entry<K, V> e, Node<Entry<K, V>> parent, Node<Entry<K, V>> left, Node<Entry<K, V>> right) {
+        return new SizedNode<>(e, parent, left, right);
+    }
+
+    /** Returns the number of entries in the subtree rooted at p, in constant time. */
+    @Override
+    public int subtreeSize(Position<Entry<K, V>> p) {
+        return count(validate(p));
+    }
+
+    // ---------------- update methods ----------------
+
+    @Override
+    public Position<Entry<K, V>> addLeft(Position<Entry<K, V>> p, Entry<K, V> e) throws IllegalArgumentException {
+        Position<Entry<K, V>> child = super.addLeft(p, e);
+        if (e != null) adjust(validate(p), 1);
+        return child;
+    }
+
+    @Override
+    public Position<Entry<K, V>> addRight(Position<Entry<K, V>> p, Entry<K, V> e) throws IllegalArgumentException {
+        Position<Entry<K, V>> child = super.addRight(p, e);
+        if (e != null) adjust(validate(p), 1);
+        return child;
+    }
+
+    /** Replaces the element at p; filling in or emptying a leaf updates the counts above it. */
+    @Override
+    public Entry<K, V> set(Position<Entry<K, V>> p, Entry<K, V> e) throws IllegalArgumentException {
+        Node<Entry<K, V>> n = validate(p);
+        int delta = (e != null ? 1 : 0) - (n.getElement() != null ? 1 : 0);
+        Entry<K, V> old = super.set(p, e);
+        adjust(n, delta);
+        return old;
+    }
+
+    @Override
+    public Entry<K, V> remove(Position<Entry<K, V>> p) throws IllegalArgumentException {
+        Node<Entry<K, V>> n = validate(p);
+        Node<Entry<K, V>> above = n.getParent();
+        Entry<K, V> old = super.remove(p);
+        adjust(above, old != null ? -1 : 0);
+        return old;
+    }
+
+    @Override
+    public BalanceableBinaryTree<K, V> emptyTree() {
+        return new OrderStatisticBinaryTree<>();
+    }
+
+    @Override
+    public Position<Entry<K, V>> link(Position<Entry<K, V>> mid, Position<Entry<K, V>> left, Position<Entry<K, V>> right) {
+        Position<Entry<K, V>> m = super.link(mid, left, right);
+        recount(validate(m));
+        return m;
+    }
+
+    /** Rotates p above its parent, whose subtree then loses what p's gains. */
+    @Override
+    public void rotate(Position<Entry<K, V>> p) {
+        Node<Entry<K, V>> x = validate(p);
+        Node<Entry<K, V>> y = x.getParent();
+        super.rotate(p);
+        recount(y);
+        recount(x);
+    }
+}
@@ -0,0 +1,100 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+import interfaces.Entry;
+import interfaces.Position;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatisticBinaryTreeTest {
+
+    /** Counts the entries below p the slow way, checking every stored count on the way. */
+    private int checkCounts(TreeMap<Integer, String> map, Position<Entry<Integer, String>> p) {
+        if (map.tree.isExternal(p)) {
+            assertEquals(0, map.tree.subtreeSize(p));
+            return 0;
+        }
+        int count = 1 + checkCounts(map, map.tree.left(p)) + checkCounts(map, map.tree.right(p));
+        assertEquals(count, map.tree.subtreeSize(p));
+        return count;
+    }
+
+    /** Runs random updates on map and a java.util.TreeMap, comparing the order statistics. */
+    private void assertSameStatistics(TreeMap<Integer, String> map) throws IOException {
+        java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+        Random rnd = new Random(7);
+        for (int i = 0; i < 5000; ++i) {
+            int k = rnd.nextInt(1000);
+            if (rnd.nextInt(3) > 0) {
+                assertEquals(expected.put(k, "v" + i), map.put(k, "v" + i));
+            } else {
+                assertEquals(expected.remove(k), map.remove(k));
+            }
+            if (i % 500 == 0) assertEquals(expected.size(), checkCounts(map, map.root()));
+        }
+        assertEquals(expected.size(), checkCounts(map, map.root()));
+        List<Integer> keys = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < keys.size(); ++i) {
+            assertEquals(keys.get(i), map.select(i).getKey());
+            assertEquals(i, map.rank(keys.get(i)));
+        }
+        for (int k = -1; k <= 1001; k += 7) {
+            assertEquals(expected.headMap(k).size(), map.rank(k));
+            assertEquals(expected.subMap(k, k + 100).size(), map.countRange(k, k + 100));
+        }
+        assertEquals(0, map.countRange(500, 400));
+    }
+
+    @Test
+    void testAVL() throws IOException {
+        assertSameStatistics(new AVLTreeMap<>(new OrderStatisticBinaryTree<Integer, String>()));
+    }
+
+    @Test
+    void testRB() throws IOException {
+        assertSameStatistics(new RBTreeMap<>(new OrderStatisticBinaryTree<Integer, String>()));
+    }
+
+    @Test
+    void testTreap() throws IOException {
+        assertSameStatistics(new Treap<>(new OrderStatisticBinaryTree<Integer, String>()));
+    }
+
+    @Test
+    void testExactSplits() throws IOException {
+        RBTreeMap<Integer, String> map = new RBTreeMap<>(new OrderStatisticBinaryTree<Integer, String>());
+        for (int i = 0; i < 1000; ++i) map.put(i, "v");
+        Spliterator<Entry<Integer, String>> rest = map.spliterator();
+        Spliterator<Entry<Integer, String>> prefix = rest.trySplit().trySplit();
+        assertTrue(prefix.hasCharacteristics(Spliterator.SUBSIZED));
+        long size = prefix.getExactSizeIfKnown();
+        assertEquals(size, prefix.estimateSize());
+        long[] count = new long[1];
+        prefix.forEachRemaining(e -> count[0]++);
+        assertEquals(size, count[0]);
+        assertEquals(1000, map.parallelStream().count());
+    }
+
+    @Test
+    void testUnsizedTree() throws IOException {
+        assertSameStatistics(new RBTreeMap<>());          // counted rather than stored
+    }
+
+    @Test
+    void testSelectOutOfRange() throws IOException {
+        RBTreeMap<Integer, String> map = new RBTreeMap<>(new OrderStatisticBinaryTree<Integer, String>());
+        assertThrows(IndexOutOfBoundsException.class, () -> map.select(0));
+        map.put(1, "a");
+        assertEquals(1, map.select(0).getKey());
+        assertThrows(IndexOutOfBoundsException.class, () -> map.select(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.select(-1));
+        assertEquals(0, map.rank(1));
+        assertEquals(1, map.rank(2));
+    }
+}
@@ -0,0 +1,493 @@
+package tree;
+
+import interfaces.Entry;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A sorted map stored in a persistent AVL tree: nodes are immutable and an
+ * update copies only the nodes on the path from the root to the changed one,
+ * rebalancing the copies with the usual AVL rotations, so the new version of
+ * the tree shares every other node with the old one.
+ * <p>
+ * with() and without() return the new version as a separate map and leave
+ * this one unchanged. put() and remove() install the new version in this map
+ * instead, by a compareAndSet on its root, so writers never block each other
+ * or readers. snapshot() returns the current version in constant time, and
+ * readers of a snapshot, and the iterators of entrySet() and subMap(), which
+ * work on the version current when they were created, need no locking and
+ * never see a later change.
+ * <p>
+ * Unlike the other tree maps, nodes have no parent references, which path
+ * copying could not keep up to date; the balancing is done on the way back up
+ * the search path instead. Each node also records the size of its subtree.
+ */
+public class PersistentAVLTreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V> {
+
+    /** An immutable tree node, which is also the entry it holds. */
+    static final class Node<K extends Comparable<K>, V> implements Entry<K, V> {
+        final K key;
+        final V value;
+        final Node<K, V> left, right;
+        final int height;                   // of the subtree, 1 for a node with no children
+        final int size;                     // entries in the subtree
+
+        Node(K key, V value, Node<K, V> left, Node<K, V> right) {
+            this.key = key;
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            height = 1 + Math.max(height(left), height(right));
+            size = 1 + size(left) + size(right);
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public int compareTo(Entry<K, V> o) {
+            return key.compareTo(o.getKey());
+        }
+
+        public String toString() {
+            return "" + key;
+        }
+    }
+
+    private final AtomicReference<Node<K, V>> root;
+
+    /**
+     * Constructs an empty map using the natural ordering of keys.
+     */
+    public PersistentAVLTreeMap() {
+        super();
+        root = new AtomicReference<>();
+    }
+
+    /**
+     * Constructs an empty map using the given comparator to order keys.
+     *
+     * @param comp comparator defining the order of keys in the map
+     */
+    public PersistentAVLTreeMap(Comparator<K> comp) {
+        super(comp);
+        root = new AtomicReference<>();
+    }
+
+    /** Constructs a map holding the given version of the tree. */
+    private PersistentAVLTreeMap(Comparator<K> comp, Node<K, V> version) {
+        super(comp);
+        root = new AtomicReference<>(version);
+    }
+
+    private static int height(Node<?, ?> n) {
+        return n == null ? 0 : n.height;
+    }
+
+    private static int size(Node<?, ?> n) {
+        return n == null ? 0 : n.size;
+    }
+
+    /** Returns the current version of the tree. */
+    Node<K, V> root() {
+        return root.get();
+    }
+
+    // ---------------- path copying ----------------
+
+    /** Returns a copy of n with the given children, rebalanced if they differ in height by 2. */
+    private static <K extends Comparable<K>, V> Node<K, V> balance(Node<K, V> n, Node<K, V> left, Node<K, V> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) < height(left.right)) {           // double rotation
+                Node<K, V> lr = left.right;
+                return new Node<>(lr.key, lr.value,
+                        new Node<>(left.key, left.value, left.left, lr.left),
+                        new Node<>(n.key, n.value, lr.right, right));
+            }
+            return new Node<>(left.key, left.value, left.left, new Node<>(n.key, n.value, left.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) < height(right.left)) {         // double rotation
+                Node<K, V> rl = right.left;
+                return new Node<>(rl.key, rl.value,
+                        new Node<>(n.key, n.value, left, rl.left),
+                        new Node<>(right.key, right.value, rl.right, right.right));
+            }
+            return new Node<>(right.key, right.value, new Node<>(n.key, n.value, left, right.left), right.right);
+        }
+        if (left == n.left && right == n.right) return n;
+        return new Node<>(n.key, n.value, left, right);
+    }
+
+    /** Returns the version of the subtree n with key mapped to value. */
+    private Node<K, V> insert(Node<K, V> n, K key, V value) {
+        if (n == null) return new Node<>(key, value, null, null);
+        int c = compare(key, n.key);
+        if (c < 0) return balance(n, insert(n.left, key, value), n.right);
+        if (c > 0) return balance(n, n.left, insert(n.right, key, value));
+        if (n.value == value) return n;
+        return new Node<>(key, value, n.left, n.right);
+    }
+
+    /** Returns the version of the subtree n without key, or n itself if key is not there. */
+    private Node<K, V> delete(Node<K, V> n, K key) {
+        if (n == null) return null;
+        int c = compare(key, n.key);
+        if (c < 0) {
+            Node<K, V> left = delete(n.left, key);
+            return left == n.left ? n : balance(n, left, n.right);
+        }
+        if (c > 0) {
+            Node<K, V> right = delete(n.right, key);
+            return right == n.right ? n : balance(n, n.left, right);
+        }
+        if (n.left == null) return n.right;
+        if (n.right == null) return n.left;
+        Node<K, V> min = n.right;                                   // the successor takes n's place
+        while (min.left != null) min = min.left;
+        return balance(min, n.left, deleteMin(n.right));
+    }
+
+    private static <K extends Comparable<K>, V> Node<K, V> deleteMin(Node<K, V> n) {
+        if (n.left == null) return n.right;
+        return balance(n, deleteMin(n.left), n.right);
+    }
+
+    private Node<K, V> find(Node<K, V> n, K key) {
+        while (n != null) {
+            int c = compare(key, n.key);
+            if (c == 0) return n;
+            n = c < 0 ? n.left : n.right;
+        }
+        return null;
+    }
+
+    // ---------------- versions ----------------
+
+    /**
+     * Returns the current version of this map as a separate map, in constant
+     * time. Later updates of either map are not seen by the other.
+     *
+     * @return a snapshot of this map
+     */
+    public PersistentAVLTreeMap<K, V> snapshot() {
+        return new PersistentAVLTreeMap<>(comparator(), root.get());
+    }
+
+    /**
+     * Returns a new version of this map in which key is mapped to value,
+     * leaving this map unchanged. The two share all but O(log n) nodes.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the new version of the map
+     */
+    public PersistentAVLTreeMap<K, V> with(K key, V value) {
+        return new PersistentAVLTreeMap<>(comparator(), insert(root.get(), key, value));
+    }
+
+    /**
+     * Returns a new version of this map without the given key, leaving this
+     * map unchanged. The two share all but O(log n) nodes.
+     *
+     * @param key the key to be removed
+     * @return the new version of the map
+     */
+    public PersistentAVLTreeMap<K, V> without(K key) {
+        return new PersistentAVLTreeMap<>(comparator(), delete(root.get(), key));
+    }
+
+    // ---------------- Map methods ----------------
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        return size(root.get());
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    public V get(K key) {
+        Node<K, V> n = find(root.get(), key);
+        return n == null ? null : n.value;
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     * Snapshots taken earlier are not affected.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     */
+    @Override
+    public V put(K key, V value) {
+        while (true) {
+            Node<K, V> current = root.get();
+            Node<K, V> old = find(current, key);
+            if (root.compareAndSet(current, insert(current, key, value))) return old == null ? null : old.value;
+        }
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null. Snapshots
+     * taken earlier are not affected.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    public V remove(K key) {
+        while (true) {
+            Node<K, V> current = root.get();
+            Node<K, V> old = find(current, key);
+            if (old == null) return null;
+            if (root.compareAndSet(current, delete(current, key))) return old.value;
+        }
+    }
+
+    // ---------------- SortedMap methods ----------------
+
+    /**
+     * Returns the entry having the least key (or null if map is empty).
+     *
+     * @return entry with least key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> firstEntry() {
+        Node<K, V> n = root.get();
+        if (n == null) return null;
+        while (n.left != null) n = n.left;
+        return n;
+    }
+
+    /**
+     * Returns the entry having the greatest key (or null if map is empty).
+     *
+     * @return entry with greatest key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> lastEntry() {
+        Node<K, V> n = root.get();
+        if (n == null) return null;
+        while (n.right != null) n = n.right;
+        return n;
+    }
+
+    /** Returns the entry with least key above (or, if inclusive, equal to) key. */
+    private Entry<K, V> above(K key, boolean inclusive) {
+        Node<K, V> answer = null;
+        for (Node<K, V> n = root.get(); n != null; ) {
+            int c = compare(key, n.key);
+            if (c < 0 || (c == 0 && inclusive)) {
+                answer = n;
+                if (c == 0) break;
+                n = n.left;
+            } else {
+                n = n.right;
+            }
+        }
+        return answer;
+    }
+
+    /** Returns the entry with greatest key below (or, if inclusive, equal to) key. */
+    private Entry<K, V> below(K key, boolean inclusive) {
+        Node<K, V> answer = null;
+        for (Node<K, V> n = root.get(); n != null; ) {
+            int c = compare(key, n.key);
+            if (c > 0 || (c == 0 && inclusive)) {
+                answer = n;
+                if (c == 0) break;
+                n = n.right;
+            } else {
+                n = n.left;
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with least key greater than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> ceilingEntry(K key) throws IllegalArgumentException {
+        return above(key, true);
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with least key strictly greater than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> higherEntry(K key) throws IllegalArgumentException {
+        return above(key, false);
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with greatest key less than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> floorEntry(K key) throws IllegalArgumentException {
+        return below(key, true);
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with greatest key strictly less than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> lowerEntry(K key) throws IllegalArgumentException {
+        return below(key, false);
+    }
+
+    // ---------------- nested EntryIterator class ----------------
+    /*
+     * An in-order walk of one version of the tree, keeping the nodes whose
+     * right subtrees are still to be visited on a stack. Starts at the least
+     * key not below fromKey (null for the least key) and stops before toKey
+     * (null for none).
+     */
+    private class EntryIterator implements Iterator<Entry<K, V>> {
+        private final ArrayDeque<Node<K, V>> stack = new ArrayDeque<>();
+        private final K toKey;
+
+        EntryIterator(Node<K, V> n, K fromKey, K toKey) {
+            this.toKey = toKey;
+            while (n != null) {
+                if (fromKey == null || compare(fromKey, n.key) <= 0) {
+                    stack.push(n);
+                    n = n.left;
+                } else {
+                    n = n.right;
+                }
+            }
+            checkBound();
+        }
+
+        private void checkBound() {
+            if (!stack.isEmpty() && toKey != null && compare(stack.peek().key, toKey) >= 0) stack.clear();
+        }
+
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        public Entry<K, V> next() {
+            if (stack.isEmpty()) throw new NoSuchElementException();
+            Node<K, V> answer = stack.pop();
+            for (Node<K, V> n = answer.right; n != null; n = n.left) stack.push(n);
+            checkBound();
+            return answer;
+        }
+    } // ----------- end of nested EntryIterator class -----------
+
+    // ---------------- nested EntryIterable class ----------------
+    /*
+     * The entries from fromKey up to toKey of the version current when the
+     * iterable was created.
+     */
+    private class EntryIterable implements Iterable<Entry<K, V>> {
+        private final Node<K, V> version = root.get();
+        private final K fromKey, toKey;
+
+        EntryIterable(K fromKey, K toKey) {
+            this.fromKey = fromKey;
+            this.toKey = toKey;
+        }
+
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator(version, fromKey, toKey);
+        }
+
+        public String toString() {
+            StringBuilder sb = new StringBuilder("[");
+            for (Entry<K, V> entry : this) {
+                if (sb.length() > 1) sb.append(", ");
+                sb.append(entry.getKey());
+            }
+            return sb.append("]").toString();
+        }
+    } // ----------- end of nested EntryIterable class -----------
+
+    /**
+     * Returns an iterable containing all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive, in the
+     * version of the map current at the time of the call.
+     *
+     * @return iterable with keys in desired range
+     */
+    @Override
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) throws IllegalArgumentException {
+        if (compare(fromKey, toKey) >= 0) return new EntryIterable(toKey, toKey);  // an empty range
+        return new EntryIterable(fromKey, toKey);
+    }
+
+    /**
+     * Returns an iterable collection of all key-value entries of the map, in
+     * key order, as of the time of the call; it is a snapshot taken in
+     * constant time rather than a copy.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return new EntryIterable(null, null);
+    }
+
+    @Override
+    public double loadFactor() {
+        return 0;
+    }
+
+    @Override
+    public int numCollisions() {
+        return 0;
+    }
+
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (Entry<K, V> entry : entrySet()) {
+            if (sb.length() > 1) sb.append(", ");
+            sb.append(entry);
+        }
+        return sb.append("]").toString();
+    }
+}
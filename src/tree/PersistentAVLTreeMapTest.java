@@ -0,0 +1,212 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+import interfaces.Entry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentAVLTreeMapTest {
+
+    /** Returns the height of n's subtree, failing if it is not an AVL tree with correct sizes. */
+    private static int checkBalance(PersistentAVLTreeMap.Node<Integer, String> n) {
+        if(n == null) return 0;
+        int l = checkBalance(n.left), r = checkBalance(n.right);
+        assertTrue(Math.abs(l - r) <= 1);
+        assertEquals(1 + Math.max(l, r), n.height);
+        assertEquals(1 + (n.left == null ? 0 : n.left.size) + (n.right == null ? 0 : n.right.size), n.size);
+        return n.height;
+    }
+
+    @Test
+    void testVersions() {
+        PersistentAVLTreeMap<Integer, String> v0 = new PersistentAVLTreeMap<>();
+        for(int i = 0; i < 1000; ++i) v0 = v0.with(i, "a" + i);
+        PersistentAVLTreeMap<Integer, String> v1 = v0.with(500, "b").without(10);
+        assertEquals(1000, v0.size());
+        assertEquals("a500", v0.get(500));
+        assertEquals("a10", v0.get(10));
+        assertEquals(999, v1.size());
+        assertEquals("b", v1.get(500));
+        assertNull(v1.get(10));
+        assertSame(v0.root(), v0.snapshot().root());
+        assertSame(v0.root(), v0.without(-1).root());           // nothing to remove, nothing copied
+
+        // replacing a value copies the path to it and shares every subtree off it
+        PersistentAVLTreeMap.Node<Integer, String> a = v0.root(), b = v0.with(777, "c").root();
+        int copied = 1;
+        while(a.key != 777) {
+            assertNotSame(a, b);
+            boolean left = 777 < a.key;
+            assertSame(left ? a.right : a.left, left ? b.right : b.left);
+            a = left ? a.left : a.right;
+            b = left ? b.left : b.right;
+            copied++;
+        }
+        assertEquals("c", b.value);
+        assertTrue(copied <= v0.root().height);
+        checkBalance(v1.root());
+    }
+
+    @Test
+    void testSnapshots() {
+        PersistentAVLTreeMap<Integer, String> map = new PersistentAVLTreeMap<>();
+        for(int i = 0; i < 100; ++i) map.put(i, "v");
+        PersistentAVLTreeMap<Integer, String> snapshot = map.snapshot();
+        Iterable<Entry<Integer, String>> entries = map.entrySet();
+        for(int i = 0; i < 100; i += 2) map.remove(i);
+        map.put(1000, "w");
+        assertEquals(51, map.size());
+        assertEquals(100, snapshot.size());
+        int count = 0;
+        for(Entry<Integer, String> e : entries) assertEquals(count++, e.getKey());
+        assertEquals(100, count);
+        snapshot.put(-1, "s");
+        assertNull(map.get(-1));
+        assertEquals(101, snapshot.size());
+    }
+
+    @Test
+    void testOldVersionsUnchanged() {
+        List<PersistentAVLTreeMap<Integer, String>> versions = new ArrayList<>();
+        List<java.util.TreeMap<Integer, String>> expected = new ArrayList<>();
+        PersistentAVLTreeMap<Integer, String> v = new PersistentAVLTreeMap<>();
+        java.util.TreeMap<Integer, String> e = new java.util.TreeMap<>();
+        Random rnd = new Random(1);
+        for(int i = 0; i < 2000; ++i) {
+            int k = rnd.nextInt(300);
+            if(rnd.nextInt(3) > 0) {
+                v = v.with(k, "v" + i);
+                e.put(k, "v" + i);
+            } else {
+                v = v.without(k);
+                e.remove(k);
+            }
+            versions.add(v);
+            expected.add(new java.util.TreeMap<>(e));
+        }
+        for(int i = 0; i < versions.size(); i += 37) {
+            PersistentAVLTreeMap<Integer, String> old = versions.get(i);
+            checkBalance(old.root());
+            assertEquals(expected.get(i).size(), old.size());
+            assertEquals(expected.get(i).keySet().toString(), old.toString());
+            for(Integer k : expected.get(i).keySet()) assertEquals(expected.get(i).get(k), old.get(k));
+        }
+    }
+
+    /** Adds every node of n's subtree to nodes. */
+    private static void collect(PersistentAVLTreeMap.Node<Integer, String> n, Set<Object> nodes) {
+        if(n == null) return;
+        nodes.add(n);
+        collect(n.left, nodes);
+        collect(n.right, nodes);
+    }
+
+    @Test
+    void testUpdatesShareNodesOffThePath() {
+        PersistentAVLTreeMap<Integer, String> v0 = new PersistentAVLTreeMap<>();
+        for(int i = 0; i < 4096; ++i) v0 = v0.with(i, "a" + i);
+        Set<Object> old = Collections.newSetFromMap(new IdentityHashMap<>());
+        collect(v0.root(), old);
+        for(int k : new int[] {0, 1000, 2047, 4095, 5000}) {
+            for(PersistentAVLTreeMap<Integer, String> v : List.of(v0.with(k, "b"), v0.without(k))) {
+                Set<Object> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+                collect(v.root(), nodes);
+                nodes.removeAll(old);
+                // only the search path and the few nodes rotated next to it are new
+                assertTrue(nodes.size() <= 2 * v0.root().height, "copied " + nodes.size() + " nodes");
+            }
+        }
+        assertEquals(4096, v0.size());
+    }
+
+    @Test
+    void testConcurrentPutsLoseNoUpdate() throws InterruptedException {
+        PersistentAVLTreeMap<Integer, String> map = new PersistentAVLTreeMap<>();
+        for(int i = 0; i < 1000; ++i) map.put(i, "v");
+        int threads = 4, perThread = 5000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<List<String>> replaced = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        for(int t = 0; t < threads; ++t) {
+            List<String> olds = new ArrayList<>();
+            replaced.add(olds);
+            final int base = t;
+            workers.add(new Thread(() -> {
+                try {
+                    start.await();
+                } catch(InterruptedException ex) {
+                    return;
+                }
+                for(int i = 0; i < perThread; ++i) {
+                    olds.add(map.put(-1, base + ":" + i));       // every thread races on one key
+                    map.put(1000 + i * threads + base, "w");    // and on the root for new keys
+                }
+            }));
+        }
+        for(Thread w : workers) w.start();
+        start.countDown();
+        for(Thread w : workers) w.join();
+
+        // each value put at -1 was either replaced by exactly one later put or is the last
+        Set<String> seen = new HashSet<>();
+        int nulls = 0;
+        for(List<String> olds : replaced) {
+            for(String s : olds) {
+                if(s == null) nulls++;
+                else assertTrue(seen.add(s), s + " replaced twice");
+            }
+        }
+        assertTrue(seen.add(map.get(-1)));
+        assertEquals(1, nulls);
+        assertEquals(threads * perThread, seen.size());
+        assertEquals(1001 + threads * perThread, map.size());
+        for(int k = 1000; k < 1000 + threads * perThread; ++k) assertEquals("w", map.get(k));
+        checkBalance(map.root());
+    }
+
+    @Test
+    void testConcurrentWritersAndSnapshots() throws InterruptedException {
+        PersistentAVLTreeMap<Integer, String> map = new PersistentAVLTreeMap<>();
+        int threads = 4, perThread = 5000;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean inconsistent = new AtomicBoolean();
+        Thread reader = new Thread(() -> {
+            while(!done.get()) {
+                PersistentAVLTreeMap<Integer, String> snapshot = map.snapshot();
+                int count = 0;
+                for(Entry<Integer, String> e : snapshot.entrySet()) count++;
+                if(count != snapshot.size()) inconsistent.set(true);
+            }
+        });
+        reader.start();
+        List<Thread> workers = new ArrayList<>();
+        for(int t = 0; t < threads; ++t) {
+            final int base = t;
+            workers.add(new Thread(() -> {
+                for(int i = 0; i < perThread; ++i) {
+                    int k = i * threads + base;
+                    map.put(k, "v");
+                    if(i % 2 == 1) assertEquals("v", map.remove(k));
+                }
+            }));
+        }
+        for(Thread w : workers) w.start();
+        for(Thread w : workers) w.join();
+        done.set(true);
+        reader.join();
+
+        assertFalse(inconsistent.get());
+        assertEquals(threads * perThread / 2, map.size());
+        checkBalance(map.root());
+    }
+}
@@ -10,6 +10,7 @@ import java.nio.file.Paths;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -30,6 +31,42 @@ public class RBTreeMap<K extends Comparable<K>,V> extends TreeMap<K,V> {
      */
     public RBTreeMap(Comparator<K> comp) { super(comp); }
 
+    /**
+     * Constructs an empty map stored in the given empty tree, such as a
+     * NullLeafBinaryTree or an ArrayBalanceableBinaryTree, using the natural
+     * ordering of keys.
+     * @param tree an empty tree to hold the entries
+     */
+    public RBTreeMap(BalanceableBinaryTree<K,V> tree) { super(tree); }
+
+    /**
+     * Returns a map holding the given entries, built as a perfectly balanced
+     * tree in linear time rather than by n insertions, with only its deepest
+     * incomplete level red.
+     * @param sorted entries in strictly increasing key order
+     * @return a new map holding the entries
+     * @throws IllegalArgumentException if the keys are not strictly increasing
+     */
+    public static <K extends Comparable<K>, V> RBTreeMap<K,V> fromSorted(List<? extends Entry<K,V>> sorted) {
+        RBTreeMap<K,V> map = new RBTreeMap<>();
+        map.bulkLoad(sorted);
+        return map;
+    }
+
+    /**
+     * Returns a map of the given keys, each with the value computed for it,
+     * built as fromSorted() builds it. Keys already in order are loaded in
+     * linear time; others are sorted first. Duplicate keys are stored once.
+     * @param keys the keys, in any order
+     * @param valueOf function giving the value for each key
+     * @return a new map holding the keys
+     */
+    public static <K extends Comparable<K>, V> RBTreeMap<K,V> fromSorted(K[] keys, Function<? super K, ? extends V> valueOf) {
+        RBTreeMap<K,V> map = new RBTreeMap<>();
+        map.bulkLoad(map.sortedEntries(keys, valueOf));
+        return map;
+    }
+
     // we use the inherited aux field with convention that 0=black and 1=red
     // (note that new leaves will be black by default, as aux=0)
     private boolean isBlack(Position<Entry<K,V>> p) { return tree.getAux(p)==0;}
@@ -44,6 +81,18 @@ public class RBTreeMap<K extends Comparable<K>,V> extends TreeMap<K,V> {
         tree.setAux(p, toRed ? 1 : 0);
     }
 
+    /**
+     * Colors a position built by a bulk load. Internal positions at the deepest
+     * level are red unless that level is full, and all others are black, so
+     * every path from the root to a leaf passes the same number of black nodes.
+     */
+    @Override
+    protected void bulkLoaded(Position<Entry<K,V>> p, int depth, int n) {
+        boolean fullLevels = ((n + 1) & n) == 0;                     // n + 1 is a power of two
+        int deepest = 31 - Integer.numberOfLeadingZeros(n);          // floor(log2 n)
+        setColor(p, !fullLevels && depth == deepest);
+    }
+
     /** Overrides the TreeMap rebalancing hook that is called after an insertion. */
     protected void rebalanceInsert(Position<Entry<K,V>> p) throws IOException {
         if (!tree.isRoot(p)) {
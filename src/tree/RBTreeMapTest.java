@@ -2,11 +2,16 @@ package tree;
 
 import org.junit.Ignore;
 import org.junit.jupiter.api.Test;
+import interfaces.Entry;
+import interfaces.Position;
+import utils.MapEntry;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -173,4 +178,70 @@ class RBTreeMapTest {
         assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
     }
 
+
+    @Test
+    void testParallelBulkOperations() throws IOException {
+        RBTreeMap<Integer, String> map = new RBTreeMap<>();
+        int n = 10000;
+        for (int i = n - 1; i >= 0; --i) map.put(i, Integer.toString(i));
+
+        List<Integer> keys = map.parallelStream().map(Entry::getKey).toList();
+        assertEquals(n, keys.size());
+        for (int i = 0; i < n; ++i) assertEquals(i, keys.get(i));
+        assertEquals((long) n * (n - 1) / 2, map.parallelStream().mapToLong(Entry::getKey).sum());
+        assertEquals(n / 3 + 1, map.parallelStream().filter(e -> e.getKey() % 3 == 0).count());
+
+        LongAdder sum = new LongAdder();
+        map.forEach(1, (k, v) -> sum.add(k));
+        assertEquals((long) n * (n - 1) / 2, sum.sum());
+        assertEquals((long) n * (n - 1) / 2, map.reduce(1, (k, v) -> (long) k, Long::sum));
+        String concatenated = map.reduce(1, (k, v) -> k < 20 ? v + " " : null, String::concat);
+        assertEquals("0 1 2 3 4 5 6 7 8 9 10 11 12 13 14 15 16 17 18 19 ", concatenated);  // in key order
+        assertEquals("v1234", map.search(1, (k, v) -> k == 1234 ? "v" + v : null));
+        assertNull(map.search(1, (k, v) -> k == n ? v : null));
+        assertNull(new RBTreeMap<Integer, String>().reduce(1, (k, v) -> k, Integer::sum));
+
+        Spliterator<Entry<Integer, String>> whole = map.spliterator();
+        assertTrue(whole.hasCharacteristics(Spliterator.SIZED));
+        assertEquals(n, whole.getExactSizeIfKnown());
+        Spliterator<Entry<Integer, String>> prefix = whole.trySplit();
+        long count = prefix.estimateSize() + whole.estimateSize();
+        assertTrue(Math.abs(count - n) < n / 10, "estimated " + count);
+        assertTrue(prefix.tryAdvance(e -> assertEquals(0, e.getKey())));
+        assertTrue(whole.tryAdvance(e -> assertTrue(e.getKey() > 0)));
+    }
+
+    /** Returns the black height of p's subtree, failing on a red-black violation. */
+    private int blackHeight(RBTreeMap<Integer, String> map, Position<Entry<Integer, String>> p) {
+        if (map.tree.isExternal(p)) return 0;
+        if (map.tree.getAux(p) == 1) {
+            assertFalse(map.tree.isRoot(p));
+            assertEquals(0, map.tree.getAux(map.tree.left(p)));
+            assertEquals(0, map.tree.getAux(map.tree.right(p)));
+        }
+        int a = blackHeight(map, map.tree.left(p));
+        assertEquals(a, blackHeight(map, map.tree.right(p)));
+        return a + 1 - map.tree.getAux(p);
+    }
+
+    @Test
+    void testFromSorted() throws IOException {
+        for (int n : new int[] {0, 1, 2, 7, 8, 1000}) {
+            List<Entry<Integer, String>> entries = new ArrayList<>();
+            for (int i = 0; i < n; ++i) entries.add(new MapEntry<>(2 * i, "v" + i));
+            RBTreeMap<Integer, String> map = RBTreeMap.fromSorted(entries);
+            assertEquals(n, map.size());
+            blackHeight(map, map.root());
+            for (int i = 0; i < n; ++i) {
+                map.put(2 * i + 1, "odd");
+                if (i % 2 == 0) map.remove(2 * i);
+            }
+            blackHeight(map, map.root());
+            assertEquals(n + n / 2, map.size());
+        }
+        RBTreeMap<Integer, String> keys = RBTreeMap.fromSorted(new Integer[] {5, 3, 9, 3, 1}, k -> "v" + k);
+        assertEquals("[1, 3, 5, 9]", keys.entrySet().toString());
+        assertEquals("v3", keys.get(3));
+        blackHeight(keys, keys.root());
+    }
 }
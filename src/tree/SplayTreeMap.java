@@ -29,38 +29,56 @@ public class SplayTreeMap<K extends Comparable<K>, V> extends TreeMap<K, V> {
     }
 
     /**
-     * Utility used to rebalance after a map operation.
+     * Utility used to rebalance after a map operation. Moves the internal
+     * position p to the root by a sequence of zig-zig, zig-zag and zig steps,
+     * which roughly halves the depth of every node on the path to p, so keys
+     * that are accessed often stay near the root.
      */
     private void splay(Position<Entry<K, V>> p) throws IOException {
-        // TODO
-
+        while (!isRoot(p)) {
+            Position<Entry<K, V>> parent = parent(p);
+            Position<Entry<K, V>> grand = parent(parent);
+            if (grand == null) {                                        // zig
+                rotate(p);
+            } else if (parent.equals(left(grand)) == p.equals(left(parent))) { // zig-zig
+                rotate(parent);                                         // move parent up
+                rotate(p);                                              // then move p up
+            } else {                                                    // zig-zag
+                rotate(p);                                              // move p up
+                rotate(p);                                              // move p up again
+            }
+        }
     }
 
     /**
      * Overrides the TreeMap rebalancing hook that is called after a node access.
+     * An unsuccessful search ends at a leaf, in which case its parent, the last
+     * entry compared, is splayed instead.
      * @param p
      */
-    //@Override
+    @Override
     protected void rebalanceAccess(Position<Entry<K, V>> p) throws IOException {
-        // TODO
+        if (isExternal(p)) p = parent(p);
+        if (p != null) splay(p);
     }
 
     /**
      * Overrides the TreeMap rebalancing hook that is called after an insertion.
      * @param p
      */
-    //@Override
+    @Override
     protected void rebalanceInsert(Position<Entry<K, V>> p) throws IOException {
-        // TODO
+        splay(p);
     }
 
     /**
      * Overrides the TreeMap rebalancing hook that is called after a deletion.
+     * The parent of the position that took the removed node's place is splayed.
      * @param p
      */
-    //@Override
+    @Override
     protected void rebalanceDelete(Position<Entry<K, V>> p) throws IOException {
-        // TODO
+        if (!isRoot(p)) splay(parent(p));
     }
 
     public String toString() {
@@ -1,9 +1,12 @@
 package tree;
 
+import interfaces.Entry;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 
@@ -167,4 +170,72 @@ class SplayTreeMapTest {
 		assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
 	}
 
+	@Test
+	void testReadDuringIteration() throws IOException {
+		SplayTreeMap<Integer, String> map = new SplayTreeMap<>();
+		Integer[] arr = new Integer[] {35,26,15,24,33,4,12,1,23,21,2,5};
+
+		for(Integer i : arr) {
+			map.put(i, Integer.toString(i));
+		}
+		List<Integer> keys = new ArrayList<>();
+		for(Entry<Integer, String> e : map.entrySet()) {
+			assertEquals(e.getValue(), map.get(e.getKey()));       // splays e to the root
+			assertNull(map.get(e.getKey() + 100));
+			keys.add(e.getKey());
+		}
+		assertEquals("[1, 2, 4, 5, 12, 15, 21, 23, 24, 26, 33, 35]", keys.toString());
+
+		keys.clear();
+		for(Entry<Integer, String> e : map.subMap(12, 34)) {
+			map.get(35);
+			keys.add(e.getKey());
+		}
+		assertEquals("[12, 15, 21, 23, 24, 26, 33]", keys.toString());
+
+		StringBuilder sb = new StringBuilder();
+		map.forEach((k, v) -> {
+			try {
+				sb.append(map.get(k)).append(' ');
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		assertEquals("1 2 4 5 12 15 21 23 24 26 33 35 ", sb.toString());
+
+		Iterator<Integer> it = map.keySet().iterator();
+		it.next();
+		map.put(3, "3");
+		assertThrows(ConcurrentModificationException.class, it::next);
+	}
+
+
+	@Test
+	void testRandomOperations() throws IOException {
+		SplayTreeMap<Integer, String> map = new SplayTreeMap<>();
+		java.util.TreeMap<Integer, String> expected = new java.util.TreeMap<>();
+		java.util.Random rnd = new java.util.Random(1);
+		for(int i = 0; i < 20000; ++i) {
+			int k = rnd.nextInt(2000);
+			int op = rnd.nextInt(4);
+			if(op < 2) {
+				assertEquals(expected.put(k, "v" + i), map.put(k, "v" + i));
+				assertEquals(k, map.tree.root().getElement().getKey());
+			} else if(op == 2) {
+				assertEquals(expected.get(k), map.get(k));
+				if(expected.containsKey(k)) assertEquals(k, map.tree.root().getElement().getKey());
+			} else {
+				assertEquals(expected.remove(k), map.remove(k));
+			}
+		}
+		assertEquals(expected.size(), map.size());
+		assertEquals(expected.keySet().toString(), map.tree.inorder().toString());
+		assertEquals(expected.keySet().toString(), list(map.keySet()).toString());
+	}
+
+	private static List<Integer> list(Iterable<Integer> keys) {
+		List<Integer> list = new ArrayList<>();
+		keys.forEach(list::add);
+		return list;
+	}
 }
@@ -0,0 +1,315 @@
+package tree;
+
+import interfaces.Entry;
+import interfaces.Position;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread-safe sorted map that guards an RBTreeMap with a StampedLock, for
+ * workloads dominated by reads.
+ * <p>
+ * get, ceilingEntry, floorEntry, lowerEntry and higherEntry first descend the
+ * tree under an optimistic read stamp, taking no lock and writing nothing
+ * shared. If a writer held the lock at any point meanwhile, the stamp no longer
+ * validates and the result is discarded: the descent may have seen a rotation
+ * of rebalanceInsert or rebalanceDelete half done. The search is then repeated
+ * once under the read lock. A descent under a failing stamp can also meet
+ * links that no consistent tree has, so it gives up early on an exception or
+ * when it runs longer than any red-black tree is deep.
+ * <p>
+ * put and remove take the write lock. The other reads take the read lock, and
+ * entrySet and subMap return copies made under it.
+ */
+public class StampedRBTreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V> {
+
+    /** The red-black height bound 2 log(n + 1) is below this for any int size. */
+    private static final int MAX_DEPTH = 64;
+
+    private static final Object RETRY = new Object();          // descent result when the stamp failed
+
+    private final RBTreeMap<K, V> map;
+    private final StampedLock lock = new StampedLock();
+    private final LongAdder retries = new LongAdder();
+
+    /**
+     * Constructs an empty map using the natural ordering of keys.
+     */
+    public StampedRBTreeMap() {
+        this(new RBTreeMap<>());
+    }
+
+    /**
+     * Constructs an empty map using the given comparator to order keys.
+     *
+     * @param comp comparator defining the order of keys in the map
+     */
+    public StampedRBTreeMap(Comparator<K> comp) {
+        this(new RBTreeMap<>(comp));
+    }
+
+    /**
+     * Constructs a map guarding the given one, which must not be used
+     * directly afterwards.
+     *
+     * @param map the map to be shared between threads
+     */
+    public StampedRBTreeMap(RBTreeMap<K, V> map) {
+        super(map.comparator());
+        this.map = map;
+    }
+
+    /**
+     * Returns how many optimistic reads have had to be repeated under the
+     * read lock.
+     *
+     * @return the number of failed optimistic reads
+     */
+    public long optimisticRetries() {
+        return retries.sum();
+    }
+
+    /**
+     * Descends from the root towards key and returns the entry with that key
+     * (side 0), the least entry above it (side 1) or the greatest below it
+     * (side -1), equal keys allowed if inclusive; null if there is none. Returns
+     * RETRY as soon as the stamp fails to validate.
+     */
+    private Object descend(K key, int side, boolean inclusive, long stamp) {
+        BalanceableBinaryTree<K, V> tree = map.tree;
+        Entry<K, V> answer = null;
+        Position<Entry<K, V>> p = tree.root();
+        for (int depth = 0; p != null && tree.isInternal(p); depth++) {
+            if (depth > MAX_DEPTH && !lock.validate(stamp)) return RETRY;
+            Entry<K, V> e = p.getElement();
+            int c = compare(key, e);
+            if (c == 0 && (side == 0 || inclusive)) {
+                answer = e;
+                break;
+            }
+            if (side > 0 && c < 0) answer = e;                 // e is above key, look for a closer one
+            if (side < 0 && c > 0) answer = e;                 // e is below key, look for a closer one
+            p = (c < 0 || (c == 0 && side < 0)) ? tree.left(p) : tree.right(p);
+        }
+        return lock.validate(stamp) ? answer : RETRY;
+    }
+
+    /** Runs descend() under an optimistic stamp, and again under the read lock if that fails. */
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> search(K key, int side, boolean inclusive) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                Object answer = descend(key, side, inclusive, stamp);
+                if (answer != RETRY) return (Entry<K, V>) answer;
+            } catch (RuntimeException torn) {
+                // the tree changed under the descent; the stamp will not validate
+            }
+        }
+        retries.increment();
+        stamp = lock.readLock();
+        try {
+            return (Entry<K, V>) descend(key, side, inclusive, stamp);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the number of entries in the map.
+     *
+     * @return number of entries in the map
+     */
+    @Override
+    public int size() {
+        long stamp = lock.tryOptimisticRead();
+        int n = map.size();
+        if (lock.validate(stamp)) return n;
+        stamp = lock.readLock();
+        try {
+            return map.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the value associated with the specified key, or null if no such entry
+     * exists.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the associated value, or null if no such entry exists
+     */
+    @Override
+    public V get(K key) {
+        Entry<K, V> e = search(key, 0, true);
+        return e == null ? null : e.getValue();
+    }
+
+    /**
+     * Associates the given value with the given key. If an entry with the key was
+     * already in the map, this replaced the previous value with the new one and
+     * returns the old value. Otherwise, a new entry is added and null is returned.
+     *
+     * @param key   key with which the specified value is to be associated
+     * @param value value to be associated with the specified key
+     * @return the previous value associated with the key (or null, if no such
+     *         entry)
+     */
+    @Override
+    public V put(K key, V value) throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            return map.put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the entry with the specified key, if present, and returns its
+     * associated value. Otherwise does nothing and returns null.
+     *
+     * @param key the key whose entry is to be removed from the map
+     * @return the previous value associated with the removed key, or null if no
+     *         such entry exists
+     */
+    @Override
+    public V remove(K key) throws IOException {
+        long stamp = lock.writeLock();
+        try {
+            return map.remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the entry having the least key (or null if map is empty).
+     *
+     * @return entry with least key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> firstEntry() {
+        long stamp = lock.readLock();
+        try {
+            return map.firstEntry();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the entry having the greatest key (or null if map is empty).
+     *
+     * @return entry with greatest key (or null if map is empty)
+     */
+    @Override
+    public Entry<K, V> lastEntry() {
+        long stamp = lock.readLock();
+        try {
+            return map.lastEntry();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the entry with least key greater than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with least key greater than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> ceilingEntry(K key) throws IllegalArgumentException {
+        return search(key, 1, true);
+    }
+
+    /**
+     * Returns the entry with least key strictly greater than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with least key strictly greater than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> higherEntry(K key) throws IllegalArgumentException {
+        return search(key, 1, false);
+    }
+
+    /**
+     * Returns the entry with greatest key less than or equal to given key (or null
+     * if no such key exists).
+     *
+     * @return entry with greatest key less than or equal to given (or null if no
+     *         such entry)
+     */
+    @Override
+    public Entry<K, V> floorEntry(K key) throws IllegalArgumentException {
+        return search(key, -1, true);
+    }
+
+    /**
+     * Returns the entry with greatest key strictly less than given key (or null if
+     * no such key exists).
+     *
+     * @return entry with greatest key strictly less than given (or null if no such
+     *         entry)
+     */
+    @Override
+    public Entry<K, V> lowerEntry(K key) throws IllegalArgumentException {
+        return search(key, -1, false);
+    }
+
+    /** Copies the given entries under the read lock. */
+    private Iterable<Entry<K, V>> copy(Iterable<Entry<K, V>> entries) {
+        long stamp = lock.readLock();
+        try {
+            ArrayList<Entry<K, V>> buffer = new ArrayList<>();
+            for (Entry<K, V> entry : entries) buffer.add(entry);
+            return buffer;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns a copy of all entries with keys in the range from
+     * <code>fromKey</code> inclusive to <code>toKey</code> exclusive.
+     *
+     * @return iterable with keys in desired range
+     */
+    @Override
+    public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) throws IllegalArgumentException {
+        return copy(map.subMap(fromKey, toKey));
+    }
+
+    /**
+     * Returns a copy of all key-value entries of the map, in key order.
+     *
+     * @return iterable collection of the map's entries
+     */
+    @Override
+    public Iterable<Entry<K, V>> entrySet() {
+        return copy(map.entrySet());
+    }
+
+    @Override
+    public double loadFactor() {
+        return 0;
+    }
+
+    @Override
+    public int numCollisions() {
+        return 0;
+    }
+
+    public String toString() {
+        return entrySet().toString();
+    }
+}
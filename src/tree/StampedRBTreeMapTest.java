@@ -0,0 +1,133 @@
+package tree;
+
+import org.junit.jupiter.api.Test;
+import interfaces.Entry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StampedRBTreeMapTest {
+
+    /** Orders ints naturally, running the armed action once from inside the next comparison. */
+    private static final class TrippingComparator implements Comparator<Integer> {
+        Runnable armed;
+
+        @Override
+        public int compare(Integer a, Integer b) {
+            Runnable action = armed;
+            armed = null;
+            if(action != null) action.run();
+            return Integer.compare(a, b);
+        }
+    }
+
+    @Test
+    void testFailedValidationRetries() throws IOException {
+        TrippingComparator comp = new TrippingComparator();
+        StampedRBTreeMap<Integer, String> map = new StampedRBTreeMap<>(comp);
+        for(int k = 0; k < 100; k += 2) map.put(k, "v" + k);
+        assertEquals("v40", map.get(40));
+        assertEquals(42, map.ceilingEntry(41).getKey());
+        assertEquals(0, map.optimisticRetries());               // no writer ran during the reads
+
+        // a write lands while get is descending: its answer is thrown away
+        comp.armed = () -> {
+            try {
+                map.remove(40);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        assertNull(map.get(40));
+        assertEquals(1, map.optimisticRetries());
+
+        comp.armed = () -> {
+            try {
+                map.put(41, "new");
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        assertEquals(41, map.ceilingEntry(41).getKey());
+        assertEquals(2, map.optimisticRetries());
+
+        comp.armed = () -> {
+            throw new IllegalStateException("torn read");
+        };
+        assertEquals(38, map.floorEntry(39).getKey());          // an exception in the descent also retries
+        assertEquals(3, map.optimisticRetries());
+    }
+
+    @Test
+    void testCopies() throws IOException {
+        StampedRBTreeMap<Integer, String> map = new StampedRBTreeMap<>();
+        for(int k = 0; k < 50; ++k) map.put(k, "a" + k);
+        Iterable<Entry<Integer, String>> all = map.entrySet(), range = map.subMap(10, 20);
+        for(int k = 0; k < 50; k += 3) map.remove(k);
+        for(int k = 1; k < 50; k += 3) map.put(k, "b" + k);
+        map.put(15, "c");
+        map.put(100, "d");
+        int count = 0;
+        for(Entry<Integer, String> e : all) {
+            assertEquals(count, e.getKey());
+            assertEquals("a" + count++, e.getValue());
+        }
+        assertEquals(50, count);
+        count = 10;
+        for(Entry<Integer, String> e : range) {
+            assertEquals(count, e.getKey());
+            assertEquals("a" + count++, e.getValue());
+        }
+        assertEquals(20, count);
+        assertEquals("[10, 11, 13, 14, 15, 16, 17, 19]", map.subMap(10, 20).toString());
+    }
+
+    @Test
+    void testReadersDuringWrites() throws InterruptedException {
+        StampedRBTreeMap<Integer, String> map = new StampedRBTreeMap<>();
+        int range = 10000;
+        for(int k = 0; k < range; k += 2) {
+            try {
+                map.put(k, "even");
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicBoolean wrong = new AtomicBoolean();
+        List<Thread> readers = new ArrayList<>();
+        for(int t = 0; t < 3; ++t) {
+            final long seed = t;
+            readers.add(new Thread(() -> {
+                Random rnd = new Random(seed);
+                while(!done.get()) {
+                    int k = rnd.nextInt(range / 2) * 2;         // even keys are never removed
+                    if(!"even".equals(map.get(k))) wrong.set(true);
+                    Entry<Integer, String> c = map.ceilingEntry(k - 1), f = map.floorEntry(k + 1);
+                    if(c == null || c.getKey() > k || f == null || f.getKey() < k) wrong.set(true);
+                }
+            }));
+        }
+        for(Thread r : readers) r.start();
+        Random rnd = new Random(42);
+        try {
+            for(int i = 0; i < 200000; ++i) {
+                int k = rnd.nextInt(range / 2) * 2 + 1;          // odd keys come and go
+                if(rnd.nextBoolean()) map.put(k, "odd");
+                else map.remove(k);
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        done.set(true);
+        for(Thread r : readers) r.join();
+        assertFalse(wrong.get());
+    }
+}
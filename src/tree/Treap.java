@@ -1,14 +1,16 @@
 package tree;
 
-import interfaces.List;
 import list.SinglyLinkedList;
 import interfaces.Entry;
 import interfaces.Position;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Random;
+import java.util.function.Function;
 
 //TREAP TIME :(
 
@@ -28,12 +30,55 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
         tree.addRoot(null);
     }
 
+    /**
+     * Constructs an empty treap stored in the given empty tree, such as a
+     * NullLeafBinaryTree, keeping priorities in its aux values.
+     */
+    public Treap(BalanceableBinaryTree<K,V> tree) {
+        super(tree);
+    }
+
+    /**
+     * Returns a treap holding the given entries, built as a perfectly balanced
+     * tree in linear time rather than by n insertions, with random priorities
+     * in heap order.
+     *
+     * @param sorted entries in strictly increasing key order
+     * @return a new treap holding the entries
+     * @throws IllegalArgumentException if the keys are not strictly increasing
+     */
+    public static <K extends Comparable<K>, V> Treap<K,V> fromSorted(List<? extends Entry<K,V>> sorted) {
+        Treap<K,V> treap = new Treap<>();
+        treap.bulkLoad(sorted);
+        return treap;
+    }
+
+    /**
+     * Returns a treap of the given keys, each with the value computed for it,
+     * built as fromSorted() builds it. Keys already in order are loaded in
+     * linear time; others are sorted first. Duplicate keys are stored once.
+     *
+     * @param keys    the keys, in any order
+     * @param valueOf function giving the value for each key
+     * @return a new treap holding the keys
+     */
+    public static <K extends Comparable<K>, V> Treap<K,V> fromSorted(K[] keys, Function<? super K, ? extends V> valueOf) {
+        Treap<K,V> treap = new Treap<>();
+        treap.bulkLoad(treap.sortedEntries(keys, valueOf));
+        return treap;
+    }
+
+    /** Constructs an empty treap stored in the given empty tree, ordering keys by comp. */
+    protected Treap(Comparator<K> comp, BalanceableBinaryTree<K,V> tree) {
+        super(comp, tree);
+    }
+
     protected BalanceableBinaryTree<K,V> makeTree(){
         return new TreapBinaryTree<>();
     }
 
-    protected int priority(TreapBinaryTree.BSTTreapNode<Entry<K, V>> p) {
-        return p.getPriority();
+    protected int priority(Position<Entry<K, V>> p) {
+        return tree.getAux(p);
     }
 
 /*
@@ -44,7 +89,7 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
 
 //modify a nodes priority
     public void setPriority(Position<Entry<K,V>> p, int priority) {
-        ((TreapBinaryTree.BSTTreapNode<Entry<K,V>>) p).setPriority(priority);
+        tree.setAux(p, priority);
     }
 
 
@@ -52,10 +97,13 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
     //ADD NEW ELEMENT
     @Override
     public V put(K key, V value) throws IOException {
+        int before = size();
         V old = super.put(key, value);  //bst insert works here
-        Position<Entry<K, V>> p = treeSearch(tree.root(), key);
-        setPriority(p, rand.nextInt(1000)); //assigns priority
-        rebalanceInsert(p); //rotates new node up based off proiority
+        if (size() > before) {          //an updated entry keeps its priority and place
+            Position<Entry<K, V>> p = treeSearch(tree.root(), key);
+            setPriority(p, rand.nextInt(1000)); //assigns priority
+            rebalanceInsert(p); //rotates new node up based off proiority
+        }
         return old;
     }
 
@@ -71,7 +119,7 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
         if (p != null && p.getElement() != null && p.getElement().getKey().equals(key)) {
             while (!isExternal(left(p)) || !isExternal(right(p))) {             // Rotate the node down to make it a leaf
                 if (!isExternal(left(p)) && !isExternal(right(p))) {
-                    if (priority((TreapBinaryTree.BSTTreapNode<Entry<K, V>>) right(p)) > priority((TreapBinaryTree.BSTTreapNode<Entry<K, V>>) left(p))) {
+                    if (priority(right(p)) > priority(left(p))) {
                         rotate(right(p)); //right child higher priority = rotate left
                     } else {
                         rotate(left(p)); //left child has higher priority or same = rotate right
@@ -87,9 +135,112 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
         return null;
     }
 
+    /**
+     * Builds the balanced tree, then draws one independent random priority per
+     * entry, as put() would, and hands them out in decreasing order from the
+     * root down, level by level, so every parent's priority is at least its
+     * children's and the priorities keep the distribution that the expected
+     * depth of later updates relies on.
+     */
+    @Override
+    protected void bulkLoad(List<? extends Entry<K, V>> sorted) {
+        super.bulkLoad(sorted);
+        int[] priorities = new int[sorted.size()];
+        for (int i = 0; i < priorities.length; i++) priorities[i] = rand.nextInt(1000);
+        Arrays.sort(priorities);
+        int next = priorities.length;
+        for (Position<Entry<K, V>> p : tree.breadthfirst()) {
+            if (isInternal(p)) setPriority(p, priorities[--next]);
+        }
+    }
+
+    //SPLIT AND JOIN
+    /*
+    joining by priority: m is the root unless l or r has a root of higher priority,
+    in which case that root stays on top and m is joined into its inner subtree
+     */
+    @Override
+    protected Position<Entry<K, V>> join(Position<Entry<K, V>> l, Position<Entry<K, V>> m, Position<Entry<K, V>> r) {
+        int pm = priority(m);
+        boolean lAbove = isInternal(l) && priority(l) > pm;
+        boolean rAbove = isInternal(r) && priority(r) > pm;
+        if (lAbove && (!rAbove || priority(l) >= priority(r))) {
+            return tree.link(l, left(l), join(right(l), m, r));
+        }
+        if (rAbove) {
+            return tree.link(r, join(l, m, left(r)), right(r));
+        }
+        return tree.link(m, l, r);
+    }
+
+    /**
+     * Moves the entries with keys greater than or equal to key into a new
+     * treap, which is returned. This treap keeps the smaller keys. Takes
+     * expected O(log n) time in the default TreapBinaryTree, which stores
+     * subtree sizes; in a tree that does not, the entries left below key must
+     * be counted, in O(n) time.
+     *
+     * @param key the least key to move
+     * @return a treap of the moved entries, stored in the same kind of tree
+     * @throws UnsupportedOperationException if the treap is stored in an
+     *                                       ArrayBalanceableBinaryTree
+     */
+    public Treap<K,V> split(K key) {
+        Treap<K,V> upper = new Treap<>(comparator(), tree.emptyTree());
+        splitInto(key, upper);
+        return upper;
+    }
+
+    /**
+     * Moves all entries of right, whose keys must all be greater than this
+     * treap's, to the end of this treap in expected O(log n) time, leaving
+     * right empty.
+     *
+     * @param right a treap stored in the same kind of tree
+     * @throws IllegalArgumentException      if the key ranges overlap
+     * @throws UnsupportedOperationException if the treap is stored in an
+     *                                       ArrayBalanceableBinaryTree
+     */
+    public void join(Treap<K,V> right) {
+        joinFrom(right);
+    }
+
+    /**
+     * Adds the entries of other whose keys are not in this treap, leaving
+     * other empty.
+     *
+     * @param other a treap stored in the same kind of tree
+     * @throws UnsupportedOperationException if the treap is stored in an
+     *                                       ArrayBalanceableBinaryTree
+     */
+    public void union(Treap<K,V> other) {
+        unionWith(other);
+    }
+
+    /**
+     * Removes the entries whose keys are not in other, leaving other empty.
+     *
+     * @param other a treap stored in the same kind of tree
+     * @throws UnsupportedOperationException if the treap is stored in an
+     *                                       ArrayBalanceableBinaryTree
+     */
+    public void intersection(Treap<K,V> other) {
+        intersectWith(other);
+    }
+
+    /**
+     * Removes the entries whose keys are in other, leaving other empty.
+     *
+     * @param other a treap stored in the same kind of tree
+     * @throws UnsupportedOperationException if the treap is stored in an
+     *                                       ArrayBalanceableBinaryTree
+     */
+    public void difference(Treap<K,V> other) {
+        subtract(other);
+    }
+
     protected void rebalanceInsert(Position<Entry<K, V>> p){
-        while (!isRoot(p) && priority((TreapBinaryTree.BSTTreapNode<Entry<K, V>>) p) >
-                priority((TreapBinaryTree.BSTTreapNode<Entry<K, V>>) parent(p))) {
+        while (!isRoot(p) && priority(p) > priority(parent(p))) {
             rotate(p); //rotate up when childs priority higher than parents
         }
     }
@@ -111,22 +262,22 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
 
 
     //MAKES SURE HEAP ORDER (SO PARENT > CHILD)
-    public void isValidHeapSubtree(Position<Entry<K, V>> p, List<String> list) {
+    public void isValidHeapSubtree(Position<Entry<K, V>> p, interfaces.List<String> list) {
         if(isExternal(p)) return;
         Position<Entry<K,V>> left = left(p);
         Position<Entry<K,V>> right = right(p);
 
         if(!isExternal(left)){
-            int parentPriority = ((TreapBinaryTree<K,V>) tree).getPriority(p);
-            int childPriority = ((TreapBinaryTree<K,V>) tree).getPriority(left);
+            int parentPriority = priority(p);
+            int childPriority = priority(left);
             if(parentPriority < childPriority){
                 list.addLast("There is a heap violation at " + p.getElement() + " (priority: " + parentPriority + ") and left child " + left.getElement() + " (priority: " + childPriority + ")");
             }
             isValidHeapSubtree(left, list);
         }
         if(!isExternal(right)){
-            int parentPriority = ((TreapBinaryTree<K,V>) tree).getPriority(p);
-            int childPriority = ((TreapBinaryTree<K,V>) tree).getPriority(right);
+            int parentPriority = priority(p);
+            int childPriority = priority(right);
             if(parentPriority < childPriority){
                 list.addLast("There is a heap violation at " + p.getElement() + " (priority: " + parentPriority + ") and right child " + right.getElement() + " (priority: " + childPriority + ")");
             }
@@ -170,8 +321,7 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
         if (!isExternal(srcLeft)) {
             Position<Entry<K, V>> newLeft = destTree.addLeft(destPos, srcLeft.getElement());
             // Transfer priority from source to destination
-            int priority = ((TreapBinaryTree.BSTTreapNode<Entry<K, V>>) srcLeft).getPriority();
-            ((TreapBinaryTree.BSTTreapNode<Entry<K, V>>) newLeft).setPriority(priority);
+            destTree.setAux(newLeft, priority(srcLeft));
             copySubtree(srcLeft, destTree, newLeft);
         }
 
@@ -180,8 +330,7 @@ public class Treap <K extends Comparable<K>, V> extends TreeMap<K, V> {
         if (!isExternal(srcRight)) {
             Position<Entry<K, V>> newRight = destTree.addRight(destPos, srcRight.getElement());
             // Transfer priority from source to destination
-            int priority = ((TreapBinaryTree.BSTTreapNode<Entry<K, V>>) srcRight).getPriority();
-            ((TreapBinaryTree.BSTTreapNode<Entry<K, V>>) newRight).setPriority(priority);
+            destTree.setAux(newRight, priority(srcRight));
             copySubtree(srcRight, destTree, newRight);
         }
     }
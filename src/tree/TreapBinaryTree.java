@@ -3,7 +3,12 @@ package tree;
 import interfaces.Entry;
 import interfaces.Position;
 
-public class TreapBinaryTree<K extends Comparable<K>, V> extends BalanceableBinaryTree<K,V> {
+/**
+ * The tree a Treap is stored in by default. Its nodes hold a priority as well
+ * as the subtree counts of an OrderStatisticBinaryTree, so that a treap's
+ * rank, select and split take expected O(log n) time.
+ */
+public class TreapBinaryTree<K extends Comparable<K>, V> extends OrderStatisticBinaryTree<K,V> {
     public TreapBinaryTree() {
         super();
     }
@@ -13,12 +18,28 @@ public class TreapBinaryTree<K extends Comparable<K>, V> extends BalanceableBina
         return new BSTTreapNode<>(entry, parent, left, right, 0);
     }
 
+    @Override
+    public BalanceableBinaryTree<K,V> emptyTree() {
+        return new TreapBinaryTree<>();
+    }
+
     public int getPriority(Position<Entry<K,V>> p) {
         BSTTreapNode<Entry<K,V>> node = (BSTTreapNode<Entry<K, V>>) validate(p);
         return node.getPriority();
     }
 
-    protected static class BSTTreapNode<E extends Comparable<E>> extends Node<E> {
+    // the aux value of a treap node is its priority
+    @Override
+    public int getAux(Position<Entry<K,V>> p) {
+        return getPriority(p);
+    }
+
+    @Override
+    public void setAux(Position<Entry<K,V>> p, int value) {
+        ((BSTTreapNode<Entry<K, V>>) validate(p)).setPriority(value);
+    }
+
+    protected static class BSTTreapNode<E extends Comparable<E>> extends SizedNode<E> {
 
         private int priority;
 
@@ -4,11 +4,13 @@ import list.SinglyLinkedList;
 import org.junit.jupiter.api.Test;
 import interfaces.Position;
 import interfaces.Entry;
+import utils.MapEntry;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -124,4 +126,102 @@ class TreapTest {
 
 
 
+
+    /** Fails unless the priorities below p are in heap order. */
+    private void checkHeap(Treap<Integer, String> treap, Position<Entry<Integer, String>> p) {
+        if (treap.isExternal(p)) return;
+        for (Position<Entry<Integer, String>> c : List.of(treap.left(p), treap.right(p))) {
+            if (treap.isInternal(c)) assertTrue(treap.priority(c) <= treap.priority(p));
+            checkHeap(treap, c);
+        }
+    }
+
+    @Test
+    public void testFromSorted() throws IOException {
+        List<Entry<Integer, String>> entries = new ArrayList<>();
+        for (int i = 0; i < 1000; ++i) entries.add(new MapEntry<>(i, "v" + i));
+        Treap<Integer, String> treap = Treap.fromSorted(entries);
+        assertEquals(1000, treap.size());
+        checkHeap(treap, treap.root());
+        assertEquals("v999", treap.get(999));
+        for (int i = 0; i < 1000; i += 2) treap.remove(i);
+        treap.put(-1, "x");
+        checkHeap(treap, treap.root());
+        assertEquals(501, treap.size());
+        assertEquals(501, treap.tree.subtreeSize(treap.root()));
+
+        Treap<Integer, String> keys = Treap.fromSorted(new Integer[] {5, 3, 9, 3, 1}, k -> "v" + k);
+        assertEquals("[1, 3, 5, 9]", keys.entrySet().toString());
+        checkHeap(keys, keys.root());
+    }
+
+    @Test
+    public void testFromSortedPriorities() throws IOException {
+        List<Entry<Integer, String>> entries = new ArrayList<>();
+        for (int i = 0; i < 20000; ++i) entries.add(new MapEntry<>(2 * i, "v" + i));
+        Treap<Integer, String> treap = Treap.fromSorted(entries);
+        long sum = 0;
+        for (Position<Entry<Integer, String>> p : treap.tree.inorder()) {
+            if (treap.isInternal(p)) sum += treap.priority(p);
+        }
+        double mean = (double) sum / treap.size();      // uniform priorities in [0, 1000) average 499.5
+        assertTrue(mean > 480 && mean < 520, "mean priority " + mean);
+        Random rnd = new Random(9);
+        for (int i = 0; i < 20000; ++i) treap.put(2 * rnd.nextInt(20000) + 1, "x");
+        for (int i = 0; i < 10000; ++i) treap.remove(2 * rnd.nextInt(20000));
+        checkHeap(treap, treap.root());
+        // a treap of random priorities has expected height below 4.4 ln n, about 45 here
+        assertTrue(treap.tree.height(treap.root()) <= 60, "height " + treap.tree.height(treap.root()));
+    }
+
+    private static Treap<Integer, String> randomTreap(java.util.TreeMap<Integer, String> expected, int n, String tag, Random rnd) throws IOException {
+        Treap<Integer, String> treap = new Treap<>();
+        for (int i = 0; i < n; ++i) {
+            int k = rnd.nextInt(3000);
+            treap.put(k, tag + k);
+            expected.put(k, tag + k);
+        }
+        return treap;
+    }
+
+    private void assertSameEntries(java.util.TreeMap<Integer, String> expected, Treap<Integer, String> treap) throws IOException {
+        assertEquals(expected.size(), treap.size());
+        assertEquals(expected.size(), treap.tree.subtreeSize(treap.root()));
+        assertEquals(expected.keySet().toString(), treap.entrySet().toString());
+        for (Integer k : expected.keySet()) assertEquals(expected.get(k), treap.get(k));
+        checkHeap(treap, treap.root());
+    }
+
+    @Test
+    public void testSplitJoinAndSetOperations() throws IOException {
+        Random rnd = new Random(8);
+        for (int round = 0; round < 10; ++round) {
+            java.util.TreeMap<Integer, String> ea = new java.util.TreeMap<>(), eb = new java.util.TreeMap<>();
+            Treap<Integer, String> a = randomTreap(ea, rnd.nextInt(1000), "a", rnd);
+            int key = rnd.nextInt(3000);
+            Treap<Integer, String> upper = a.split(key);
+            assertSameEntries(new java.util.TreeMap<>(ea.headMap(key)), a);
+            assertSameEntries(new java.util.TreeMap<>(ea.tailMap(key)), upper);
+            a.join(upper);
+            assertTrue(upper.isEmpty());
+            assertSameEntries(ea, a);
+
+            Treap<Integer, String> b = randomTreap(eb, rnd.nextInt(1000), "b", rnd);
+            java.util.TreeMap<Integer, String> union = new java.util.TreeMap<>(eb);
+            union.putAll(ea);
+            java.util.TreeMap<Integer, String> intersection = new java.util.TreeMap<>(ea);
+            intersection.keySet().retainAll(eb.keySet());
+            java.util.TreeMap<Integer, String> difference = new java.util.TreeMap<>(ea);
+            difference.keySet().removeAll(eb.keySet());
+            Treap<Integer, String> c = new Treap<>(), d = new Treap<>(), e = new Treap<>(), f = new Treap<>();
+            for (Integer k : ea.keySet()) { c.put(k, "a" + k); e.put(k, "a" + k); }
+            for (Integer k : eb.keySet()) { d.put(k, "b" + k); f.put(k, "b" + k); }
+            a.union(b);
+            assertSameEntries(union, a);
+            c.intersection(d);
+            assertSameEntries(intersection, c);
+            e.difference(f);
+            assertSameEntries(difference, e);
+        }
+    }
 }
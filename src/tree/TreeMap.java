@@ -2,14 +2,25 @@ package tree;
 
 import interfaces.Entry;
 import interfaces.Position;
+import utils.DefaultComparator;
 import utils.MapEntry;
 
 import java.io.IOException;
 //import java.util.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * An implementation of a sorted map using a binary search tree.
@@ -20,6 +31,16 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 
 	protected BalanceableBinaryTree<K, V> tree = new BalanceableBinaryTree<>();
 
+	/** Number of changes to the set of entries (insertions, removals) so far. */
+	protected int modCount = 0;
+
+	/**
+	 * Number of rotations so far. Iterators walk from successor to successor,
+	 * which rotations preserve, so only spliterators, which hold a stack of
+	 * subtrees, check this.
+	 */
+	protected int rotationCount = 0;
+
 	/** Constructs an empty map using the natural ordering of keys. */
 	public TreeMap() {
 		super(); // the AbstractSortedMap constructor
@@ -36,6 +57,30 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 		tree.addRoot(null); // create a sentinel leaf as root
 	}
 
+	/**
+	 * Constructs an empty map stored in the given empty tree, using the natural
+	 * ordering of keys.
+	 *
+	 * @param tree an empty tree to hold the entries
+	 */
+	protected TreeMap(BalanceableBinaryTree<K, V> tree) {
+		this(new DefaultComparator<>(), tree);
+	}
+
+	/**
+	 * Constructs an empty map stored in the given empty tree, such as a
+	 * NullLeafBinaryTree or an ArrayBalanceableBinaryTree, using the given
+	 * comparator to order keys.
+	 *
+	 * @param comp comparator defining the order of keys in the map
+	 * @param tree an empty tree to hold the entries
+	 */
+	protected TreeMap(Comparator<K> comp, BalanceableBinaryTree<K, V> tree) {
+		super(comp);
+		this.tree = tree;
+		tree.addRoot(null);
+	}
+
 	/**
 	 * Returns the number of entries in the map.
 	 *
@@ -47,6 +92,7 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	}
 
 	protected Position<Entry<K, V>> restructure(Position<Entry<K, V>> x) throws IOException {
+		rotationCount++;
 		return tree.restructure(x);
 	}
 
@@ -81,8 +127,101 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 		// LEAVE EMPTY
 	}
 
+	/**
+	 * Fills this empty map with the given entries, which must be sorted by
+	 * strictly increasing key, by building a perfectly balanced tree in linear
+	 * time rather than performing n insertions. Subclasses set up their balance
+	 * information in bulkLoaded(). Trees that can relink subtrees are built
+	 * bottom-up from detached subtrees, so that one storing subtree sizes
+	 * counts each position once rather than updating the counts above it.
+	 *
+	 * @param sorted entries in increasing key order
+	 * @throws IllegalStateException    if the map is not empty
+	 * @throws IllegalArgumentException if the keys are not strictly increasing
+	 */
+	protected void bulkLoad(List<? extends Entry<K, V>> sorted) {
+		if (!isEmpty()) throw new IllegalStateException("bulk load into a non-empty map");
+		for (int i = 1; i < sorted.size(); i++) {
+			if (compare(sorted.get(i - 1), sorted.get(i)) >= 0) {
+				throw new IllegalArgumentException("keys are not strictly increasing at index " + i);
+			}
+		}
+		modCount++;
+		if (tree.canRelink()) {
+			tree.install(buildDetached(sorted, 0, sorted.size() - 1, 0), sorted.size());
+		} else {
+			buildSubtree(root(), sorted, 0, sorted.size() - 1, 0);
+		}
+	}
+
+	/**
+	 * Returns entries pairing each of the given keys with the value computed
+	 * for it, in increasing key order with duplicate keys dropped, ready for
+	 * bulkLoad(). Keys already in order are checked in linear time; otherwise a
+	 * sorted copy is made, in O(n log n) time. The array is not modified.
+	 *
+	 * @param keys    the keys, in any order
+	 * @param valueOf function giving the value for each key
+	 * @return the entries in strictly increasing key order
+	 */
+	protected List<Entry<K, V>> sortedEntries(K[] keys, Function<? super K, ? extends V> valueOf) {
+		K[] sorted = keys;
+		for (int i = 1; i < keys.length; i++) {
+			if (compare(keys[i - 1], keys[i]) > 0) {
+				sorted = keys.clone();
+				Arrays.sort(sorted, this::compare);
+				break;
+			}
+		}
+		List<Entry<K, V>> entries = new ArrayList<>(sorted.length);
+		for (int i = 0; i < sorted.length; i++) {
+			if (i > 0 && compare(sorted[i - 1], sorted[i]) == 0) continue;
+			entries.add(new MapEntry<>(sorted[i], valueOf.apply(sorted[i])));
+		}
+		return entries;
+	}
+
+	/** Returns the root of a detached subtree built from sorted[lo..hi], splitting at the middle. */
+	private Position<Entry<K, V>> buildDetached(List<? extends Entry<K, V>> sorted, int lo, int hi, int depth) {
+		if (lo > hi) return tree.newLeaf();
+		int mid = (lo + hi) >>> 1;
+		Position<Entry<K, V>> l = buildDetached(sorted, lo, mid - 1, depth + 1);
+		Position<Entry<K, V>> r = buildDetached(sorted, mid + 1, hi, depth + 1);
+		Position<Entry<K, V>> p = tree.newLeaf();
+		tree.set(p, sorted.get(mid));
+		tree.link(p, l, r);
+		bulkLoaded(p, depth, sorted.size());
+		return p;
+	}
+
+	/** Builds the subtree at leaf p from sorted[lo..hi], splitting at the middle. */
+	private void buildSubtree(Position<Entry<K, V>> p, List<? extends Entry<K, V>> sorted, int lo, int hi, int depth) {
+		if (lo > hi) return;
+		int mid = (lo + hi) >>> 1;
+		expandExternal(p, sorted.get(mid));
+		buildSubtree(left(p), sorted, lo, mid - 1, depth + 1);
+		buildSubtree(right(p), sorted, mid + 1, hi, depth + 1);
+		bulkLoaded(p, depth, sorted.size());
+	}
+
+	/**
+	 * Called by bulkLoad() for each new internal position after both of its
+	 * subtrees are complete. Internal positions of the built tree have depth at
+	 * most floor(log2 n), and all its leaves have depth floor(log2 n) or
+	 * floor(log2 n) + 1. This version does nothing, but it
+	 * can be overridden by subclasses that keep balance information.
+	 *
+	 * @param p     the position just built
+	 * @param depth the depth of p
+	 * @param n     the number of entries being loaded
+	 */
+	protected void bulkLoaded(Position<Entry<K, V>> p, int depth, int n) {
+		// LEAVE EMPTY
+	}
+
 	/** Utility used when inserting a new entry at a leaf of the tree */
 	private void expandExternal(Position<Entry<K, V>> p, Entry<K, V> entry) {
+		modCount++;
 		tree.set(p,entry);
 		tree.addLeft(p, null);
 		tree.addRight(p, null);
@@ -121,9 +260,16 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	}
 
 	protected Entry<K, V> remove(Position<Entry<K, V>> p) {
+		modCount++;
 		return tree.remove(p);
 	}
 
+	/** Removes a leaf and its parent, returning the sibling that takes the parent's place. */
+	protected Position<Entry<K, V>> removeExternal(Position<Entry<K, V>> leaf) {
+		modCount++;
+		return tree.removeExternal(leaf);
+	}
+
 	/**
 	 * Returns the position in p's subtree having the given key (or else the
 	 * terminal leaf).
@@ -133,18 +279,14 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 * @return Position holding key, or last node reached during search
 	 */
 	public Position<Entry<K, V>> treeSearch(Position<Entry<K, V>> p, K key) {
-		if (isExternal(p)) {
-			return p;
-		}
-
-		int comp = compare(key, p.getElement());
-		if (comp == 0) {
-			return p;
-		} else if (comp < 0) {
-			return treeSearch(left(p), key);
-		} else {
-			return treeSearch(right(p), key);
+		while (isInternal(p)) {
+			int comp = compare(key, p.getElement());
+			if (comp == 0) {
+				return p;
+			}
+			p = (comp < 0) ? left(p) : right(p);
 		}
+		return p;
 	}
 
 	/**
@@ -245,10 +387,7 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 			}
 			Position<Entry<K,V>> leaf = (isExternal(left(p)) ?
 					left(p) : right(p));
-			Position<Entry<K, V>> sib = sibling(leaf);
-			remove(leaf);
-			remove(p);
-			rebalanceDelete(sib);
+			rebalanceDelete(removeExternal(leaf));
 			return old;
 		}
 	}
@@ -277,6 +416,20 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 		return treeMax(root()).getElement();
 	}
 
+	/**
+	 * Returns the position with the least key greater than that of internal
+	 * position p, or null if p holds the greatest key.
+	 */
+	protected Position<Entry<K, V>> successor(Position<Entry<K, V>> p) {
+		if (isInternal(right(p))) {
+			return treeMin(right(p));
+		}
+		while (!isRoot(p) && p.equals(right(parent(p)))) {
+			p = parent(p);
+		}
+		return isRoot(p) ? null : parent(p);
+	}
+
 	/**
 	 * Returns the entry with least key greater than or equal to given key (or null
 	 * if no such key exists).
@@ -287,12 +440,17 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	@Override
 	public Entry<K, V> ceilingEntry(K key) throws IllegalArgumentException {
+		Position<Entry<K,V>> p = ceilingPosition(key);
+		return p == null ? null : p.getElement();
+	}
 
+	/** Returns the position with the least key greater than or equal to key, or null. */
+	protected Position<Entry<K, V>> ceilingPosition(K key) {
 		Position<Entry<K,V>> p = treeSearch(root(), key);
-		if(isInternal(p)){ return p.getElement(); }
+		if(isInternal(p)){ return p; }
 		while(!isRoot(p)){
-			if(p == left(parent(p))){
-				return parent(p).getElement();
+			if(p.equals(left(parent(p)))){
+				return parent(p);
 			} else{
 				p = parent(p);
 			}
@@ -314,7 +472,7 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 		Position<Entry<K,V>> p = treeSearch(root(), key);
 		if(isInternal(p)){ return p.getElement(); }
 		while(!isRoot(p)){
-			if(p == right(parent(p))){
+			if(p.equals(right(parent(p)))){
 				return parent(p).getElement();
 			} else{
 				p = parent(p);
@@ -341,7 +499,7 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 			return treeMax(left(p)).getElement( );
 		}
 		while (!isRoot(p)) {
-			if (p == right(parent(p))) {
+			if (p.equals(right(parent(p)))) {
 				return parent(p).getElement( );
 			}
 			else {
@@ -369,7 +527,7 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 			return treeMin(right(p)).getElement( );
 		}
 		while (!isRoot(p)) {
-			if (p == left(parent(p))) {
+			if (p.equals(left(parent(p)))) {
 				return parent(p).getElement( );
 			}
 			else {
@@ -380,22 +538,489 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 
 	}
 
+	// Order statistics
+	/*
+	 * These count subtrees with tree.subtreeSize(), which takes constant time
+	 * in an OrderStatisticBinaryTree, so each query takes O(log n) time in a
+	 * balanced map stored in one, as AVLTreeMap and Treap are by default; in
+	 * other trees, including the default tree of TreeMap, RBTreeMap and
+	 * SplayTreeMap, they still answer correctly but count the subtrees they
+	 * pass over, in O(n) time.
+	 */
+
+	/**
+	 * Returns the number of entries with keys strictly less than the given key,
+	 * which is the index the key has, or would have, in key order. Takes time
+	 * proportional to the height of the tree if it stores subtree sizes, as
+	 * an OrderStatisticBinaryTree does, and O(n) time otherwise.
+	 *
+	 * @param key the key to rank
+	 * @return the number of keys less than key
+	 * @throws IllegalArgumentException if the key is not compatible with the map
+	 */
+	public int rank(K key) throws IllegalArgumentException {
+		int rank = 0;
+		Position<Entry<K, V>> p = root();
+		while (isInternal(p)) {
+			if (compare(key, p.getElement()) <= 0) {
+				p = left(p);
+			} else {
+				rank += tree.subtreeSize(left(p)) + 1;
+				p = right(p);
+			}
+		}
+		return rank;
+	}
+
+	/**
+	 * Returns the entry at the given index in key order, so select(0) is the
+	 * first entry and select(size() - 1) the last. Takes time proportional to
+	 * the height of the tree if it stores subtree sizes, as an
+	 * OrderStatisticBinaryTree does, and O(n) time otherwise.
+	 *
+	 * @param index the index of the entry, from 0
+	 * @return the entry with exactly index smaller keys
+	 * @throws IndexOutOfBoundsException if index is negative or not less than size()
+	 */
+	public Entry<K, V> select(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size()) throw new IndexOutOfBoundsException("index " + index + ", size " + size());
+		Position<Entry<K, V>> p = root();
+		while (true) {
+			int leftSize = tree.subtreeSize(left(p));
+			if (index < leftSize) {
+				p = left(p);
+			} else if (index == leftSize) {
+				return p.getElement();
+			} else {
+				index -= leftSize + 1;
+				p = right(p);
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of entries with keys in the range from
+	 * <code>fromKey</code> inclusive to <code>toKey</code> exclusive, the entries
+	 * subMap() would report, without visiting them. Takes time proportional
+	 * to the height of the tree if it stores subtree sizes, as an
+	 * OrderStatisticBinaryTree does, and O(n) time otherwise.
+	 *
+	 * @return the number of keys in the range
+	 * @throws IllegalArgumentException if <code>fromKey</code> or
+	 *                                  <code>toKey</code> is not compatible with
+	 *                                  the map
+	 */
+	public int countRange(K fromKey, K toKey) throws IllegalArgumentException {
+		if (compare(fromKey, toKey) >= 0) return 0;
+		return rank(toKey) - rank(fromKey);
+	}
+
+	// Split and join
+	/*
+	 * Structural split and join in the style of Blelloch, Ferizovic and Sun,
+	 * "Just Join for Parallel Ordered Sets": split takes subtrees apart at
+	 * their roots along the search path for a key, and every other operation,
+	 * including putting split parts back together, goes through join(l, m, r),
+	 * which a balanced subclass overrides to keep its balance condition. Nodes
+	 * move between the two maps' trees rather than being copied, so both maps
+	 * must be stored in linked trees of the same kind. Subtrees passed between
+	 * these methods are detached; see BalanceableBinaryTree.link().
+	 *
+	 * The structural work is proportional to the height of the trees, but the
+	 * maps must also learn their new sizes. A tree that stores subtree sizes,
+	 * such as an OrderStatisticBinaryTree, gives them in constant time; any
+	 * other tree counts the entries left below the split key, in O(n) time.
+	 * An ArrayBalanceableBinaryTree cannot move subtrees between the arrays of
+	 * two trees, so these operations throw UnsupportedOperationException for
+	 * maps stored in one.
+	 */
+
+	/** A subtree split at a key: the keys below it, the position holding it (or null), the keys above it. */
+	protected final class Split {
+		final Position<Entry<K, V>> below, match, above;
+
+		Split(Position<Entry<K, V>> below, Position<Entry<K, V>> match, Position<Entry<K, V>> above) {
+			this.below = below;
+			this.match = match;
+			this.above = above;
+		}
+	}
+
+	/**
+	 * Returns the root of a tree holding the subtree l, the entry at m and the
+	 * subtree r, where every key in l is less than m's and every key in r
+	 * greater. This version just hangs l and r below m; subclasses override it
+	 * to rebalance.
+	 */
+	protected Position<Entry<K, V>> join(Position<Entry<K, V>> l, Position<Entry<K, V>> m, Position<Entry<K, V>> r) {
+		return tree.link(m, l, r);
+	}
+
+	/** Returns the root of a tree holding subtree l and then subtree r, all of whose keys are greater. */
+	protected Position<Entry<K, V>> join(Position<Entry<K, V>> l, Position<Entry<K, V>> r) {
+		if (isExternal(l)) return r;
+		Split last = splitLast(l);
+		return join(last.below, last.match, r);
+	}
+
+	/** Splits subtree t into the position with its greatest key (as match) and the rest (as below). */
+	private Split splitLast(Position<Entry<K, V>> t) {
+		Position<Entry<K, V>> l = left(t), r = right(t);
+		if (isExternal(r)) return new Split(l, t, null);
+		Split last = splitLast(r);
+		return new Split(join(l, t, last.below), last.match, null);
+	}
+
+	/** Splits subtree t into the parts with keys below and above key, and the position with key, if any. */
+	protected Split split(Position<Entry<K, V>> t, K key) {
+		if (isExternal(t)) return new Split(t, null, tree.newLeaf());
+		Position<Entry<K, V>> l = left(t), r = right(t);
+		int c = compare(key, t.getElement());
+		if (c == 0) return new Split(l, t, r);
+		if (c < 0) {
+			Split s = split(l, key);
+			return new Split(s.below, s.match, join(s.above, t, r));
+		}
+		Split s = split(r, key);
+		return new Split(join(l, t, s.below), s.match, s.above);
+	}
+
+	/** Checks that other's entries can be moved into this map's tree. */
+	private void checkRelinkable(TreeMap<K, V> other) {
+		if (!tree.canRelink()) throw new UnsupportedOperationException("the tree cannot relink subtrees");
+		if (other == this) throw new IllegalArgumentException("a map cannot be combined with itself");
+		if (tree.getClass() != other.tree.getClass()) {
+			throw new IllegalArgumentException("maps are stored in different kinds of tree");
+		}
+	}
+
+	/** Makes the detached subtree at p, with the given number of entries, this map's whole tree. */
+	private void install(Position<Entry<K, V>> p, int entries) {
+		modCount++;
+		tree.install(p, entries);
+	}
+
+	/**
+	 * Moves the entries with keys greater than or equal to key from this map
+	 * into the empty map upper, taking time proportional to the height of the
+	 * tree if it stores subtree sizes, and O(n) time to count the entries left
+	 * below key otherwise.
+	 *
+	 * @param key   the least key to move
+	 * @param upper an empty map stored in the same kind of tree
+	 * @throws UnsupportedOperationException if the tree cannot relink subtrees
+	 */
+	protected void splitInto(K key, TreeMap<K, V> upper) {
+		checkRelinkable(upper);
+		if (!upper.isEmpty()) throw new IllegalArgumentException("split into a non-empty map");
+		int n = size();
+		Split s = split(root(), key);
+		int below = tree.subtreeSize(s.below);
+		Position<Entry<K, V>> above = s.match == null ? s.above : join(tree.newLeaf(), s.match, s.above);
+		install(s.below, below);
+		upper.install(above, n - below);
+	}
+
+	/**
+	 * Moves every entry of right, whose keys must all be greater than those of
+	 * this map, to the end of this map, leaving right empty.
+	 *
+	 * @param right the map to append
+	 * @throws IllegalArgumentException      if the key ranges overlap
+	 * @throws UnsupportedOperationException if the tree cannot relink subtrees
+	 */
+	protected void joinFrom(TreeMap<K, V> right) {
+		checkRelinkable(right);
+		if (!isEmpty() && !right.isEmpty() && compare(lastEntry(), right.firstEntry()) >= 0) {
+			throw new IllegalArgumentException("keys of the right map must follow those of this map");
+		}
+		int n = size() + right.size();
+		Position<Entry<K, V>> joined = join(root(), right.root());
+		right.install(right.tree.newLeaf(), 0);
+		install(joined, n);
+	}
+
+	/** The set operations, which count the keys found in both maps along the way. */
+	private class SetOperation {
+		int common = 0;
+
+		/** Returns a tree of the keys of a or b; for keys in both it keeps a's entry. */
+		Position<Entry<K, V>> union(Position<Entry<K, V>> a, Position<Entry<K, V>> b) {
+			if (isExternal(b)) return a;
+			if (isExternal(a)) return b;
+			Position<Entry<K, V>> l = left(a), r = right(a);
+			Split s = split(b, a.getElement().getKey());
+			if (s.match != null) common++;
+			return join(union(l, s.below), a, union(r, s.above));
+		}
+
+		/** Returns a tree of a's entries whose keys are also in b. */
+		Position<Entry<K, V>> intersection(Position<Entry<K, V>> a, Position<Entry<K, V>> b) {
+			if (isExternal(a)) return a;
+			if (isExternal(b)) return b;
+			Position<Entry<K, V>> l = left(a), r = right(a);
+			Split s = split(b, a.getElement().getKey());
+			Position<Entry<K, V>> below = intersection(l, s.below), above = intersection(r, s.above);
+			if (s.match == null) return join(below, above);
+			common++;
+			return join(below, a, above);
+		}
+
+		/** Returns a tree of a's entries whose keys are not in b. */
+		Position<Entry<K, V>> difference(Position<Entry<K, V>> a, Position<Entry<K, V>> b) {
+			if (isExternal(a) || isExternal(b)) return a;
+			Position<Entry<K, V>> l = left(a), r = right(a);
+			Split s = split(b, a.getElement().getKey());
+			Position<Entry<K, V>> below = difference(l, s.below), above = difference(r, s.above);
+			if (s.match == null) return join(below, a, above);
+			common++;
+			return join(below, above);
+		}
+	}
+
+	/**
+	 * Makes this map the union of itself and other, keeping this map's value
+	 * for keys in both, and leaves other empty. For maps of m and n entries,
+	 * m &lt;= n, this takes O(m log(n/m + 1)) time.
+	 *
+	 * @param other a map stored in the same kind of tree
+	 */
+	protected void unionWith(TreeMap<K, V> other) {
+		checkRelinkable(other);
+		SetOperation op = new SetOperation();
+		int n = size() + other.size();
+		Position<Entry<K, V>> result = op.union(root(), other.root());
+		other.install(other.tree.newLeaf(), 0);
+		install(result, n - op.common);
+	}
+
+	/**
+	 * Keeps only the entries of this map whose keys are also in other, and
+	 * leaves other empty.
+	 *
+	 * @param other a map stored in the same kind of tree
+	 */
+	protected void intersectWith(TreeMap<K, V> other) {
+		checkRelinkable(other);
+		SetOperation op = new SetOperation();
+		Position<Entry<K, V>> result = op.intersection(root(), other.root());
+		other.install(other.tree.newLeaf(), 0);
+		install(result, op.common);
+	}
+
+	/**
+	 * Removes the entries of this map whose keys are in other, and leaves
+	 * other empty.
+	 *
+	 * @param other a map stored in the same kind of tree
+	 */
+	protected void subtract(TreeMap<K, V> other) {
+		checkRelinkable(other);
+		SetOperation op = new SetOperation();
+		int n = size();
+		Position<Entry<K, V>> result = op.difference(root(), other.root());
+		other.install(other.tree.newLeaf(), 0);
+		install(result, n - op.common);
+	}
+
 	// Support for iteration
 
+	// ---------------- nested EntryIterator class ----------------
+	/*
+	 * Walks the tree in key order from successor to successor, without
+	 * copying it, and stops before the first key not below an optional upper
+	 * bound. Fails fast if an entry is added or removed during iteration;
+	 * rotations, such as a SplayTreeMap makes on every lookup, keep the key
+	 * order and so do not disturb it.
+	 */
+	private class EntryIterator implements Iterator<Entry<K, V>> {
+		private final int expectedModCount = modCount;
+		private final K toKey;					// exclusive bound, or null for none
+		private Position<Entry<K, V>> next;		// null once iteration is over
+
+		EntryIterator(Position<Entry<K, V>> start, K toKey) {
+			this.toKey = toKey;
+			this.next = start;
+			checkBound();
+		}
+
+		private void checkBound() {
+			if (next != null && toKey != null && compare(next.getElement(), toKey) >= 0) next = null;
+		}
+
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		public Entry<K, V> next() {
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+			if (next == null) throw new NoSuchElementException();
+			Position<Entry<K, V>> p = next;
+			next = successor(p);
+			checkBound();
+			return p.getElement();
+		}
+	} // ----------- end of nested EntryIterator class -----------
+
+	// ---------------- nested EntryIterable class ----------------
+	/*
+	 * The entries with keys from fromKey (null for the least) up to but not
+	 * including toKey (null for none), found afresh for each iterator.
+	 */
+	private class EntryIterable implements Iterable<Entry<K, V>> {
+		private final K fromKey, toKey;
+
+		EntryIterable(K fromKey, K toKey) {
+			this.fromKey = fromKey;
+			this.toKey = toKey;
+		}
+
+		public Iterator<Entry<K, V>> iterator() {
+			Position<Entry<K, V>> start = fromKey == null ? treeMin(root()) : ceilingPosition(fromKey);
+			return new EntryIterator(start, toKey);
+		}
+
+		public String toString() {
+			StringBuilder sb = new StringBuilder("[");
+			for (Entry<K, V> e : this) {
+				if (sb.length() > 1) sb.append(", ");
+				sb.append(e);
+			}
+			return sb.append("]").toString();
+		}
+	} // ----------- end of nested EntryIterable class -----------
+
 	/**
-	 * Returns an iterable collection of all key-value entries of the map.
+	 * Returns an iterable collection of all key-value entries of the map, in
+	 * key order. The entries are visited in place rather than copied.
 	 *
 	 * @return iterable collection of the map's entries
 	 */
 	@Override
 	public Iterable<Entry<K, V>> entrySet() {
-		ArrayList<Entry<K, V>> buffer = new ArrayList<>(size());
-		for(Position<Entry<K,V>> p : tree.inorder()){
-			if(isInternal(p)){
-				buffer.add(p.getElement());
+		return new EntryIterable(null, null);
+	}
+
+	/**
+	 * Performs the given action for each entry of the map, in key order,
+	 * without allocating an iterator.
+	 *
+	 * @param action the action to be performed for each key and value
+	 * @throws ConcurrentModificationException if the action adds or removes an entry
+	 */
+	@Override
+	public void forEach(BiConsumer<? super K, ? super V> action) {
+		int expectedModCount = modCount;
+		for (Position<Entry<K, V>> p = treeMin(root()); p != null; p = successor(p)) {
+			Entry<K, V> entry = p.getElement();
+			action.accept(entry.getKey(), entry.getValue());
+			if (modCount != expectedModCount) throw new ConcurrentModificationException();
+		}
+	}
+
+	// ---------------- nested EntrySpliterator class ----------------
+	/*
+	 * Covers an optional single position followed by the whole subtree rooted
+	 * at another. Splitting hands off the first position and the left subtree,
+	 * and keeps the subtree's root and its right subtree, so both halves have
+	 * the same shape and, in a balanced tree, about the same size. In an
+	 * OrderStatisticBinaryTree the halves are sized from the stored subtree
+	 * counts; otherwise the sizes after a split are estimates, half of the
+	 * parent subtree, as java.util.TreeMap estimates them. Once traversal
+	 * reaches the subtree, it no longer splits.
+	 */
+	private class EntrySpliterator implements Spliterator<Entry<K, V>> {
+		private final int expectedModCount, expectedRotationCount;
+		private Position<Entry<K, V>> first;		// visited before the subtree, or null
+		private Position<Entry<K, V>> subtree;		// root of the rest, possibly a leaf
+		private long est;							// estimated size of the subtree
+		private boolean exact;						// whether est is exact
+		private Deque<Position<Entry<K, V>>> stack;	// set once traversal enters the subtree
+
+		EntrySpliterator(Position<Entry<K, V>> first, Position<Entry<K, V>> subtree, long est,
+						 boolean exact, int expectedModCount, int expectedRotationCount) {
+			this.first = first;
+			this.subtree = subtree;
+			this.est = est;
+			this.exact = exact;
+			this.expectedModCount = expectedModCount;
+			this.expectedRotationCount = expectedRotationCount;
+		}
+
+		/** Whether the tree stores subtree sizes, so that splits keep est exact. */
+		private boolean counted() {
+			return tree instanceof OrderStatisticBinaryTree;
+		}
+
+		public Spliterator<Entry<K, V>> trySplit() {
+			if (stack != null || subtree == null || isExternal(subtree)) return null;
+			boolean counted = exact && counted();
+			long leftEst = counted ? tree.subtreeSize(left(subtree)) : (est - 1) / 2;
+			EntrySpliterator prefix = new EntrySpliterator(first, left(subtree), leftEst, counted, expectedModCount, expectedRotationCount);
+			first = subtree;
+			subtree = right(subtree);
+			est = est - 1 - leftEst;
+			exact = counted;
+			return prefix;
+		}
+
+		public boolean tryAdvance(Consumer<? super Entry<K, V>> action) {
+			if (modCount != expectedModCount || rotationCount != expectedRotationCount) {
+				throw new ConcurrentModificationException();
 			}
+			Position<Entry<K, V>> p;
+			if (first != null) {
+				p = first;
+				first = null;
+			} else {
+				if (stack == null) {
+					stack = new ArrayDeque<>();
+					descend(subtree);
+				}
+				if (stack.isEmpty()) return false;
+				p = stack.pop();
+				descend(right(p));
+				est--;
+			}
+			action.accept(p.getElement());
+			return true;
 		}
-		return buffer;
+
+		private void descend(Position<Entry<K, V>> p) {
+			for (; p != null && isInternal(p); p = left(p)) stack.push(p);
+		}
+
+		public void forEachRemaining(Consumer<? super Entry<K, V>> action) {
+			while (tryAdvance(action)) {
+				// tryAdvance checks for modification on each step
+			}
+		}
+
+		public long estimateSize() {
+			return Math.max(est, 0) + (first != null ? 1 : 0);
+		}
+
+		public int characteristics() {
+			int sized = exact ? Spliterator.SIZED | (counted() ? Spliterator.SUBSIZED : 0) : 0;
+			return sized | Spliterator.ORDERED | Spliterator.SORTED
+					| Spliterator.DISTINCT | Spliterator.NONNULL;
+		}
+
+		public Comparator<? super Entry<K, V>> getComparator() {
+			return TreeMap.this::compare;
+		}
+	} // ----------- end of nested EntrySpliterator class -----------
+
+	/**
+	 * Returns a Spliterator over the entries of the map in key order, which
+	 * splits by handing off left subtrees, so parallel streams and the bulk
+	 * operations divide a balanced tree evenly.
+	 *
+	 * @return a Spliterator over the map's entries
+	 */
+	@Override
+	public Spliterator<Entry<K, V>> spliterator() {
+		return new EntrySpliterator(null, root(), size(), true, modCount, rotationCount);
 	}
 
 
@@ -417,7 +1042,9 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 
 	/**
 	 * Returns an iterable containing all entries with keys in the range from
-	 * <code>fromKey</code> inclusive to <code>toKey</code> exclusive.
+	 * <code>fromKey</code> inclusive to <code>toKey</code> exclusive. Nothing is
+	 * copied: each iterator starts at the ceiling of <code>fromKey</code> and
+	 * walks successors, so reading the first k entries takes O(k + log n) time.
 	 *
 	 * @return iterable with keys in desired range
 	 * @throws IllegalArgumentException if <code>fromKey</code> or
@@ -426,30 +1053,14 @@ public class TreeMap<K extends Comparable<K>, V> extends AbstractSortedMap<K, V>
 	 */
 	@Override
 	public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) throws IllegalArgumentException {
-		ArrayList<Entry<K,V>> buffer = new ArrayList<>(size());
-		if(compare(fromKey,toKey) < 0){
-			subMapRecurse(fromKey,toKey,root(), buffer);
-		}
-		return buffer;
-	}
-
-	// utility to fill subMap buffer recursively (while maintaining order)
-	private void subMapRecurse(K fromKey, K toKey, Position<Entry<K, V>> p,
-							   ArrayList<Entry<K, V>> buffer) {
-		if(isInternal(p)){
-			if(compare(p.getElement(), fromKey) < 0){
-				subMapRecurse(fromKey,toKey,right(p),buffer);
-			} else{
-				subMapRecurse(fromKey,toKey,left(p),buffer);
-				if(compare(p.getElement(), toKey) < 0){
-					buffer.add(p.getElement());
-					subMapRecurse(fromKey,toKey,right(p),buffer);
-				}
-			}
+		if(compare(fromKey,toKey) >= 0){
+			return new EntryIterable(toKey, toKey);		// an empty range
 		}
+		return new EntryIterable(fromKey, toKey);
 	}
 
 	protected void rotate(Position<Entry<K, V>> p) {
+		rotationCount++;
 		tree.rotate(p);
 	}
 
@@ -2,13 +2,38 @@ package tree;
 
 import org.junit.jupiter.api.Test;
 import interfaces.Entry;
+import interfaces.Position;
 
 import java.io.IOException;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 class TreeMapTest {
 
+	static final Integer[] KEYS = new Integer[] {35,26,15,24,33,4,12,1,23,21,2,5};
+
+	/**
+	 * Runs the same puts and removes on a map stored in the default tree and on
+	 * one stored in another kind of tree, and checks that they build the same tree.
+	 */
+	static void assertSameShape(TreeMap<Integer, String> linked, TreeMap<Integer, String> other) throws IOException {
+		for(Integer i : KEYS) {
+			assertEquals(linked.put(i, Integer.toString(i)), other.put(i, Integer.toString(i)));
+			assertEquals(linked.tree.preorder().toString(), other.tree.preorder().toString());
+		}
+		for(Integer i : new Integer[] {26, 1, 15, 99, 35, 24}) {
+			assertEquals(linked.remove(i), other.remove(i));
+			assertEquals(linked.tree.preorder().toString(), other.tree.preorder().toString());
+			assertEquals(linked.tree.height(linked.root()), other.tree.height(other.root()));
+		}
+		assertEquals(linked.size(), other.size());
+		assertEquals(linked.tree.size(), other.tree.size());
+	}
+
 	@Test
 	void testSize() throws IOException {
 		TreeMap<Integer, String> map = new TreeMap<>();
@@ -196,4 +221,81 @@ class TreeMapTest {
 		assertEquals("[12, 15, 21, 23, 24, 26, 33]", map.subMap(12, 34).toString());
 	}
 
+	@Test
+	void testLazyIteration() throws IOException {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		Integer[] arr = new Integer[] {35,26,15,24,33,4,12,1,23,21,2,5};
+
+		for(Integer i : arr) {
+			map.put(i, Integer.toString(i));
+		}
+		StringBuilder sb = new StringBuilder();
+		map.forEach((k, v) -> sb.append(v).append(' '));
+		assertEquals("1 2 4 5 12 15 21 23 24 26 33 35 ", sb.toString());
+
+		Iterator<Integer> it = map.keySet().iterator();
+		assertEquals(1, it.next());
+		map.put(3, "3");
+		assertThrows(ConcurrentModificationException.class, it::next);
+
+		it = map.keySet().iterator();
+		map.put(3, "three");         // replacing a value does not change the tree
+		assertEquals(1, it.next());
+		assertFalse(new TreeMap<Integer, String>().entrySet().iterator().hasNext());
+	}
+
+
+	@Test
+	void testDegenerateTree() throws IOException {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		int n = 100000;
+		for(int i = 0; i < n; ++i) {
+			map.put(i, Integer.toString(i));      // sorted input: a path of n positions
+		}
+		assertEquals(n, map.size());
+		assertEquals("99999", map.get(n - 1));
+		assertEquals(n, map.tree.height(map.root()));
+		Position<Entry<Integer, String>> last = map.treeSearch(map.root(), n - 1);
+		assertEquals(n - 1, map.tree.depth(last));
+		assertEquals(n + 2, map.tree.diameter());     // from the root's left leaf to a last leaf
+
+		int count = 0;
+		for(Position<Entry<Integer, String>> p : map.tree.inorder()) {
+			assertEquals(count++, p.getElement().getKey());
+		}
+		assertEquals(n, count);
+		count = 0;
+		for(Entry<Integer, String> e : map.subMap(50000, 60000)) {
+			assertEquals(50000 + count++, e.getKey());
+		}
+		assertEquals(10000, count);
+		assertEquals(2 * n + 1, sizeOf(map.tree.preorder()) + n + 1);
+		assertEquals(2 * n + 1, sizeOf(map.tree.postorder()));
+		assertEquals("99998", map.remove(n - 2));
+		assertEquals(99997, map.lowerEntry(n - 1).getKey());
+	}
+
+	private static int sizeOf(Iterable<?> positions) {
+		int count = 0;
+		for(Object p : positions) count++;
+		return count;
+	}
+
+	@Test
+	void testLazySubMap() throws IOException {
+		TreeMap<Integer, String> map = new TreeMap<>();
+		for(int i = 0; i < 1000; ++i) map.put(2 * i, Integer.toString(i));
+
+		Iterator<Entry<Integer, String>> page = map.subMap(101, 1000).iterator();
+		for(int k = 102; k < 122; k += 2) assertEquals(k, page.next().getKey());
+		assertEquals("[10, 12, 14]", map.subMap(9, 15).toString());
+		assertEquals("[]", map.subMap(15, 9).toString());
+		assertFalse(map.subMap(2001, 3000).iterator().hasNext());
+		assertEquals(1000, sizeOf(map.subMap(-5, 5000)));
+
+		Iterator<Entry<Integer, String>> it = map.subMap(0, 10).iterator();
+		it.next();
+		map.put(-1, "x");
+		assertThrows(ConcurrentModificationException.class, it::next);
+	}
 }
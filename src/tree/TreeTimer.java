@@ -8,6 +8,8 @@ import interfaces.Entry;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.SQLOutput;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -368,4 +370,429 @@ public class TreeTimer {
  */
     }
 
+
+    /**
+     * Measures DurableTreeMap update throughput for increasing group-commit
+     * sizes, from one fsync per update upwards, and the time to recover the
+     * map from its snapshot and log.
+     */
+    public static void main_durability(String[] args) throws IOException {
+        int ops = 20000;
+        System.out.println("groupSize\tupdates/s\trecovery ms");
+        for (int groupSize = 1; groupSize <= 4096; groupSize *= 8) {
+            Path dir = Files.createTempDirectory("durable");
+            Random rnd = new Random(1024);
+            long start = System.nanoTime();
+            try (DurableTreeMap<Integer, String> map = new DurableTreeMap<>(new RBTreeMap<>(), dir,
+                    utils.ByteCodec.INTEGER, utils.ByteCodec.STRING, groupSize)) {
+                for (int i = 0; i < ops; i++) {
+                    map.put(rnd.nextInt(ops), Integer.toString(i));
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            long recoverStart = System.nanoTime();
+            new DurableTreeMap<>(new RBTreeMap<Integer, String>(), dir,
+                    utils.ByteCodec.INTEGER, utils.ByteCodec.STRING, groupSize).close();
+            long recovery = System.nanoTime() - recoverStart;
+            Files.deleteIfExists(dir.resolve("snapshot"));
+            Files.deleteIfExists(dir.resolve("wal"));
+            Files.delete(dir);
+            System.out.printf("%d\t%,.0f\t%.1f%n", groupSize, 1e9 * ops / elapsed, recovery / 1e6);
+        }
+    }
+
+    /**
+     * Times the search and traversal paths (get, subMap, inorder, height) on
+     * balanced trees of 500k random keys, and the sorted-input pattern on the
+     * unbalanced TreeMap, which only completes now that none of them recurse.
+     */
+    public static void main_traversal(String[] args) throws IOException {
+        int n = 500_000;
+        Integer[] keys = new Integer[n];
+        Random rnd = new Random(1024);
+        for (int i = 0; i < n; i++) keys[i] = rnd.nextInt();
+        System.out.println("map\tget ms\tsubMap ms\tinorder ms\theight ms");
+        for (int round = 0; round < 3; round++) {           // the first rounds warm up the JIT
+            List<TreeMap<Integer, Integer>> maps = List.of(new AVLTreeMap<>(), new RBTreeMap<>());
+            for (TreeMap<Integer, Integer> map : maps) {
+                for (Integer k : keys) map.put(k, k);
+                long t0 = System.nanoTime();
+                for (Integer k : keys) map.get(k);
+                long t1 = System.nanoTime();
+                for (int i = 0; i < 1000; i++) map.subMap(keys[i], keys[i] + (1 << 22)).forEach(e -> { });
+                long t2 = System.nanoTime();
+                for (int i = 0; i < 5; i++) map.tree.inorder().forEach(p -> { });
+                long t3 = System.nanoTime();
+                for (int i = 0; i < 5; i++) map.tree.height(map.root());
+                long t4 = System.nanoTime();
+                System.out.printf("%s\t%.0f\t%.0f\t%.0f\t%.0f%n", map.getClass().getSimpleName(),
+                        (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6, (t4 - t3) / 1e6);
+            }
+        }
+        TreeMap<Integer, Integer> path = new TreeMap<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < 30_000; i++) path.put(i, i);
+        System.out.printf("sorted input, 30k keys into TreeMap: %.0f ms, height %d%n",
+                (System.nanoTime() - start) / 1e6, path.tree.height(path.root()));
+    }
+
+    /**
+     * Measures the parallel bulk operations and parallel streams on AVL and
+     * red-black trees of 1M random keys, running each in a fork/join pool of
+     * 1, 2, 4, ... threads up to the number of processors.
+     */
+    public static void main_parallel(String[] args) throws Exception {
+        int n = 1_000_000;
+        Random rnd = new Random(1024);
+        List<TreeMap<Integer, Integer>> maps = List.of(new AVLTreeMap<>(), new RBTreeMap<>());
+        for (int i = 0; i < n; i++) {
+            int k = rnd.nextInt();
+            for (TreeMap<Integer, Integer> map : maps) map.put(k, i);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.println("map\tthreads\treduce ms\tsearch ms\tstream ms");
+        for (int round = 0; round < 3; round++) {           // the first rounds warm up the JIT
+            for (TreeMap<Integer, Integer> map : maps) {
+                for (int threads = 1; threads <= cores; threads *= 2) {
+                    java.util.concurrent.ForkJoinPool pool = new java.util.concurrent.ForkJoinPool(threads);
+                    long t0 = System.nanoTime();
+                    pool.submit(() -> map.reduce(4096, (k, v) -> (long) k * v, Long::sum)).get();
+                    long t1 = System.nanoTime();
+                    pool.submit(() -> map.search(4096, (k, v) -> v == -1 ? k : null)).get();
+                    long t2 = System.nanoTime();
+                    pool.submit(() -> map.parallelStream().filter(e -> e.getValue() % 7 == 0).count()).get();
+                    long t3 = System.nanoTime();
+                    pool.shutdown();
+                    System.out.printf("%s\t%d\t%.1f\t%.1f\t%.1f%n", map.getClass().getSimpleName(), threads,
+                            (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6);
+                }
+            }
+        }
+    }
+
+    /**
+     * Compares loading 1M sorted keys into AVL, red-black and treap maps one
+     * put at a time with building them by fromSorted(), and fromSorted() on
+     * the same keys shuffled, which sorts them first.
+     */
+    public static void main_bulkload(String[] args) throws IOException {
+        int n = 1_000_000;
+        Integer[] sorted = new Integer[n];
+        for (int i = 0; i < n; i++) sorted[i] = i;
+        List<Integer> list = new ArrayList<>(List.of(sorted));
+        java.util.Collections.shuffle(list, new Random(1024));
+        Integer[] shuffled = list.toArray(new Integer[0]);
+        System.out.println("map\tput ms\tfromSorted ms\tshuffled ms");
+        for (int round = 0; round < 3; round++) {           // the first rounds warm up the JIT
+            for (String name : List.of("AVLTreeMap", "RBTreeMap", "Treap")) {
+                TreeMap<Integer, Integer> map = name.equals("AVLTreeMap") ? new AVLTreeMap<>()
+                        : name.equals("RBTreeMap") ? new RBTreeMap<>() : new Treap<>();
+                long t0 = System.nanoTime();
+                for (Integer k : sorted) map.put(k, k);
+                long t1 = System.nanoTime();
+                TreeMap<Integer, Integer> built = name.equals("AVLTreeMap") ? AVLTreeMap.fromSorted(sorted, k -> k)
+                        : name.equals("RBTreeMap") ? RBTreeMap.fromSorted(sorted, k -> k) : Treap.fromSorted(sorted, k -> k);
+                long t2 = System.nanoTime();
+                if (name.equals("AVLTreeMap")) AVLTreeMap.fromSorted(shuffled, k -> k);
+                else if (name.equals("RBTreeMap")) RBTreeMap.fromSorted(shuffled, k -> k);
+                else Treap.fromSorted(shuffled, k -> k);
+                long t3 = System.nanoTime();
+                assertEquals(map.size(), built.size());
+                System.out.printf("%s\t%.0f\t%.0f\t%.0f%n", name, (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e6);
+            }
+        }
+    }
+
+    /**
+     * Draws count ranks in [0, n) from a Zipf distribution with exponent s,
+     * where rank i is drawn with probability proportional to 1 / (i + 1)^s,
+     * by binary search in the cumulative distribution.
+     */
+    private static int[] zipf(int n, double s, int count, Random rnd) {
+        double[] cdf = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) cdf[i] = sum += 1 / Math.pow(i + 1, s);
+        int[] ranks = new int[count];
+        for (int i = 0; i < count; i++) {
+            int r = java.util.Arrays.binarySearch(cdf, rnd.nextDouble() * sum);
+            ranks[i] = Math.min(r >= 0 ? r : -r - 1, n - 1);
+        }
+        return ranks;
+    }
+
+    /**
+     * Compares get() throughput of splay, AVL and red-black maps of 1M random
+     * keys under Zipf-skewed lookups, from uniform (s = 0) to heavily skewed.
+     * The hot ranks are mapped to random keys, so popularity is unrelated to
+     * key order.
+     */
+    public static void main_zipf(String[] args) throws IOException {
+        int n = 1_000_000, lookups = 2_000_000;
+        Random rnd = new Random(1024);
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) keys[i] = rnd.nextInt();
+        List<TreeMap<Integer, Integer>> maps = List.of(new SplayTreeMap<>(), new AVLTreeMap<>(), new RBTreeMap<>());
+        for (TreeMap<Integer, Integer> map : maps) {
+            for (Integer k : keys) map.put(k, k);
+        }
+        System.out.println("s\tmap\tMops/s");
+        for (int round = 0; round < 2; round++) {           // the first round warms up the JIT
+            for (double s : new double[] {0.0, 0.8, 0.99, 1.2}) {
+                int[] ranks = zipf(n, s, lookups, rnd);
+                Integer[] probes = new Integer[lookups];
+                for (int i = 0; i < lookups; i++) probes[i] = keys[ranks[i]];
+                for (TreeMap<Integer, Integer> map : maps) {
+                    long t0 = System.nanoTime();
+                    for (Integer k : probes) map.get(k);
+                    long t1 = System.nanoTime();
+                    System.out.printf("%.2f\t%s\t%.2f%n", s, map.getClass().getSimpleName(), lookups * 1e3 / (t1 - t0));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs ops operations on each of the given number of threads against a
+     * shared map of keys in [0, range), half of them present at the start,
+     * and returns the combined throughput in operations per second. A fraction
+     * writeRatio of the operations are puts and removes in equal parts; the
+     * rest are gets and ceilingEntry searches in equal parts.
+     */
+    private static double throughput(interfaces.SortedMap<Integer, Integer> map, int threads, int ops, int range,
+                                     double writeRatio) throws Exception {
+        for (int k = 0; k < range; k += 2) map.put(k, k);
+        List<Thread> workers = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            final long seed = 1024 + t;
+            workers.add(new Thread(() -> {
+                Random rnd = new Random(seed);
+                try {
+                    for (int i = 0; i < ops; i++) {
+                        int k = rnd.nextInt(range);
+                        double op = rnd.nextDouble();
+                        if (op < writeRatio / 2) map.put(k, i);
+                        else if (op < writeRatio) map.remove(k);
+                        else if (op < (1 + writeRatio) / 2) map.get(k);
+                        else map.ceilingEntry(k);
+                    }
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }));
+        }
+        long start = System.nanoTime();
+        for (Thread w : workers) w.start();
+        for (Thread w : workers) w.join();
+        return 1e9 * threads * ops / (System.nanoTime() - start);
+    }
+
+    /**
+     * Compares the lock-free ConcurrentSkipListSortedMap with an RBTreeMap
+     * behind a ReentrantReadWriteLock, for 1, 2, 4, ... threads (at least 4,
+     * so that contention shows even on small machines), on a read-mostly and
+     * on a write-heavy mix of operations over 100k keys.
+     */
+    public static void main_concurrent(String[] args) throws Exception {
+        int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int ops = 500_000, range = 100_000;
+        for (double writeRatio : new double[] {0.1, 0.5}) {
+            System.out.printf("# %.0f%% writes, ops/s%nthreads\tRWLock RBTreeMap\tSkipList%n", writeRatio * 100);
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double locked = throughput(new ReadWriteLockedMap<>(new RBTreeMap<Integer, Integer>()), threads, ops, range, writeRatio);
+                double skipList = throughput(new ConcurrentSkipListSortedMap<Integer, Integer>(), threads, ops, range, writeRatio);
+                System.out.printf("%d\t%,.0f\t%,.0f%n", threads, locked, skipList);
+            }
+        }
+    }
+
+    /**
+     * Compares reader scaling on a read-dominated mix (1% writes) over an
+     * RBTreeMap of 100k keys guarded by synchronized, by a
+     * ReentrantReadWriteLock and by the optimistic reads of StampedRBTreeMap,
+     * for 1, 2, 4, ... threads (at least 4).
+     */
+    public static void main_stamped(String[] args) throws Exception {
+        int maxThreads = Math.max(4, Runtime.getRuntime().availableProcessors());
+        int ops = 1_000_000, range = 100_000;
+        System.out.println("threads\tsynchronized\tRWLock\tStamped\tretries");
+        for (int round = 0; round < 2; round++) {           // the first round warms up the JIT
+            for (int threads = 1; threads <= maxThreads; threads *= 2) {
+                double sync = throughput(new SynchronizedMap<>(new RBTreeMap<Integer, Integer>()), threads, ops, range, 0.01);
+                double rw = throughput(new ReadWriteLockedMap<>(new RBTreeMap<Integer, Integer>()), threads, ops, range, 0.01);
+                StampedRBTreeMap<Integer, Integer> stampedMap = new StampedRBTreeMap<>();
+                double stamped = throughput(stampedMap, threads, ops, range, 0.01);
+                System.out.printf("%d\t%,.0f\t%,.0f\t%,.0f\t%d%n", threads, sync, rw, stamped, stampedMap.optimisticRetries());
+            }
+        }
+    }
+
+    /**
+     * Compares taking a point-in-time view of 1M entries: a snapshot of a
+     * PersistentAVLTreeMap against copying the entries of an RBTreeMap, and
+     * the cost of path copying on put and get against the mutable trees.
+     */
+    public static void main_snapshot(String[] args) throws IOException {
+        int n = 1_000_000;
+        Random rnd = new Random(1024);
+        Integer[] keys = new Integer[n];
+        for (int i = 0; i < n; i++) keys[i] = rnd.nextInt();
+        System.out.println("map\tput ms\tget ms\tms per view");
+        for (int round = 0; round < 3; round++) {           // the first rounds warm up the JIT
+            RBTreeMap<Integer, Integer> rb = new RBTreeMap<>();
+            AVLTreeMap<Integer, Integer> avl = new AVLTreeMap<>();
+            PersistentAVLTreeMap<Integer, Integer> persistent = new PersistentAVLTreeMap<>();
+            for (interfaces.SortedMap<Integer, Integer> map : List.<interfaces.SortedMap<Integer, Integer>>of(rb, avl, persistent)) {
+                long t0 = System.nanoTime();
+                for (Integer k : keys) map.put(k, k);
+                long t1 = System.nanoTime();
+                for (Integer k : keys) map.get(k);
+                long t2 = System.nanoTime();
+                if (map == persistent) {
+                    for (int i = 0; i < 1000; i++) persistent.snapshot();
+                } else {
+                    for (int i = 0; i < 1000; i++) {
+                        List<Entry<Integer, Integer>> copy = new ArrayList<>(map.size());
+                        for (Entry<Integer, Integer> e : map.entrySet()) copy.add(e);
+                    }
+                }
+                long t3 = System.nanoTime();
+                System.out.printf("%s\t%.0f\t%.0f\t%.4f%n", map.getClass().getSimpleName(),
+                        (t1 - t0) / 1e6, (t2 - t1) / 1e6, (t3 - t2) / 1e9);     // 1000 views, so ms per view
+            }
+        }
+    }
+
+    /*
+     * A sorted map that serializes every operation with synchronized.
+     */
+    static class SynchronizedMap<K, V> extends AbstractSortedMap<K, V> {
+        private final interfaces.SortedMap<K, V> map;
+
+        SynchronizedMap(interfaces.SortedMap<K, V> map) {
+            this.map = map;
+        }
+
+        public synchronized int size() { return map.size(); }
+
+        public synchronized V get(K key) throws IOException { return map.get(key); }
+
+        public synchronized V put(K key, V value) throws IOException { return map.put(key, value); }
+
+        public synchronized V remove(K key) throws IOException { return map.remove(key); }
+
+        public synchronized Entry<K, V> firstEntry() { return map.firstEntry(); }
+
+        public synchronized Entry<K, V> lastEntry() { return map.lastEntry(); }
+
+        public synchronized Entry<K, V> ceilingEntry(K key) { return map.ceilingEntry(key); }
+
+        public synchronized Entry<K, V> floorEntry(K key) { return map.floorEntry(key); }
+
+        public synchronized Entry<K, V> lowerEntry(K key) { return map.lowerEntry(key); }
+
+        public synchronized Entry<K, V> higherEntry(K key) { return map.higherEntry(key); }
+
+        public synchronized Iterable<Entry<K, V>> subMap(K fromKey, K toKey) {
+            ArrayList<Entry<K, V>> buffer = new ArrayList<>();
+            for (Entry<K, V> entry : map.subMap(fromKey, toKey)) buffer.add(entry);
+            return buffer;
+        }
+
+        public synchronized Iterable<Entry<K, V>> entrySet() {
+            ArrayList<Entry<K, V>> buffer = new ArrayList<>(map.size());
+            for (Entry<K, V> entry : map.entrySet()) buffer.add(entry);
+            return buffer;
+        }
+
+        public synchronized double loadFactor() { return map.loadFactor(); }
+
+        public synchronized int numCollisions() { return map.numCollisions(); }
+    }
+
+    /*
+     * A sorted map guarded by one ReentrantReadWriteLock: reads share the read
+     * lock and updates take the write lock, the baseline that the concurrent
+     * sorted maps are compared against. Reads of a splay tree change it, so it
+     * must not be used to wrap one.
+     */
+    static class ReadWriteLockedMap<K, V> extends AbstractSortedMap<K, V> {
+        private final interfaces.SortedMap<K, V> map;
+        private final java.util.concurrent.locks.ReentrantReadWriteLock lock = new java.util.concurrent.locks.ReentrantReadWriteLock();
+
+        ReadWriteLockedMap(interfaces.SortedMap<K, V> map) {
+            this.map = map;
+        }
+
+        private interface Op<T> {
+            T get() throws IOException;
+        }
+
+        private <T> T read(Op<T> op) throws IOException {
+            lock.readLock().lock();
+            try {
+                return op.get();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private <T> T write(Op<T> op) throws IOException {
+            lock.writeLock().lock();
+            try {
+                return op.get();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /** Runs a read that cannot throw IOException. */
+        private <T> T query(Op<T> op) {
+            try {
+                return read(op);
+            } catch (IOException e) {
+                throw new java.io.UncheckedIOException(e);
+            }
+        }
+
+        public int size() { return query(map::size); }
+
+        public V get(K key) throws IOException { return read(() -> map.get(key)); }
+
+        public V put(K key, V value) throws IOException { return write(() -> map.put(key, value)); }
+
+        public V remove(K key) throws IOException { return write(() -> map.remove(key)); }
+
+        public Entry<K, V> firstEntry() { return query(map::firstEntry); }
+
+        public Entry<K, V> lastEntry() { return query(map::lastEntry); }
+
+        public Entry<K, V> ceilingEntry(K key) { return query(() -> map.ceilingEntry(key)); }
+
+        public Entry<K, V> floorEntry(K key) { return query(() -> map.floorEntry(key)); }
+
+        public Entry<K, V> lowerEntry(K key) { return query(() -> map.lowerEntry(key)); }
+
+        public Entry<K, V> higherEntry(K key) { return query(() -> map.higherEntry(key)); }
+
+        public Iterable<Entry<K, V>> subMap(K fromKey, K toKey) {
+            return query(() -> {
+                ArrayList<Entry<K, V>> buffer = new ArrayList<>();
+                for (Entry<K, V> entry : map.subMap(fromKey, toKey)) buffer.add(entry);
+                return buffer;
+            });
+        }
+
+        public Iterable<Entry<K, V>> entrySet() {
+            return query(() -> {
+                ArrayList<Entry<K, V>> buffer = new ArrayList<>(map.size());
+                for (Entry<K, V> entry : map.entrySet()) buffer.add(entry);
+                return buffer;
+            });
+        }
+
+        public double loadFactor() { return query(map::loadFactor); }
+
+        public int numCollisions() { return query(map::numCollisions); }
+    }
+
 }
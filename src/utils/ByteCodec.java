@@ -0,0 +1,63 @@
+package utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts keys or values to and from bytes, for maps that store their
+ * entries outside the Java heap.
+ * <p>
+ * Encodings must be deterministic: equal objects must always encode to the
+ * same bytes, since stored keys are compared byte by byte.
+ */
+public interface ByteCodec<T> {
+
+	/**
+	 * Returns the serialized form of the given object.
+	 *
+	 * @param value the object to encode
+	 * @return its bytes
+	 */
+	byte[] encode(T value);
+
+	/**
+	 * Rebuilds an object from bytes produced by encode.
+	 *
+	 * @param bytes the serialized form
+	 * @return the decoded object
+	 */
+	T decode(byte[] bytes);
+
+	/** Four-byte big-endian ints. */
+	ByteCodec<Integer> INTEGER = new ByteCodec<Integer>() {
+		public byte[] encode(Integer value) {
+			return ByteBuffer.allocate(Integer.BYTES).putInt(value).array();
+		}
+
+		public Integer decode(byte[] bytes) {
+			return ByteBuffer.wrap(bytes).getInt();
+		}
+	};
+
+	/** Eight-byte big-endian longs. */
+	ByteCodec<Long> LONG = new ByteCodec<Long>() {
+		public byte[] encode(Long value) {
+			return ByteBuffer.allocate(Long.BYTES).putLong(value).array();
+		}
+
+		public Long decode(byte[] bytes) {
+			return ByteBuffer.wrap(bytes).getLong();
+		}
+	};
+
+	/** UTF-8 strings. */
+	ByteCodec<String> STRING = new ByteCodec<String>() {
+		public byte[] encode(String value) {
+			return value.getBytes(StandardCharsets.UTF_8);
+		}
+
+		public String decode(byte[] bytes) {
+			return new String(bytes, StandardCharsets.UTF_8);
+		}
+	};
+}
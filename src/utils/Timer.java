@@ -1,5 +1,12 @@
 package utils;
 
+import hashtable.ChainHashMap;
+import hashtable.HashStrategy;
+import hashtable.MADHashStrategy;
+import hashtable.MultiplyShiftHashStrategy;
+import hashtable.MurmurHashStrategy;
+import hashtable.IntIntHashMap;
+import hashtable.ProbeHashMap;
 import interfaces.Map;
 import tree.AVLTreeMap;
 import tree.TreeMap;
@@ -85,6 +92,61 @@ public class Timer {
         }
     }
 
+    /*
+     * Times n puts followed by n gets of Integer keys on each hash map,
+     * comparing the boxed maps with the primitive IntIntHashMap.
+     */
+    public static void main_hash_ds(String[] args) {
+        int n_min = 1000, n_max = 1000000, n_samples = 7;
+        double alpha = ( (Math.log(n_max) / Math.log(n_min)) - 1) / (n_samples-1);
+
+        for(int i = 0; i < n_samples; ++i) {
+            int n = (int) Math.pow(n_min, (1 + i * alpha));
+            int [] arr = new Random(1024).ints(n).toArray();
+
+            Runnable worker_chain = () -> {
+                ChainHashMap<Integer, Integer> map = new ChainHashMap<>();
+                for (int k : arr) map.put(k, k);
+                for (int k : arr) map.get(k);
+            };
+
+            Runnable worker_probe = () -> {
+                ProbeHashMap<Integer, Integer> map = new ProbeHashMap<>();
+                for (int k : arr) map.put(k, k);
+                for (int k : arr) map.get(k);
+            };
+
+            Runnable worker_intint = () -> {
+                IntIntHashMap map = new IntIntHashMap();
+                for (int k : arr) map.put(k, k, 0);
+                for (int k : arr) map.getOrDefault(k, 0);
+            };
+
+            System.out.println(i + "\t" + n + "\t" + Timer.measure(worker_chain)
+                    + "\t" + Timer.measure(worker_probe) + "\t" + Timer.measure(worker_intint));
+        }
+    }
+
+    /*
+     * Times n puts followed by n gets on a ChainHashMap for each hash strategy,
+     * and reports the number of collisions each strategy leaves in the table.
+     */
+    public static void main_hash_strategies(String[] args) {
+        HashStrategy[] strategies = { new MADHashStrategy(), new MultiplyShiftHashStrategy(), new MurmurHashStrategy() };
+        int n = 1000000;
+        int [] arr = new Random(1024).ints(n).toArray();
+
+        for (HashStrategy strategy : strategies) {
+            ChainHashMap<Integer, Integer> map = new ChainHashMap<>(17, strategy);
+            Runnable worker = () -> {
+                for (int k : arr) map.put(k, k);
+                for (int k : arr) map.get(k);
+            };
+            double result = Timer.measure(worker);
+            System.out.println(strategy + "\t" + n + "\t" + result + "\t" + map.numCollisions());
+        }
+    }
+
     public static boolean isSorted(Integer[] array) {
         return IntStream.range(0, array.length - 1).allMatch(i -> array[i] <= array[i + 1]);
     }